@@ -0,0 +1,204 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.benchmarks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares hashCode and equals of the generated messages with the ones which were generated by the
+ * previous version of the templates ({@link Objects#hash(Object...)} and fields compared in
+ * declaration order).
+ *
+ * <p>Both message classes are written by hand the same way as templates render them, so that
+ * results do not depend on the jrosmessages version. JRosMessageGeneratorTests checks that {@link
+ * GeneratedMessage} stays the same as the one rendered by the current templates.
+ *
+ * <p>Run with "-prof gc" to see allocation rates.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EqualsHashCodeBenchmarks {
+
+    /** Message as it was rendered by the previous templates */
+    public static class ObjectsHashMessage {
+        public ObjectsHashMessage header = null;
+        public float[] ranges = new float[0];
+        public int seq;
+        public double angle_min;
+        public double angle_max;
+        public long stamp;
+        public boolean valid;
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                    header, Arrays.hashCode(ranges), seq, angle_min, angle_max, stamp, valid);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ObjectsHashMessage other)
+                return Objects.equals(header, other.header)
+                        && Arrays.equals(ranges, other.ranges)
+                        && seq == other.seq
+                        && angle_min == other.angle_min
+                        && angle_max == other.angle_max
+                        && stamp == other.stamp
+                        && valid == other.valid;
+            return false;
+        }
+    }
+
+    /** Message as it is rendered by the current templates */
+    public static class GeneratedMessage {
+        public GeneratedMessage header = null;
+        public float[] ranges = new float[0];
+        public int seq;
+        public double angle_min;
+        public double angle_max;
+        public long stamp;
+        public boolean valid;
+
+        @Override
+        public int hashCode() {
+            int h = 1;
+            h = 31 * h + Objects.hashCode(header);
+            h = 31 * h + Arrays.hashCode(ranges);
+            h = 31 * h + Integer.hashCode(seq);
+            h = 31 * h + Double.hashCode(angle_min);
+            h = 31 * h + Double.hashCode(angle_max);
+            h = 31 * h + Long.hashCode(stamp);
+            h = 31 * h + Boolean.hashCode(valid);
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof GeneratedMessage other)
+                return seq == other.seq
+                        && angle_min == other.angle_min
+                        && angle_max == other.angle_max
+                        && stamp == other.stamp
+                        && valid == other.valid
+                        && Objects.equals(header, other.header)
+                        && Arrays.equals(ranges, other.ranges);
+            return false;
+        }
+    }
+
+    private static final int RANGES_LENGTH = 360;
+
+    private ObjectsHashMessage objectsHashMessage;
+    private ObjectsHashMessage objectsHashCopy;
+    private ObjectsHashMessage objectsHashOther;
+    private GeneratedMessage generatedMessage;
+    private GeneratedMessage generatedCopy;
+    private GeneratedMessage generatedOther;
+
+    @Setup
+    public void setup() {
+        objectsHashMessage = objectsHashMessage(1);
+        objectsHashCopy = objectsHashMessage(1);
+        objectsHashOther = objectsHashMessage(2);
+        generatedMessage = generatedMessage(1);
+        generatedCopy = generatedMessage(1);
+        generatedOther = generatedMessage(2);
+    }
+
+    private static ObjectsHashMessage objectsHashMessage(int seq) {
+        var header = new ObjectsHashMessage();
+        header.stamp = 123;
+        var message = new ObjectsHashMessage();
+        message.header = header;
+        message.ranges = new float[RANGES_LENGTH];
+        Arrays.fill(message.ranges, 1.5F);
+        message.seq = seq;
+        message.angle_min = -Math.PI;
+        message.angle_max = Math.PI;
+        message.stamp = 456;
+        message.valid = true;
+        return message;
+    }
+
+    private static GeneratedMessage generatedMessage(int seq) {
+        var header = new GeneratedMessage();
+        header.stamp = 123;
+        var message = new GeneratedMessage();
+        message.header = header;
+        message.ranges = new float[RANGES_LENGTH];
+        Arrays.fill(message.ranges, 1.5F);
+        message.seq = seq;
+        message.angle_min = -Math.PI;
+        message.angle_max = Math.PI;
+        message.stamp = 456;
+        message.valid = true;
+        return message;
+    }
+
+    @Benchmark
+    public int hashCode_objectsHash() {
+        return objectsHashMessage.hashCode();
+    }
+
+    @Benchmark
+    public int hashCode_generated() {
+        return generatedMessage.hashCode();
+    }
+
+    /** All fields are compared */
+    @Benchmark
+    public boolean equals_objectsHash() {
+        return objectsHashMessage.equals(objectsHashCopy);
+    }
+
+    /** All fields are compared */
+    @Benchmark
+    public boolean equals_generated() {
+        return generatedMessage.equals(generatedCopy);
+    }
+
+    /** Messages differ only in the primitive field which is declared after the array */
+    @Benchmark
+    public boolean notEquals_objectsHash() {
+        return objectsHashMessage.equals(objectsHashOther);
+    }
+
+    /** Messages differ only in the primitive field which is declared after the array */
+    @Benchmark
+    public boolean notEquals_generated() {
+        return generatedMessage.equals(generatedOther);
+    }
+}
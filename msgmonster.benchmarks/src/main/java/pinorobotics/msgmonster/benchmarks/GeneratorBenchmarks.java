@@ -0,0 +1,200 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.benchmarks;
+
+import id.xfunction.nio.file.XFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pinorobotics.msgmonster.generator.JRosActionGenerator;
+import pinorobotics.msgmonster.generator.JRosMessageGenerator;
+import pinorobotics.msgmonster.generator.JRosServiceGenerator;
+import pinorobotics.msgmonster.generator.MessageDefinitionReader;
+import pinorobotics.msgmonster.generator.Ros1Md5Calculator;
+import pinorobotics.msgmonster.generator.Ros2TypeHashCalculator;
+import pinorobotics.msgmonster.output.DirectorySourceSink;
+import pinorobotics.msgmonster.output.GeneratedSourceSink;
+import pinorobotics.msgmonster.output.InMemorySourceSink;
+import pinorobotics.msgmonster.output.ZipSourceSink;
+import pinorobotics.msgmonster.ros.InMemoryRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Benchmarks for each phase of the generation. All ROS files are read from memory so that results
+ * do not depend on ROS commands.
+ *
+ * <p>Each benchmark operation processes all ROS files of the package.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratorBenchmarks {
+    /** Generators write into memory so that only write benchmarks depend on the disk */
+    private static final Path OUTPUT_FOLDER = Paths.get("gen");
+
+    /** Number of ROS files inside synthetic package */
+    @Param({"100"})
+    public int size;
+
+    /** Number of fields in each message of synthetic package */
+    @Param({"10", "200"})
+    public int fieldsCount;
+
+    @Param({"ros1", "ros2"})
+    public RosVersion rosVersion;
+
+    private InMemoryRosMsgCommand rosmsg;
+    private List<RosFile> messages;
+    private List<RosFile> services;
+    private List<RosFile> actions;
+    private Map<RosFile, String> renderedMessages;
+
+    /**
+     * Output folder of the write benchmarks. Sinks write files only once so it is cleaned before
+     * each invocation.
+     */
+    @State(Scope.Thread)
+    public static class OutputFolder {
+        private Path path;
+
+        @Setup
+        public void setup() throws IOException {
+            path = Files.createTempDirectory("msgmonster-benchmarks");
+        }
+
+        @Setup(Level.Invocation)
+        public void clean() throws IOException {
+            XFiles.deleteRecursively(path);
+            Files.createDirectories(path);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            XFiles.deleteRecursively(path);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        var rosFiles = RosPackages.synthetic(rosVersion, size, fieldsCount);
+        rosmsg = new InMemoryRosMsgCommand(rosFiles, rosVersion);
+        messages = filter(rosFiles, RosInterfaceType.MESSAGE);
+        services = filter(rosFiles, RosInterfaceType.SERVICE);
+        actions = filter(rosFiles, RosInterfaceType.ACTION);
+        var generator = createMessageGenerator();
+        renderedMessages =
+                messages.stream()
+                        .collect(Collectors.toMap(rosFile -> rosFile, generator::renderJavaClass));
+    }
+
+    private static List<RosFile> filter(
+            Map<RosFile, List<String>> rosFiles, RosInterfaceType type) {
+        return rosFiles.keySet().stream().filter(rosFile -> rosFile.type() == type).toList();
+    }
+
+    private JRosMessageGenerator createMessageGenerator() {
+        // new calculators on each invocation so that memoized values are not reused
+        return new JRosMessageGenerator(
+                rosmsg,
+                new Ros1Md5Calculator(rosmsg),
+                new Ros2TypeHashCalculator(rosmsg),
+                OUTPUT_FOLDER,
+                Paths.get("id.jrosmessages.bench_msgs"));
+    }
+
+    @Benchmark
+    public void readMessageDefinition(Blackhole blackhole) {
+        var reader = new MessageDefinitionReader(rosmsg);
+        for (var rosFile : messages) blackhole.consume(reader.read(rosFile));
+    }
+
+    /** Includes md5sum and type hash calculations */
+    @Benchmark
+    public void renderMessages(Blackhole blackhole) {
+        var generator = createMessageGenerator();
+        for (var rosFile : messages) blackhole.consume(generator.renderJavaClass(rosFile));
+    }
+
+    /** Splitting services into request and response messages and generating all their classes */
+    @Benchmark
+    public void generateServices(Blackhole blackhole) {
+        var generator =
+                new JRosServiceGenerator(
+                        rosmsg, OUTPUT_FOLDER, Paths.get("id.jrosmessages.bench_msgs"));
+        generator.setSourceSink(new InMemorySourceSink(OUTPUT_FOLDER));
+        for (var rosFile : services) blackhole.consume(generator.generateJavaClass(rosFile));
+    }
+
+    /** Splitting actions into goal and result messages and generating all their classes */
+    @Benchmark
+    public void generateActions(Blackhole blackhole) {
+        var generator =
+                new JRosActionGenerator(
+                        rosmsg, OUTPUT_FOLDER, Paths.get("id.jrosmessages.bench_msgs"));
+        generator.setSourceSink(new InMemorySourceSink(OUTPUT_FOLDER));
+        for (var rosFile : actions) blackhole.consume(generator.generateJavaClass(rosFile));
+    }
+
+    /** Writing already rendered classes, each into its own file */
+    @Benchmark
+    public void writeFiles(OutputFolder outputFolder) {
+        write(new DirectorySourceSink(), outputFolder.path);
+    }
+
+    /** Writing already rendered classes into single zip archive */
+    @Benchmark
+    public void writeZip(OutputFolder outputFolder) {
+        write(
+                new ZipSourceSink(outputFolder.path, outputFolder.path.resolve("sources.zip")),
+                outputFolder.path);
+    }
+
+    private void write(GeneratedSourceSink sink, Path outputFolder) {
+        try (sink) {
+            for (var e : renderedMessages.entrySet()) {
+                sink.write(outputFolder.resolve(e.getKey().flatName() + ".java"), e.getValue());
+            }
+        }
+    }
+}
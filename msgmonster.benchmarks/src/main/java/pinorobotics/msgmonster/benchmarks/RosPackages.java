@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.benchmarks;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * ROS files which are used by the benchmarks, in the form accepted by {@link
+ * pinorobotics.msgmonster.ros.InMemoryRosMsgCommand}
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class RosPackages {
+    private static final String SYNTHETIC_PACKAGE = "bench_msgs";
+    private static final String[] FIELD_TYPES = {
+        "int32", "float64[]", "string", "uint8[16]", "bool", "string[]"
+    };
+
+    /**
+     * Synthetic ROS package with the given number of messages, where each message has given number
+     * of fields. Every tenth ROS file is a service and every twentieth is an action. Messages
+     * reference each other so nested messages are resolved too.
+     */
+    public static Map<RosFile, List<String>> synthetic(
+            RosVersion rosVersion, int size, int fieldsCount) {
+        var rosFiles = new LinkedHashMap<RosFile, List<String>>();
+        for (int i = 0; i < size; i++) {
+            if (i % 20 == 19) {
+                var lines = new ArrayList<String>();
+                lines.addAll(generateFields(i, fieldsCount / 3));
+                lines.add("---");
+                lines.addAll(generateFields(i + 1, fieldsCount / 3));
+                lines.add("---");
+                lines.addAll(generateFields(i + 2, fieldsCount / 3));
+                rosFiles.put(
+                        createRosFile(
+                                rosVersion,
+                                SYNTHETIC_PACKAGE,
+                                "action",
+                                "Action" + i,
+                                RosInterfaceType.ACTION),
+                        lines);
+            } else if (i % 10 == 9) {
+                var lines = new ArrayList<String>();
+                lines.addAll(generateFields(i, fieldsCount / 2));
+                lines.add("---");
+                lines.addAll(generateFields(i + 1, fieldsCount / 2));
+                rosFiles.put(
+                        createRosFile(
+                                rosVersion,
+                                SYNTHETIC_PACKAGE,
+                                "srv",
+                                "Service" + i,
+                                RosInterfaceType.SERVICE),
+                        lines);
+            } else {
+                var lines = new ArrayList<String>();
+                lines.add("# Synthetic message " + i);
+                lines.add("int32 CONSTANT_" + i + "=" + i);
+                lines.addAll(generateFields(i, fieldsCount));
+                rosFiles.put(
+                        createRosFile(
+                                rosVersion,
+                                SYNTHETIC_PACKAGE,
+                                "msg",
+                                "Message" + i,
+                                RosInterfaceType.MESSAGE),
+                        lines);
+            }
+        }
+        return rosFiles;
+    }
+
+    private static List<String> generateFields(int messageIndex, int fieldsCount) {
+        var lines = new ArrayList<String>();
+        for (int i = 0; i < fieldsCount; i++) {
+            var type = FIELD_TYPES[i % FIELD_TYPES.length];
+            // reference previous message, skip services and actions which are not messages
+            var nested = previousMessage(messageIndex);
+            if (i % 7 == 6 && nested >= 0) type = "Message" + nested;
+            lines.add("# field " + i);
+            lines.add(type + " field_" + i);
+        }
+        return lines;
+    }
+
+    private static int previousMessage(int messageIndex) {
+        for (int i = messageIndex - 1; i >= 0; i--) {
+            if (i % 10 != 9) return i;
+        }
+        return -1;
+    }
+
+    private static RosFile createRosFile(
+            RosVersion rosVersion,
+            String packageName,
+            String folderName,
+            String name,
+            RosInterfaceType type) {
+        return switch (rosVersion) {
+            case ros1 -> new RosFile(Paths.get(packageName, name), type);
+            case ros2 -> new RosFile(Paths.get(packageName, folderName, name), type);
+        };
+    }
+}
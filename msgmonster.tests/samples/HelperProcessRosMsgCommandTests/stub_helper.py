@@ -0,0 +1,49 @@
+#!/usr/bin/env python3
+#
+# Stub for msgmonster_helper.py which speaks the same protocol but instead of
+# ROS Python modules it reads ROS files from the samples folder (same layout as
+# RosMsgCommandMock uses).
+#
+# Usage: stub_helper.py <ros1|ros2> <samples folder> <start log file>
+
+import os
+import sys
+
+EXTENSIONS = {"MESSAGE": "msg", "SERVICE": "srv", "ACTION": "action"}
+
+ros_version, folder, start_log = sys.argv[1:]
+with open(start_log, "a") as log:
+    log.write("started\n")
+
+
+def show(type, name):
+    parts = name.split("/")
+    path = os.path.join(folder, parts[0], parts[-1] + "." + EXTENSIONS[type])
+    with open(path) as file:
+        return file.read().splitlines()
+
+
+def package(name):
+    result = []
+    for file_name in sorted(os.listdir(os.path.join(folder, name))):
+        interface, kind = os.path.splitext(file_name)
+        kind = kind[1:]
+        if ros_version == "ros2":
+            result.append("%s %s/%s/%s" % (kind, name, kind, interface))
+        elif kind != "action":
+            # ROS1 actions are available only through the messages generated for them
+            result.append("%s %s/%s" % (kind, name, interface))
+    return result
+
+
+commands = {"show": show, "package": package}
+for request in sys.stdin:
+    args = request.split()
+    try:
+        lines = commands[args[0]](*args[1:])
+        print("OK %d" % len(lines))
+        for line in lines:
+            print(line)
+    except Exception as e:
+        print("ERROR " + str(e).replace("\n", " "))
+    sys.stdout.flush()
@@ -41,7 +41,7 @@ import id.jrosmessages.RosInterfaceType;
     name = AddTwoIntsRequestMessage.NAME,
     interfaceType = RosInterfaceType.SERVICE,
     fields = { "a", "b" },
-    md5sum = "${md5sum}"
+    md5sum = "36d09b846be0b371c5f190354dd3153e"
 )
 public class AddTwoIntsRequestMessage implements Message {
    
@@ -63,10 +63,10 @@ public class AddTwoIntsRequestMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           a,
-           b
-       );
+       int h = 1;
+       h = 31 * h + Long.hashCode(a);
+       h = 31 * h + Long.hashCode(b);
+       return h;
    }
    
    @Override
@@ -40,7 +40,7 @@ import id.jrosmessages.RosInterfaceType;
 @MessageMetadata(
     name = AddTwoIntsResponseMessage.NAME,
     interfaceType = RosInterfaceType.SERVICE,
-    md5sum = "${md5sum}"
+    md5sum = "b88405221c77b1878a3cbbfff53428d7"
 )
 public class AddTwoIntsResponseMessage implements Message {
    
@@ -55,9 +55,9 @@ public class AddTwoIntsResponseMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           sum
-       );
+       int h = 1;
+       h = 31 * h + Long.hashCode(sum);
+       return h;
    }
    
    @Override
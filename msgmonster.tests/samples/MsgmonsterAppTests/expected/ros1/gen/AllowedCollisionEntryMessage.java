@@ -39,7 +39,7 @@ import java.util.Arrays;
  */
 @MessageMetadata(
     name = AllowedCollisionEntryMessage.NAME,
-    md5sum = "17ec56b810bbff82fc5397be928800de"
+    md5sum = "90d1ae1850840724bb043562fe3285fc"
 )
 public class AllowedCollisionEntryMessage implements Message {
    
@@ -58,9 +58,9 @@ public class AllowedCollisionEntryMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           Arrays.hashCode(enabled)
-       );
+       int h = 1;
+       h = 31 * h + Arrays.hashCode(enabled);
+       return h;
    }
    
    @Override
@@ -41,7 +41,7 @@ import java.util.Arrays;
 @MessageMetadata(
     name = AllowedCollisionMatrixMessage.NAME,
     fields = { "entry_names", "entry_values", "default_entry_names", "default_entry_values" },
-    md5sum = "bc576a2c619c2ad019b895307f5743af"
+    md5sum = "2df5d07103dd5603641bdc5ecb5ecdf5"
 )
 public class AllowedCollisionMatrixMessage implements Message {
    
@@ -51,7 +51,11 @@ public class AllowedCollisionMatrixMessage implements Message {
     * The list of entry names in the matrix
     */
    @Array(size = 17)
-   public StringMessage[] entry_names = new StringMessage[0];
+   public StringMessage[] entry_names = new StringMessage[17];
+   
+   {
+       Arrays.setAll(entry_names, i -> new StringMessage());
+   }
    
    /**
     * The individual entries in the allowed collision matrix
@@ -78,6 +82,17 @@ public class AllowedCollisionMatrixMessage implements Message {
        return this;
    }
    
+   public AllowedCollisionMatrixMessage setEntryNames(int index, StringMessage value) {
+       this.entry_names[index] = value;
+       return this;
+   }
+   
+   public AllowedCollisionMatrixMessage copyEntryNamesFrom(StringMessage[] entry_names) {
+       Preconditions.equals(17, entry_names.length);
+       System.arraycopy(entry_names, 0, this.entry_names, 0, 17);
+       return this;
+   }
+   
    public AllowedCollisionMatrixMessage withEntryValues(AllowedCollisionEntryMessage... entry_values) {
        this.entry_values = entry_values;
        return this;
@@ -95,12 +110,12 @@ public class AllowedCollisionMatrixMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           Arrays.hashCode(entry_names),
-           Arrays.hashCode(entry_values),
-           Arrays.hashCode(default_entry_names),
-           Arrays.hashCode(default_entry_values)
-       );
+       int h = 1;
+       h = 31 * h + Arrays.hashCode(entry_names);
+       h = 31 * h + Arrays.hashCode(entry_values);
+       h = 31 * h + Arrays.hashCode(default_entry_names);
+       h = 31 * h + Arrays.hashCode(default_entry_values);
+       return h;
    }
    
    @Override
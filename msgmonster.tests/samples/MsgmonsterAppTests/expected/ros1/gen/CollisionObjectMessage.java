@@ -47,7 +47,7 @@ import java.util.Arrays;
 @MessageMetadata(
     name = CollisionObjectMessage.NAME,
     fields = { "header", "pose", "id", "type", "primitives", "primitive_poses", "meshes", "mesh_poses", "planes", "plane_poses", "subframe_names", "subframe_poses", "operation" },
-    md5sum = "c5c6b7e6ac4834c0d55e2d6699b32509"
+    md5sum = "dbba710596087da521c07564160dfccb"
 )
 public class CollisionObjectMessage implements Message {
    
@@ -210,27 +210,28 @@ public class CollisionObjectMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           header,
-           pose,
-           id,
-           type,
-           Arrays.hashCode(primitives),
-           Arrays.hashCode(primitive_poses),
-           Arrays.hashCode(meshes),
-           Arrays.hashCode(mesh_poses),
-           Arrays.hashCode(planes),
-           Arrays.hashCode(plane_poses),
-           Arrays.hashCode(subframe_names),
-           Arrays.hashCode(subframe_poses),
-           operation
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(header);
+       h = 31 * h + Objects.hashCode(pose);
+       h = 31 * h + Objects.hashCode(id);
+       h = 31 * h + Objects.hashCode(type);
+       h = 31 * h + Arrays.hashCode(primitives);
+       h = 31 * h + Arrays.hashCode(primitive_poses);
+       h = 31 * h + Arrays.hashCode(meshes);
+       h = 31 * h + Arrays.hashCode(mesh_poses);
+       h = 31 * h + Arrays.hashCode(planes);
+       h = 31 * h + Arrays.hashCode(plane_poses);
+       h = 31 * h + Arrays.hashCode(subframe_names);
+       h = 31 * h + Arrays.hashCode(subframe_poses);
+       h = 31 * h + Byte.hashCode(operation);
+       return h;
    }
    
    @Override
    public boolean equals(Object obj) {
        if (obj instanceof CollisionObjectMessage other)
            return
+               operation == other.operation &&
                Objects.equals(header, other.header) &&
                Objects.equals(pose, other.pose) &&
                Objects.equals(id, other.id) &&
@@ -242,8 +243,7 @@ public class CollisionObjectMessage implements Message {
                Arrays.equals(planes, other.planes) &&
                Arrays.equals(plane_poses, other.plane_poses) &&
                Arrays.equals(subframe_names, other.subframe_names) &&
-               Arrays.equals(subframe_poses, other.subframe_poses) &&
-               operation == other.operation
+               Arrays.equals(subframe_poses, other.subframe_poses)
            ;
        return false;
    }
@@ -41,7 +41,7 @@ import id.jrosmessages.std_msgs.StringMessage;
 @MessageMetadata(
     name = GoalIdMessage.NAME,
     fields = { "stamp", "id" },
-    md5sum = "240a3309d52227ee0745a03a208f9de9"
+    md5sum = "302881f31927c1df708a2dbab0e80ee8"
 )
 public class GoalIdMessage implements Message {
    
@@ -73,10 +73,10 @@ public class GoalIdMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           stamp,
-           id
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(stamp);
+       h = 31 * h + Objects.hashCode(id);
+       return h;
    }
    
    @Override
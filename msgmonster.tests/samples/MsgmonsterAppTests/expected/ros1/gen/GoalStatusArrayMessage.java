@@ -46,7 +46,7 @@ import java.util.Arrays;
 @MessageMetadata(
     name = GoalStatusArrayMessage.NAME,
     fields = { "header", "status_list" },
-    md5sum = "36d61c7054a071e6c0b3d668d1382f95"
+    md5sum = "8b2b82f13216d0a8ea88bd3af735e619"
 )
 public class GoalStatusArrayMessage implements Message {
    
@@ -68,10 +68,10 @@ public class GoalStatusArrayMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           header,
-           Arrays.hashCode(status_list)
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(header);
+       h = 31 * h + Arrays.hashCode(status_list);
+       return h;
    }
    
    @Override
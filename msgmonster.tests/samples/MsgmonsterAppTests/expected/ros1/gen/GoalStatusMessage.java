@@ -40,7 +40,7 @@ import id.jrosmessages.std_msgs.StringMessage;
 @MessageMetadata(
     name = GoalStatusMessage.NAME,
     fields = { "goal_id", "status", "text" },
-    md5sum = "dd9c70a06d26447426d4035017604ff1"
+    md5sum = "d388f9b87b3c471f784434d671988d4a"
 )
 public class GoalStatusMessage implements Message {
    
@@ -133,19 +133,19 @@ public class GoalStatusMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           goal_id,
-           status,
-           text
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(goal_id);
+       h = 31 * h + Byte.hashCode(status);
+       h = 31 * h + Objects.hashCode(text);
+       return h;
    }
    
    @Override
    public boolean equals(Object obj) {
        if (obj instanceof GoalStatusMessage other)
            return
-               Objects.equals(goal_id, other.goal_id) &&
                status == other.status &&
+               Objects.equals(goal_id, other.goal_id) &&
                Objects.equals(text, other.text)
            ;
        return false;
@@ -38,7 +38,7 @@ import id.xfunction.Preconditions;
  */
 @MessageMetadata(
     name = MessageWithNoFieldsMessage.NAME,
-    md5sum = "777b982ce96637d0848a328890f00c4e"
+    md5sum = "d41d8cd98f00b204e9800998ecf8427e"
 )
 public class MessageWithNoFieldsMessage implements Message {
    
@@ -39,7 +39,7 @@ import id.jrosmessages.std_msgs.StringMessage;
  */
 @MessageMetadata(
     name = StringMessage.NAME,
-    md5sum = "1c12bcc051b70a47e7a94160ae4f90e9"
+    md5sum = "992ce8a1687cec8c8bd883ec73ca41d1"
 )
 public class StringMessage implements Message {
    
@@ -54,9 +54,9 @@ public class StringMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           data
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(data);
+       return h;
    }
    
    @Override
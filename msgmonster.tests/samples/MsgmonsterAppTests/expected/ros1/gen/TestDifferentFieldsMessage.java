@@ -42,7 +42,7 @@ import id.jrosmessages.primitives.Time;
 @MessageMetadata(
     name = TestDifferentFieldsMessage.NAME,
     fields = { "id", "score", "header1", "header2", "timeout1", "timeout2", "stamp1", "stamp2" },
-    md5sum = "6e99044327d47c3105244b8447b9a1df"
+    md5sum = "2e2565045dc48722981909e8d9943ed3"
 )
 public class TestDifferentFieldsMessage implements Message {
    
@@ -179,16 +179,16 @@ public class TestDifferentFieldsMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           id,
-           score,
-           header1,
-           header2,
-           timeout1,
-           timeout2,
-           stamp1,
-           stamp2
-       );
+       int h = 1;
+       h = 31 * h + Long.hashCode(id);
+       h = 31 * h + Double.hashCode(score);
+       h = 31 * h + Objects.hashCode(header1);
+       h = 31 * h + Objects.hashCode(header2);
+       h = 31 * h + Objects.hashCode(timeout1);
+       h = 31 * h + Objects.hashCode(timeout2);
+       h = 31 * h + Objects.hashCode(stamp1);
+       h = 31 * h + Objects.hashCode(stamp2);
+       return h;
    }
    
    @Override
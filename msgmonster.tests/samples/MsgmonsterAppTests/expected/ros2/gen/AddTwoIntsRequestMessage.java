@@ -46,6 +46,9 @@ public class AddTwoIntsRequestMessage implements Message {
    
    static final String NAME = "test_msgs/AddTwoIntsServiceRequest";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_751b7c1f44ddbbcfabfb917a9880e6e9056b25d8281d974ab548dca063ea4ab0";
+   
    public long a;
    
    public long b;
@@ -62,10 +65,10 @@ public class AddTwoIntsRequestMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           a,
-           b
-       );
+       int h = 1;
+       h = 31 * h + Long.hashCode(a);
+       h = 31 * h + Long.hashCode(b);
+       return h;
    }
    
    @Override
@@ -45,6 +45,9 @@ public class AddTwoIntsResponseMessage implements Message {
    
    static final String NAME = "test_msgs/AddTwoIntsServiceResponse";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_0dfab15101ff1518d4c825505e9b1a3b320a0bef535cf3e660d912374e080120";
+   
    public long sum;
    
    public AddTwoIntsResponseMessage withSum(long sum) {
@@ -54,9 +57,9 @@ public class AddTwoIntsResponseMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           sum
-       );
+       int h = 1;
+       h = 31 * h + Long.hashCode(sum);
+       return h;
    }
    
    @Override
@@ -44,6 +44,9 @@ public class AllowedCollisionEntryMessage implements Message {
    
    static final String NAME = "test_msgs/AllowedCollisionEntry";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_e33e63ba953418c1acee06a6c250542a1898406c24a883852373a7d0da476201";
+   
    /**
     * whether or not collision checking is enabled
     * if a &lt; b &amp;&amp; a &gt; c
@@ -57,9 +60,9 @@ public class AllowedCollisionEntryMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           Arrays.hashCode(enabled)
-       );
+       int h = 1;
+       h = 31 * h + Arrays.hashCode(enabled);
+       return h;
    }
    
    @Override
@@ -46,11 +46,18 @@ public class AllowedCollisionMatrixMessage implements Message {
    
    static final String NAME = "test_msgs/AllowedCollisionMatrix";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_763932881c2e8894892da86870ace9776a05c10112d7345748d9b4264178e51e";
+   
    /**
     * The list of entry names in the matrix
     */
    @Array(size = 17)
-   public StringMessage[] entry_names = new StringMessage[0];
+   public StringMessage[] entry_names = new StringMessage[17];
+   
+   {
+       Arrays.setAll(entry_names, i -> new StringMessage());
+   }
    
    /**
     * The individual entries in the allowed collision matrix
@@ -77,6 +84,17 @@ public class AllowedCollisionMatrixMessage implements Message {
        return this;
    }
    
+   public AllowedCollisionMatrixMessage setEntryNames(int index, StringMessage value) {
+       this.entry_names[index] = value;
+       return this;
+   }
+   
+   public AllowedCollisionMatrixMessage copyEntryNamesFrom(StringMessage[] entry_names) {
+       Preconditions.equals(17, entry_names.length);
+       System.arraycopy(entry_names, 0, this.entry_names, 0, 17);
+       return this;
+   }
+   
    public AllowedCollisionMatrixMessage withEntryValues(AllowedCollisionEntryMessage... entry_values) {
        this.entry_values = entry_values;
        return this;
@@ -94,12 +112,12 @@ public class AllowedCollisionMatrixMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           Arrays.hashCode(entry_names),
-           Arrays.hashCode(entry_values),
-           Arrays.hashCode(default_entry_names),
-           Arrays.hashCode(default_entry_values)
-       );
+       int h = 1;
+       h = 31 * h + Arrays.hashCode(entry_names);
+       h = 31 * h + Arrays.hashCode(entry_values);
+       h = 31 * h + Arrays.hashCode(default_entry_names);
+       h = 31 * h + Arrays.hashCode(default_entry_values);
+       return h;
    }
    
    @Override
@@ -52,6 +52,9 @@ public class CollisionObjectMessage implements Message {
    
    static final String NAME = "test_msgs/CollisionObject";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_358a61f503b0b4d0cb758b421f825e0a5bebba10028e59a1850271f44e3e4b6b";
+   
    public enum UnknownType {
       /**
        * Adds the object to the planning scene. If the object previously existed, it is replaced.
@@ -209,27 +212,28 @@ public class CollisionObjectMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           header,
-           pose,
-           id,
-           type,
-           Arrays.hashCode(primitives),
-           Arrays.hashCode(primitive_poses),
-           Arrays.hashCode(meshes),
-           Arrays.hashCode(mesh_poses),
-           Arrays.hashCode(planes),
-           Arrays.hashCode(plane_poses),
-           Arrays.hashCode(subframe_names),
-           Arrays.hashCode(subframe_poses),
-           operation
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(header);
+       h = 31 * h + Objects.hashCode(pose);
+       h = 31 * h + Objects.hashCode(id);
+       h = 31 * h + Objects.hashCode(type);
+       h = 31 * h + Arrays.hashCode(primitives);
+       h = 31 * h + Arrays.hashCode(primitive_poses);
+       h = 31 * h + Arrays.hashCode(meshes);
+       h = 31 * h + Arrays.hashCode(mesh_poses);
+       h = 31 * h + Arrays.hashCode(planes);
+       h = 31 * h + Arrays.hashCode(plane_poses);
+       h = 31 * h + Arrays.hashCode(subframe_names);
+       h = 31 * h + Arrays.hashCode(subframe_poses);
+       h = 31 * h + Byte.hashCode(operation);
+       return h;
    }
    
    @Override
    public boolean equals(Object obj) {
        if (obj instanceof CollisionObjectMessage other)
            return
+               operation == other.operation &&
                Objects.equals(header, other.header) &&
                Objects.equals(pose, other.pose) &&
                Objects.equals(id, other.id) &&
@@ -241,8 +245,7 @@ public class CollisionObjectMessage implements Message {
                Arrays.equals(planes, other.planes) &&
                Arrays.equals(plane_poses, other.plane_poses) &&
                Arrays.equals(subframe_names, other.subframe_names) &&
-               Arrays.equals(subframe_poses, other.subframe_poses) &&
-               operation == other.operation
+               Arrays.equals(subframe_poses, other.subframe_poses)
            ;
        return false;
    }
@@ -43,6 +43,9 @@ public class FibonacciGoalMessage implements Message {
    
    static final String NAME = "test_msgs/FibonacciGoal";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_e58ef5a8f4f039ab522a740823547c460b1d5aed8031c8b7825d33d345d90df8";
+   
    public int order;
    
    public FibonacciGoalMessage withOrder(int order) {
@@ -52,9 +55,9 @@ public class FibonacciGoalMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           order
-       );
+       int h = 1;
+       h = 31 * h + Integer.hashCode(order);
+       return h;
    }
    
    @Override
@@ -44,6 +44,9 @@ public class FibonacciResultMessage implements Message {
    
    static final String NAME = "test_msgs/FibonacciResult";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_0774b095467813c6904d475498b5486b7ebd4cda6a4569f97e8de8c862689049";
+   
    public int[] sequence = new int[0];
    
    public FibonacciResultMessage withSequence(int... sequence) {
@@ -53,9 +56,9 @@ public class FibonacciResultMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           Arrays.hashCode(sequence)
-       );
+       int h = 1;
+       h = 31 * h + Arrays.hashCode(sequence);
+       return h;
    }
    
    @Override
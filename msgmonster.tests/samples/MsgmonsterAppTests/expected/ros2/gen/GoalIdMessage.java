@@ -46,6 +46,9 @@ public class GoalIdMessage implements Message {
    
    static final String NAME = "test_msgs/GoalID";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_5bb6565c912e2507d481760c31bdd25201dad6ea4fa2ef68cfdf19a103093853";
+   
    /**
     * The stamp should store the time at which this goal was requested.
     * It is used by an action server when it tries to preempt all
@@ -72,10 +75,10 @@ public class GoalIdMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           stamp,
-           id
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(stamp);
+       h = 31 * h + Objects.hashCode(id);
+       return h;
    }
    
    @Override
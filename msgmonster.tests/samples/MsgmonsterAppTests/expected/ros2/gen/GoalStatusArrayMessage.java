@@ -51,6 +51,9 @@ public class GoalStatusArrayMessage implements Message {
    
    static final String NAME = "test_msgs/GoalStatusArray";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_cc4f396cd98a942734ff985d839bf1fcdbbc1aeb2f7a03a52e203539155c8791";
+   
    public HeaderMessage header = new HeaderMessage();
    
    public GoalStatusMessage[] status_list = new GoalStatusMessage[0];
@@ -67,10 +70,10 @@ public class GoalStatusArrayMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           header,
-           Arrays.hashCode(status_list)
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(header);
+       h = 31 * h + Arrays.hashCode(status_list);
+       return h;
    }
    
    @Override
@@ -45,6 +45,9 @@ public class GoalStatusMessage implements Message {
    
    static final String NAME = "test_msgs/GoalStatus";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_0c0fd3482655852941f4b8f58fadabf3135c1663d412a5388c5beef5e43b59d7";
+   
    public enum UnknownType {
       /**
        * The goal has yet to be processed by the action server
@@ -132,19 +135,19 @@ public class GoalStatusMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           goal_id,
-           status,
-           text
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(goal_id);
+       h = 31 * h + Byte.hashCode(status);
+       h = 31 * h + Objects.hashCode(text);
+       return h;
    }
    
    @Override
    public boolean equals(Object obj) {
        if (obj instanceof GoalStatusMessage other)
            return
-               Objects.equals(goal_id, other.goal_id) &&
                status == other.status &&
+               Objects.equals(goal_id, other.goal_id) &&
                Objects.equals(text, other.text)
            ;
        return false;
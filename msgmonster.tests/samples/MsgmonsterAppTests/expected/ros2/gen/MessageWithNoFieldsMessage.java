@@ -43,4 +43,8 @@ public class MessageWithNoFieldsMessage implements Message {
    
    static final String NAME = "test_msgs/MessageWithNoFields";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_a89fdd43acd3db2efbb4b3e89531c4b7532f02ed405da48488888c627a711ae5";
+   
+   
 }
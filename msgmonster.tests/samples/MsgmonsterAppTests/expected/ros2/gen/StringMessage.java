@@ -44,6 +44,9 @@ public class StringMessage implements Message {
    
    static final String NAME = "test_msgs/String";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_06234b0634fdc0ff61f491bc774c2f73eaa546310fb8d1e3b380a180200c7b8b";
+   
    public StringMessage data = new StringMessage();
    
    public StringMessage withData(StringMessage data) {
@@ -53,9 +56,9 @@ public class StringMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           data
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(data);
+       return h;
    }
    
    @Override
@@ -47,6 +47,9 @@ public class TestDifferentFieldsMessage implements Message {
    
    static final String NAME = "test_msgs/TestDifferentFields";
 
+   /** ROS2 type hash (RIHS01) of the message as defined in REP-2011 */
+   public static final String TYPE_HASH = "RIHS01_eb835aff84413ae1b2afc4cc2b3e5ac616db590c66ebb6f9e462375168e93c27";
+   
    public enum UnknownType {
       DRAWABLE_NOT_SET,
       
@@ -178,16 +181,16 @@ public class TestDifferentFieldsMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           id,
-           score,
-           header1,
-           header2,
-           timeout1,
-           timeout2,
-           stamp1,
-           stamp2
-       );
+       int h = 1;
+       h = 31 * h + Long.hashCode(id);
+       h = 31 * h + Double.hashCode(score);
+       h = 31 * h + Objects.hashCode(header1);
+       h = 31 * h + Objects.hashCode(header2);
+       h = 31 * h + Objects.hashCode(timeout1);
+       h = 31 * h + Objects.hashCode(timeout2);
+       h = 31 * h + Objects.hashCode(stamp1);
+       h = 31 * h + Objects.hashCode(stamp2);
+       return h;
    }
    
    @Override
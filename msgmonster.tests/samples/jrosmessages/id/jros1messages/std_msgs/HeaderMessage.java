@@ -0,0 +1,29 @@
+package id.jros1messages.std_msgs;
+
+import id.jrosmessages.Message;
+import id.jrosmessages.MessageMetadata;
+import id.jrosmessages.primitives.Time;
+import id.jrosmessages.std_msgs.StringMessage;
+import java.util.Objects;
+
+@MessageMetadata(
+        name = "std_msgs/Header",
+        fields = {"seq", "stamp", "frame_id"})
+public class HeaderMessage implements Message {
+    public int seq;
+    public Time stamp = new Time();
+    public StringMessage frame_id = new StringMessage();
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(seq, stamp, frame_id);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof HeaderMessage other
+                && seq == other.seq
+                && Objects.equals(stamp, other.stamp)
+                && Objects.equals(frame_id, other.frame_id);
+    }
+}
@@ -0,0 +1,27 @@
+package id.jros2messages.std_msgs;
+
+import id.jrosmessages.Message;
+import id.jrosmessages.MessageMetadata;
+import id.jrosmessages.primitives.Time;
+import id.jrosmessages.std_msgs.StringMessage;
+import java.util.Objects;
+
+@MessageMetadata(
+        name = "std_msgs/Header",
+        fields = {"stamp", "frame_id"})
+public class HeaderMessage implements Message {
+    public Time stamp = new Time();
+    public StringMessage frame_id = new StringMessage();
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(stamp, frame_id);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof HeaderMessage other
+                && Objects.equals(stamp, other.stamp)
+                && Objects.equals(frame_id, other.frame_id);
+    }
+}
@@ -0,0 +1,4 @@
+package id.jrosmessages;
+
+/** Minimal jrosmessages API which generated classes depend on (used only by the tests) */
+public interface Message {}
@@ -0,0 +1,18 @@
+package id.jrosmessages;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface MessageMetadata {
+    String name();
+
+    String[] fields() default {};
+
+    String md5sum() default "";
+
+    RosInterfaceType interfaceType() default RosInterfaceType.MESSAGE;
+}
@@ -0,0 +1,7 @@
+package id.jrosmessages;
+
+public enum RosInterfaceType {
+    MESSAGE,
+    SERVICE,
+    ACTION
+}
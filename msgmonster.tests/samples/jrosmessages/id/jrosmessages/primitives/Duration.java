@@ -0,0 +1,21 @@
+package id.jrosmessages.primitives;
+
+import id.jrosmessages.Message;
+import id.jrosmessages.MessageMetadata;
+import java.util.Objects;
+
+@MessageMetadata(name = "Duration", fields = {"sec", "nanosec"})
+public class Duration implements Message {
+    public int sec;
+    public int nanosec;
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sec, nanosec);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Duration other && sec == other.sec && nanosec == other.nanosec;
+    }
+}
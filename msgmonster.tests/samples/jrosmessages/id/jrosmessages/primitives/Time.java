@@ -0,0 +1,21 @@
+package id.jrosmessages.primitives;
+
+import id.jrosmessages.Message;
+import id.jrosmessages.MessageMetadata;
+import java.util.Objects;
+
+@MessageMetadata(name = "Time", fields = {"sec", "nanosec"})
+public class Time implements Message {
+    public int sec;
+    public int nanosec;
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sec, nanosec);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Time other && sec == other.sec && nanosec == other.nanosec;
+    }
+}
@@ -0,0 +1,20 @@
+package id.jrosmessages.std_msgs;
+
+import id.jrosmessages.Message;
+import id.jrosmessages.MessageMetadata;
+import java.util.Objects;
+
+@MessageMetadata(name = "std_msgs/String")
+public class StringMessage implements Message {
+    public String data = "";
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(data);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof StringMessage other && Objects.equals(data, other.data);
+    }
+}
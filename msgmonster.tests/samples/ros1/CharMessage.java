@@ -53,9 +53,9 @@ public class CharMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           data
-       );
+       int h = 1;
+       h = 31 * h + Byte.hashCode(data);
+       return h;
    }
    
    @Override
@@ -54,9 +54,9 @@ public class StringMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           data
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(data);
+       return h;
    }
    
    @Override
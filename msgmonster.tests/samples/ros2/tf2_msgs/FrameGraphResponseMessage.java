@@ -55,9 +55,9 @@ public class FrameGraphResponseMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           frame_yaml
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(frame_yaml);
+       return h;
    }
    
    @Override
@@ -62,10 +62,10 @@ public class LookupTransformResultMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           transform,
-           error
-       );
+       int h = 1;
+       h = 31 * h + Objects.hashCode(transform);
+       h = 31 * h + Objects.hashCode(error);
+       return h;
    }
    
    @Override
@@ -79,10 +79,10 @@ public class TF2ErrorMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           error,
-           error_string
-       );
+       int h = 1;
+       h = 31 * h + Byte.hashCode(error);
+       h = 31 * h + Objects.hashCode(error_string);
+       return h;
    }
    
    @Override
@@ -54,9 +54,9 @@ public class TFMessageMessage implements Message {
    
    @Override
    public int hashCode() {
-       return Objects.hash(
-           Arrays.hashCode(transforms)
-       );
+       int h = 1;
+       h = 31 * h + Arrays.hashCode(transforms);
+       return h;
    }
    
    @Override
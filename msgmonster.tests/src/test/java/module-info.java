@@ -21,6 +21,7 @@
 open module msgmonster.tests {
     requires id.xfunction;
     requires id.xfunctiontests;
+    requires jdk.jfr;
     requires org.junit.jupiter.api;
     requires org.junit.jupiter.params;
     requires msgmonster;
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import pinorobotics.msgmonster.output.CompilingSourceSink;
+
+/**
+ * Compiles generated classes together with the minimal jrosmessages API from the samples
+ * (jrosmessages itself is not a dependency of msgmonster) and loads them.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class GeneratedClassesLoader {
+
+    private static final Path JROSMESSAGES = Paths.get("samples", "jrosmessages");
+
+    /**
+     * @param root output folder which was used by the generators
+     * @param sources generated sources by their names relative to the root
+     */
+    public static URLClassLoader load(Path root, Map<String, String> sources) throws Exception {
+        var jar = root.resolve("classes.jar");
+        // dependencies of the generated classes (xfunction) are either on the class path or on
+        // the module path
+        var classpath =
+                Stream.of(
+                                System.getProperty("java.class.path"),
+                                System.getProperty("jdk.module.path"))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.joining(File.pathSeparator));
+        var sink = new CompilingSourceSink(root, jar, classpath);
+        try (var files = Files.walk(JROSMESSAGES)) {
+            for (var file : files.filter(Files::isRegularFile).toList()) {
+                sink.write(root.resolve(JROSMESSAGES.relativize(file)), Files.readString(file));
+            }
+        }
+        sources.forEach((name, content) -> sink.write(root.resolve(name), content));
+        sink.close();
+        return new URLClassLoader(
+                new URL[] {jar.toUri().toURL()}, GeneratedClassesLoader.class.getClassLoader());
+    }
+}
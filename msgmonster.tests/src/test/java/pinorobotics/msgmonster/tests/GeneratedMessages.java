@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.Buffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Access to the fields of the generated message classes through the reflection
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class GeneratedMessages {
+
+    /** Set all fields of the message (including nested messages) to the random values */
+    public static void fill(Object message, Random random) throws Exception {
+        for (var field : fields(message.getClass())) {
+            field.set(message, randomValue(field.getType(), arraySize(field), random));
+        }
+    }
+
+    /** Message fields in the order they are serialized */
+    public static List<Field> fields(Class<?> messageClass) {
+        return Arrays.stream(messageClass.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .filter(field -> Modifier.isPublic(field.getModifiers()))
+                .toList();
+    }
+
+    /** Value of the field as it is serialized (content of the array buffers as arrays) */
+    public static Object serializedValue(Field field, Object message) throws Exception {
+        var value = field.get(message);
+        if (!(value instanceof Buffer buffer)) return value;
+        var array =
+                Array.newInstance(arrayType(field.getType()).getComponentType(), buffer.limit());
+        System.arraycopy(buffer.array(), buffer.arrayOffset(), array, 0, buffer.limit());
+        return array;
+    }
+
+    /** Type of the field as it is serialized (array buffers are serialized as arrays) */
+    public static Class<?> serializedType(Field field) throws Exception {
+        var type = field.getType();
+        return Buffer.class.isAssignableFrom(type) ? arrayType(type) : type;
+    }
+
+    /** Size of the fixed size array field or 0 */
+    public static int arraySize(Field field) throws Exception {
+        for (var annotation : field.getAnnotations()) {
+            if (annotation.annotationType().getSimpleName().equals("Array"))
+                return (int) annotation.annotationType().getMethod("size").invoke(annotation);
+        }
+        return 0;
+    }
+
+    private static Object randomValue(Class<?> type, int arraySize, Random random)
+            throws Exception {
+        if (type.isArray()) {
+            var length = arraySize > 0 ? arraySize : random.nextInt(4);
+            var array = Array.newInstance(type.getComponentType(), length);
+            for (int i = 0; i < length; i++)
+                Array.set(array, i, randomValue(type.getComponentType(), 0, random));
+            return array;
+        }
+        if (Buffer.class.isAssignableFrom(type)) {
+            var arrayType = arrayType(type);
+            return type.getMethod("wrap", arrayType)
+                    .invoke(null, randomValue(arrayType, arraySize, random));
+        }
+        if (type == boolean.class) return random.nextBoolean();
+        if (type == byte.class) return (byte) random.nextInt();
+        if (type == short.class) return (short) random.nextInt();
+        if (type == int.class) return random.nextInt();
+        if (type == long.class) return random.nextLong();
+        if (type == float.class) return random.nextFloat();
+        if (type == double.class) return random.nextDouble();
+        // strings with multibyte characters
+        if (type == String.class) return "str\u00fc\u20ac\ud83d\ude00" + random.nextInt(100);
+        var value = type.getConstructor().newInstance();
+        fill(value, random);
+        return value;
+    }
+
+    /** Array type which backs the given NIO buffer type (ex. float[] for FloatBuffer) */
+    private static Class<?> arrayType(Class<?> bufferType) throws Exception {
+        return bufferType.getMethod("array").getReturnType();
+    }
+}
@@ -17,6 +17,7 @@
  */
 package pinorobotics.msgmonster.tests;
 
+import id.xfunction.PreconditionException;
 import id.xfunction.logging.XLogger;
 import id.xfunction.nio.file.XFiles;
 import id.xfunctiontests.XAsserts;
@@ -24,11 +25,24 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.app.StatsFormat;
+import pinorobotics.msgmonster.output.GeneratedSourceSink;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
 
 /**
  * @author aeon_flux aeon_flux@eclipso.ch
@@ -37,13 +51,12 @@ public class MsgmonsterAppTests {
 
     private static final Path SAMPLES =
             Paths.get("samples").resolve(MsgmonsterAppTests.class.getSimpleName());
-    private static Path outputFolder;
+    @TempDir Path outputFolder;
     private static MsgmonsterApp msgmonsterApp;
 
     @BeforeEach
     public void setup() throws IOException {
         XLogger.load("msgmonster-test.properties");
-        outputFolder = Files.createTempDirectory("msgmonster");
         msgmonsterApp = new MsgmonsterApp(rosVersion -> new RosMsgCommandMock(rosVersion, SAMPLES));
     }
 
@@ -66,4 +79,208 @@ public class MsgmonsterAppTests {
                 Files.readString(expectedPath.resolve("test_happy")),
                 Files.readString(XFiles.TEMP_FOLDER.orElseThrow().resolve("msgmonster-test.log")));
     }
+
+    /** Generated classes should not depend on number of threads */
+    @ParameterizedTest
+    @CsvSource({"ros1", "ros2"})
+    public void test_threads(String rosVersion) throws Exception {
+        var expectedPath = SAMPLES.resolve("expected").resolve(rosVersion);
+        msgmonsterApp.setThreads(4);
+        msgmonsterApp.run(
+                List.of(
+                        rosVersion,
+                        "id.jrosmessages.test_msgs",
+                        "test_msgs",
+                        outputFolder.toString()));
+        XAsserts.assertContentEquals(expectedPath.resolve("gen"), outputFolder);
+    }
+
+    /** Generation tasks are stopped before the sink is closed when one of them fails */
+    @Test
+    public void test_threads_failure() throws Exception {
+        var isClosed = new AtomicBoolean();
+        var lateWrites = new AtomicInteger();
+        msgmonsterApp.setThreads(4);
+        msgmonsterApp.setSourceSink(
+                new GeneratedSourceSink() {
+                    private final AtomicInteger writes = new AtomicInteger();
+
+                    @Override
+                    public boolean exists(Path file) {
+                        return false;
+                    }
+
+                    @Override
+                    public void write(Path file, String content) {
+                        // generators report exceptions for each ROS file so only errors fail the
+                        // task
+                        if (writes.incrementAndGet() == 1) throw new Error("failure");
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        if (isClosed.get()) lateWrites.incrementAndGet();
+                    }
+
+                    @Override
+                    public void close() {
+                        isClosed.set(true);
+                    }
+                });
+        Assertions.assertThrows(
+                RuntimeException.class,
+                () ->
+                        msgmonsterApp.run(
+                                List.of(
+                                        "ros2",
+                                        "id.jrosmessages.test_msgs",
+                                        "test_msgs",
+                                        outputFolder.toString())));
+        Assertions.assertTrue(isClosed.get());
+        Thread.sleep(500);
+        Assertions.assertEquals(0, lateWrites.get());
+    }
+
+    /** Only changed ROS files are regenerated and files of deleted ROS files are removed */
+    @Test
+    public void test_incremental(@TempDir Path samples) throws Exception {
+        XFiles.copyRecursively(SAMPLES, samples);
+        var reads = new ConcurrentHashMap<RosFile, Integer>();
+        var app =
+                new MsgmonsterApp(
+                        rosVersion ->
+                                new RosMsgCommandMock(rosVersion, samples) {
+                                    @Override
+                                    public Stream<String> lines(RosFile msgFile) {
+                                        reads.merge(msgFile, 1, Integer::sum);
+                                        return super.lines(msgFile);
+                                    }
+                                });
+        var args =
+                List.of("ros2", "id.jrosmessages.test_msgs", "test_msgs", outputFolder.toString());
+        // files which are not in the manifest are replaced
+        Files.writeString(outputFolder.resolve("GoalIdMessage.java"), "not in manifest");
+        app.run(args);
+        XAsserts.assertContentEquals(SAMPLES.resolve("expected/ros2/gen"), outputFolder);
+        Assertions.assertTrue(Files.exists(outputFolder.resolve(MsgmonsterApp.MANIFEST_FILE_NAME)));
+
+        // nothing changed so nothing should be regenerated
+        var goalIdFile = outputFolder.resolve("GoalIdMessage.java");
+        Files.writeString(goalIdFile, "not regenerated");
+        reads.clear();
+        app.run(args);
+        Assertions.assertEquals("not regenerated", Files.readString(goalIdFile));
+        // definitions are read once even when they are embedded by many ROS files, invalid ROS
+        // file fails to generate so it is never up to date
+        reads.remove(new RosFile(Paths.get("test_msgs/msg/Invalid"), RosInterfaceType.MESSAGE));
+        Assertions.assertFalse(reads.isEmpty());
+        Assertions.assertEquals(Set.of(1), Set.copyOf(reads.values()), reads.toString());
+
+        // messages which embed changed message are regenerated too
+        var goalStatusFile = outputFolder.resolve("GoalStatusMessage.java");
+        Files.writeString(goalStatusFile, "not regenerated");
+        Files.writeString(
+                samples.resolve("test_msgs/GoalID.msg"),
+                "\nstring new_field",
+                StandardOpenOption.APPEND);
+        Files.delete(samples.resolve("test_msgs/String.msg"));
+        app.run(args);
+        Assertions.assertTrue(Files.readString(goalIdFile).contains("new_field"));
+        Assertions.assertTrue(Files.readString(goalStatusFile).contains("TYPE_HASH"));
+        Assertions.assertFalse(Files.exists(outputFolder.resolve("StringMessage.java")));
+        Assertions.assertTrue(Files.exists(outputFolder.resolve("GoalStatusMessage.java")));
+    }
+
+    /** Each ROS package of the closure is generated into its own Java package */
+    @Test
+    public void test_workspace_reachable_only() throws Exception {
+        msgmonsterApp.setWorkspace(true);
+        msgmonsterApp.setReachableOnly(true);
+        msgmonsterApp.run(
+                List.of(
+                        "ros2",
+                        "myros",
+                        "test_msgs/msg/CollisionObject,shape_msgs/msg/Plane",
+                        outputFolder.toString()));
+        Assertions.assertEquals(
+                List.of("geometry_msgs", "object_recognition_msgs", "shape_msgs", "test_msgs"),
+                listFiles(outputFolder));
+        Assertions.assertEquals(
+                List.of("CollisionObjectMessage.java"),
+                listFiles(outputFolder.resolve("test_msgs")));
+        Assertions.assertEquals(
+                List.of("PointMessage.java", "PoseMessage.java", "QuaternionMessage.java"),
+                listFiles(outputFolder.resolve("geometry_msgs")));
+        Assertions.assertEquals(
+                List.of(
+                        "MeshMessage.java",
+                        "MeshTriangleMessage.java",
+                        "PlaneMessage.java",
+                        "SolidPrimitiveMessage.java"),
+                listFiles(outputFolder.resolve("shape_msgs")));
+        var collisionObject =
+                Files.readString(outputFolder.resolve("test_msgs/CollisionObjectMessage.java"));
+        Assertions.assertTrue(collisionObject.contains("package myros.test_msgs;"));
+        Assertions.assertTrue(collisionObject.contains("import myros.geometry_msgs.PoseMessage;"));
+        Assertions.assertTrue(collisionObject.contains("import myros.shape_msgs.MeshMessage;"));
+        Assertions.assertTrue(
+                collisionObject.contains("import id.jros2messages.std_msgs.HeaderMessage;"));
+    }
+
+    /** All files of the input packages and of the packages they depend on are generated */
+    @Test
+    public void test_workspace() throws Exception {
+        msgmonsterApp.setWorkspace(true);
+        msgmonsterApp.run(List.of("ros1", "myros", "test_msgs", outputFolder.toString()));
+        Assertions.assertEquals(
+                List.of("geometry_msgs", "object_recognition_msgs", "shape_msgs", "test_msgs"),
+                listFiles(outputFolder));
+        Assertions.assertTrue(Files.exists(outputFolder.resolve("test_msgs/StringMessage.java")));
+        Assertions.assertTrue(
+                Files.exists(outputFolder.resolve("shape_msgs/MeshTriangleMessage.java")));
+        Assertions.assertTrue(
+                Files.readString(outputFolder.resolve("shape_msgs/MeshMessage.java"))
+                        .contains("import myros.geometry_msgs.PointMessage;"));
+    }
+
+    @Test
+    public void test_stats() throws Exception {
+        msgmonsterApp.setThreads(2);
+        msgmonsterApp.setStatsFormat(StatsFormat.json);
+        msgmonsterApp.run(
+                List.of("ros2", "id.jrosmessages.test_msgs", "test_msgs", outputFolder.toString()));
+        var stats = Files.readString(outputFolder.resolve(".msgmonster-stats.json"));
+        var filesCount = listFiles(outputFolder).size();
+        Assertions.assertTrue(filesCount > 0);
+        Assertions.assertTrue(stats.contains("\"filesCount\": "), stats);
+        for (var phase : List.of("list", "lines", "parse", "render", "write"))
+            Assertions.assertTrue(stats.contains("\"" + phase + "\": "), stats);
+        Assertions.assertTrue(stats.contains("\"name\": \"test_msgs/"), stats);
+    }
+
+    /** Messages with array buffers cannot be serialized by jrosclient */
+    @Test
+    public void test_array_buffers_without_codecs() {
+        msgmonsterApp.setGenerateArrayBuffers(true);
+        Assertions.assertThrows(
+                PreconditionException.class,
+                () ->
+                        msgmonsterApp.run(
+                                List.of(
+                                        "ros2",
+                                        "id.jrosmessages.test_msgs",
+                                        "test_msgs",
+                                        outputFolder.toString())));
+    }
+
+    private List<String> listFiles(Path folder) throws IOException {
+        try (var files = Files.list(folder)) {
+            return files.map(Path::getFileName)
+                    .map(Path::toString)
+                    .filter(name -> !name.equals(MsgmonsterApp.MANIFEST_FILE_NAME))
+                    .sorted()
+                    .toList();
+        }
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests;
+
+import id.xfunction.logging.XLogger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.ros.FileSystemRosMsgCommand;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MsgmonsterAppWatchTests {
+
+    private static final Path SAMPLES = Paths.get("samples").resolve("MsgmonsterAppTests");
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    /** Creates ROS package with the layout as it is installed in "share" folder */
+    private Path createPackage(Path parent, String packageName) throws IOException {
+        var packageDir = parent.resolve(packageName);
+        Files.createDirectories(packageDir);
+        Files.writeString(packageDir.resolve("package.xml"), "<package/>");
+        try (var files = Files.list(SAMPLES.resolve(packageName))) {
+            for (var file : files.toList()) {
+                var fileName = file.getFileName().toString();
+                var folder = packageDir.resolve(fileName.substring(fileName.indexOf('.') + 1));
+                Files.createDirectories(folder);
+                Files.copy(file, folder.resolve(fileName));
+            }
+        }
+        return packageDir;
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Timeout");
+            Thread.sleep(100);
+        }
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    @Test
+    public void test_watch(@TempDir Path rosPath, @TempDir Path outputFolder) throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        // packages with the definitions of nested messages are needed for type hashes
+        for (var packageName :
+                List.of(
+                        "test_msgs",
+                        "std_msgs",
+                        "builtin_interfaces",
+                        "geometry_msgs",
+                        "object_recognition_msgs",
+                        "shape_msgs")) {
+            createPackage(rosPath.resolve("share"), packageName);
+        }
+        var msgFolder = rosPath.resolve("share/test_msgs/msg");
+        var app =
+                new MsgmonsterApp(
+                        rosVersion -> new FileSystemRosMsgCommand(rosVersion, List.of(rosPath)));
+        app.setWatch(true);
+        var appThread =
+                new Thread(
+                        () ->
+                                Assertions.assertDoesNotThrow(
+                                        () ->
+                                                app.run(
+                                                        List.of(
+                                                                "ros2",
+                                                                "id.jrosmessages.test_msgs",
+                                                                "test_msgs",
+                                                                outputFolder.toString()))));
+        appThread.start();
+        var manifestFile = outputFolder.resolve(MsgmonsterApp.MANIFEST_FILE_NAME);
+        await(() -> Files.exists(manifestFile));
+        var goalStatus = read(outputFolder.resolve("GoalStatusMessage.java"));
+        var goalStatusArray = read(outputFolder.resolve("GoalStatusArrayMessage.java"));
+        var stringFile = outputFolder.resolve("StringMessage.java");
+        var stringModified = Files.getLastModifiedTime(stringFile);
+
+        // messages which embed changed message directly or indirectly are regenerated too
+        Files.writeString(
+                msgFolder.resolve("GoalID.msg"), "\nstring new_field", StandardOpenOption.APPEND);
+        await(() -> read(outputFolder.resolve("GoalIdMessage.java")).contains("new_field"));
+        await(() -> !read(outputFolder.resolve("GoalStatusMessage.java")).equals(goalStatus));
+        await(
+                () ->
+                        !read(outputFolder.resolve("GoalStatusArrayMessage.java"))
+                                .equals(goalStatusArray));
+        Assertions.assertEquals(stringModified, Files.getLastModifiedTime(stringFile));
+
+        Files.writeString(msgFolder.resolve("NewMessage.msg"), "int32 data");
+        await(() -> Files.exists(outputFolder.resolve("NewMessageMessage.java")));
+
+        Files.delete(msgFolder.resolve("String.msg"));
+        await(() -> !Files.exists(stringFile));
+
+        appThread.interrupt();
+        appThread.join();
+        var manifest = Files.readString(manifestFile);
+        Assertions.assertTrue(manifest.contains("test_msgs/msg/NewMessage"));
+        Assertions.assertFalse(manifest.contains("test_msgs/msg/String "));
+        Assertions.assertTrue(manifest.contains("test_msgs/msg/GoalStatusArray"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests;
+
+import id.xfunction.logging.XLogger;
+import id.xfunction.nio.file.XFiles;
+import id.xfunctiontests.XAsserts;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.app.MsgmonsterDaemon;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MsgmonsterDaemonTests {
+
+    private static final Path SAMPLES =
+            Paths.get("samples").resolve(MsgmonsterAppTests.class.getSimpleName());
+
+    @Test
+    public void test_requests(
+            @TempDir Path samples, @TempDir Path outputFolder, @TempDir Path socketFolder)
+            throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        XFiles.copyRecursively(SAMPLES, samples);
+        var socketFile = socketFolder.resolve("daemon.sock");
+        var daemon =
+                new MsgmonsterDaemon(
+                        socketFile,
+                        () ->
+                                new MsgmonsterApp(
+                                        rosVersion -> new RosMsgCommandMock(rosVersion, samples)));
+        var daemonThread = new Thread(() -> Assertions.assertDoesNotThrow(daemon::run));
+        daemonThread.start();
+        var args =
+                List.of(
+                        "-threads",
+                        "2",
+                        "ros2",
+                        "id.jrosmessages.test_msgs",
+                        "test_msgs",
+                        outputFolder.toString());
+        var output = new ArrayList<String>();
+        Assertions.assertTrue(MsgmonsterDaemon.send(socketFile, args, output::add));
+        XAsserts.assertContentEquals(SAMPLES.resolve("expected/ros2/gen"), outputFolder);
+
+        // changes of the ROS files are visible to the next requests
+        Files.writeString(
+                samples.resolve("test_msgs/GoalID.msg"),
+                "\nstring new_field",
+                StandardOpenOption.APPEND);
+        Assertions.assertTrue(MsgmonsterDaemon.send(socketFile, args, output::add));
+        Assertions.assertTrue(
+                Files.readString(outputFolder.resolve("GoalIdMessage.java")).contains("new_field"));
+
+        output.clear();
+        Assertions.assertFalse(
+                MsgmonsterDaemon.send(
+                        socketFile,
+                        List.of("ros3", "test", "test_msgs", outputFolder.toString()),
+                        output::add));
+        Assertions.assertTrue(output.get(output.size() - 1).startsWith(MsgmonsterDaemon.ERROR));
+
+        daemon.close();
+        daemonThread.join();
+        Assertions.assertFalse(Files.exists(socketFile));
+    }
+}
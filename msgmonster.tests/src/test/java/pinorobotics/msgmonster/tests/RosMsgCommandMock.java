@@ -17,12 +17,10 @@
  */
 package pinorobotics.msgmonster.tests;
 
-import id.xfunction.Checksum;
 import id.xfunction.function.Unchecked;
 import id.xfunction.nio.file.XPaths;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Optional;
 import java.util.stream.Stream;
 import pinorobotics.msgmonster.ros.RosFile;
 import pinorobotics.msgmonster.ros.RosInterfaceType;
@@ -42,11 +40,6 @@ public class RosMsgCommandMock implements RosMsgCommand {
         this.folder = folder;
     }
 
-    @Override
-    public Optional<String> calcMd5Sum(Path msgFile) {
-        return Optional.of(Unchecked.get(() -> Checksum.md5(msgFile.toString())));
-    }
-
     @Override
     public Stream<String> lines(RosFile msgFile) {
         return Unchecked.get(() -> Files.lines(toFilePath(msgFile)));
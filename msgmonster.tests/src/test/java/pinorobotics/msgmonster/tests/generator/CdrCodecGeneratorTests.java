@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import id.xfunction.logging.XLogger;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.output.InMemorySourceSink;
+import pinorobotics.msgmonster.tests.GeneratedClassesLoader;
+import pinorobotics.msgmonster.tests.GeneratedMessages;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class CdrCodecGeneratorTests {
+
+    private static final Path SAMPLES =
+            Paths.get("samples").resolve(CdrCodecGeneratorTests.class.getSimpleName());
+
+    @ParameterizedTest
+    @CsvSource({"false, false", "true, false", "false, true"})
+    public void test_round_trip(boolean arrayBuffers, boolean nativeStrings, @TempDir Path root)
+            throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        var sink = new InMemorySourceSink(root);
+        var app = new MsgmonsterApp(rosVersion -> new RosMsgCommandMock(rosVersion, SAMPLES));
+        app.setWorkspace(true);
+        app.setGenerateCodecs(true);
+        app.setGenerateArrayBuffers(arrayBuffers);
+        app.setGenerateNativeStrings(nativeStrings);
+        app.setSourceSink(sink);
+        app.run(List.of("ros2", "myros", "codec_msgs", root.toString()));
+        var codecs =
+                sink.getSources().keySet().stream()
+                        .filter(name -> name.endsWith("CdrCodec.java"))
+                        .map(name -> "myros." + name.replace(".java", "").replace('/', '.'))
+                        .toList();
+        Assertions.assertEquals(
+                List.of(
+                        "myros.codec_msgs.AllTypesCdrCodec",
+                        "myros.codec_msgs.ElementCdrCodec",
+                        "myros.geometry_msgs.PointCdrCodec"),
+                codecs);
+        var random = new Random(1);
+        try (var loader = GeneratedClassesLoader.load(root, sink.getSources())) {
+            for (var codecName : codecs) {
+                var codecClass = loader.loadClass(codecName);
+                var messageClass = loader.loadClass(codecName.replace("CdrCodec", "Message"));
+                var size = codecClass.getMethod("size", messageClass);
+                var write = codecClass.getMethod("write", messageClass, ByteBuffer.class);
+                var read = codecClass.getMethod("read", ByteBuffer.class);
+                for (int i = 0; i < 5; i++) {
+                    var message = messageClass.getConstructor().newInstance();
+                    GeneratedMessages.fill(message, random);
+                    var expected = serialize(message);
+                    var buf = ByteBuffer.allocate((int) size.invoke(null, message));
+                    write.invoke(null, message, buf);
+                    Assertions.assertFalse(buf.hasRemaining(), codecName);
+                    Assertions.assertArrayEquals(expected, buf.array(), codecName);
+                    Assertions.assertEquals(message, read.invoke(null, buf.rewind()), codecName);
+                    // alignment is relative to the position where message starts
+                    var shifted = ByteBuffer.allocate(buf.capacity() + 3).position(3);
+                    write.invoke(null, message, shifted);
+                    Assertions.assertArrayEquals(
+                            expected,
+                            Arrays.copyOfRange(shifted.array(), 3, shifted.capacity()),
+                            codecName);
+                }
+            }
+        }
+    }
+
+    /** Reference serializer which finds fields of the messages through the reflection */
+    private byte[] serialize(Object message) throws Exception {
+        var buf = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        write(buf, message);
+        return Arrays.copyOf(buf.array(), buf.position());
+    }
+
+    private void write(ByteBuffer buf, Object message) throws Exception {
+        for (var field : GeneratedMessages.fields(message.getClass())) {
+            writeValue(
+                    buf,
+                    GeneratedMessages.serializedType(field),
+                    GeneratedMessages.serializedValue(field, message),
+                    GeneratedMessages.arraySize(field));
+        }
+    }
+
+    /** Alignment is relative to the start of the buffer where top-level message starts */
+    private void writeValue(ByteBuffer buf, Class<?> type, Object value, int arraySize)
+            throws Exception {
+        if (type.isArray()) {
+            var length = Array.getLength(value);
+            if (arraySize == 0) {
+                align(buf, 4);
+                buf.putInt(length);
+            }
+            for (int i = 0; i < length; i++)
+                writeValue(buf, type.getComponentType(), Array.get(value, i), 0);
+        } else if (type == boolean.class) buf.put((byte) ((Boolean) value ? 1 : 0));
+        else if (type == byte.class) buf.put((Byte) value);
+        else if (type == short.class) align(buf, 2).putShort((Short) value);
+        else if (type == int.class) align(buf, 4).putInt((Integer) value);
+        else if (type == long.class) align(buf, 8).putLong((Long) value);
+        else if (type == float.class) align(buf, 4).putFloat((Float) value);
+        else if (type == double.class) align(buf, 8).putDouble((Double) value);
+        else if (type == String.class) {
+            var bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            align(buf, 4).putInt(bytes.length + 1);
+            buf.put(bytes);
+            buf.put((byte) 0);
+        } else write(buf, value);
+    }
+
+    private ByteBuffer align(ByteBuffer buf, int alignment) {
+        while (buf.position() % alignment != 0) buf.put((byte) 0);
+        return buf;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import id.xfunction.logging.XLogger;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.generator.Formatter;
+import pinorobotics.msgmonster.output.InMemorySourceSink;
+import pinorobotics.msgmonster.tests.GeneratedClassesLoader;
+import pinorobotics.msgmonster.tests.GeneratedMessages;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class JRosMessageGeneratorTests {
+
+    @Test
+    public void test_fixed_size_arrays(@TempDir Path root) throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        var sink = new InMemorySourceSink(root);
+        var app =
+                new MsgmonsterApp(
+                        version ->
+                                new RosMsgCommandMock(
+                                        version,
+                                        Paths.get("samples")
+                                                .resolve(
+                                                        CdrCodecGeneratorTests.class
+                                                                .getSimpleName())));
+        app.setWorkspace(true);
+        app.setSourceSink(sink);
+        app.run(List.of("ros2", "myros", "codec_msgs", root.toString()));
+        var formatter = new Formatter();
+        var random = new Random(1);
+        try (var loader = GeneratedClassesLoader.load(root, sink.getSources())) {
+            var messageClass = loader.loadClass("myros.codec_msgs.AllTypesMessage");
+            var message = messageClass.getConstructor().newInstance();
+            var arrays = 0;
+            for (var field : GeneratedMessages.fields(messageClass)) {
+                var size = GeneratedMessages.arraySize(field);
+                if (size == 0) continue;
+                arrays++;
+                var array = field.get(message);
+                // arrays are preallocated together with their elements
+                Assertions.assertEquals(size, Array.getLength(array), field.getName());
+                for (int i = 0; i < size; i++) Assertions.assertNotNull(Array.get(array, i));
+                var methodName = formatter.formatAsMethodName("_" + field.getName());
+                var elementType = field.getType().getComponentType();
+                var set = messageClass.getMethod("set" + methodName, int.class, elementType);
+                var copyFrom =
+                        messageClass.getMethod("copy" + methodName + "From", field.getType());
+                var other = messageClass.getConstructor().newInstance();
+                GeneratedMessages.fill(other, random);
+                var source = field.get(other);
+                Assertions.assertSame(message, copyFrom.invoke(message, source));
+                Assertions.assertSame(array, field.get(message));
+                Assertions.assertNotSame(source, array);
+                for (int i = 0; i < size; i++)
+                    Assertions.assertEquals(Array.get(source, i), Array.get(array, i));
+                var value = Array.get(source, size - 1);
+                Assertions.assertSame(message, set.invoke(message, 0, value));
+                Assertions.assertEquals(value, Array.get(array, 0));
+                var invalid = Array.newInstance(elementType, size + 1);
+                var exception =
+                        Assertions.assertThrows(
+                                InvocationTargetException.class,
+                                () -> copyFrom.invoke(message, invalid));
+                Assertions.assertInstanceOf(RuntimeException.class, exception.getCause());
+            }
+            Assertions.assertEquals(8, arrays);
+        }
+    }
+
+    @Test
+    public void test_native_strings(@TempDir Path root) throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        var sink = new InMemorySourceSink(root);
+        var app =
+                new MsgmonsterApp(
+                        version ->
+                                new RosMsgCommandMock(
+                                        version,
+                                        Paths.get("samples").resolve(getClass().getSimpleName())));
+        app.setGenerateNativeStrings(true);
+        app.setGenerateReuse(true);
+        app.setSourceSink(sink);
+        app.run(List.of("ros2", "myros", "strings_msgs", root.toString()));
+        var source = sink.getSources().get("StringsMessage.java");
+        Assertions.assertFalse(source.contains("StringMessage"));
+        var random = new Random(1);
+        try (var loader = GeneratedClassesLoader.load(root, sink.getSources())) {
+            var messageClass = loader.loadClass("myros.StringsMessage");
+            var defaultMessage = messageClass.getConstructor().newInstance();
+            var fields = GeneratedMessages.fields(messageClass);
+            Assertions.assertEquals(6, fields.size());
+            for (var field : fields) {
+                var value = field.get(defaultMessage);
+                if (field.getType() == String.class) {
+                    Assertions.assertEquals("", value, field.getName());
+                    continue;
+                }
+                Assertions.assertEquals(String[].class, field.getType(), field.getName());
+                var size = GeneratedMessages.arraySize(field);
+                Assertions.assertEquals(size, Array.getLength(value), field.getName());
+                for (int i = 0; i < size; i++) Assertions.assertEquals("", Array.get(value, i));
+            }
+            var message = messageClass.getConstructor().newInstance();
+            GeneratedMessages.fill(message, random);
+            Assertions.assertNotEquals(defaultMessage, message);
+            messageClass.getMethod("reset").invoke(message);
+            Assertions.assertEquals(defaultMessage, message);
+        }
+    }
+
+    /**
+     * Message in EqualsHashCodeBenchmarks is written by hand and it should stay the same as the
+     * generated one
+     */
+    @Test
+    public void test_equals_hashcode_benchmark(@TempDir Path root) throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        var sink = new InMemorySourceSink(root);
+        var app =
+                new MsgmonsterApp(
+                        version ->
+                                new RosMsgCommandMock(
+                                        version,
+                                        Paths.get("samples").resolve(getClass().getSimpleName())));
+        app.setSourceSink(sink);
+        app.run(List.of("ros2", "myros", "benchmark_msgs", root.toString()));
+        var generated = sink.getSources().get("EqualsHashCodeMessage.java");
+        var benchmark =
+                Files.readString(
+                        Paths.get(
+                                "../msgmonster.benchmarks/src/main/java/pinorobotics/msgmonster/benchmarks/EqualsHashCodeBenchmarks.java"));
+        benchmark = benchmark.substring(benchmark.indexOf("class GeneratedMessage"));
+        benchmark = benchmark.replace("GeneratedMessage", "EqualsHashCodeMessage");
+        for (var method :
+                List.of(
+                        "publicinthashCode\\(\\)\\{.*?returnh;\\}",
+                        "publicbooleanequals\\(Objectobj\\)\\{.*?returnfalse;\\}")) {
+            Assertions.assertEquals(
+                    findMethod(method, generated), findMethod(method, benchmark), method);
+        }
+    }
+
+    /** Formatting of the generated code differs from the sources so whitespaces are ignored */
+    private String findMethod(String regexp, String source) {
+        var matcher = Pattern.compile(regexp).matcher(source.replaceAll("\\s", ""));
+        Assertions.assertTrue(matcher.find(), regexp);
+        return matcher.group();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import id.xfunction.logging.XLogger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.output.InMemorySourceSink;
+import pinorobotics.msgmonster.tests.GeneratedClassesLoader;
+import pinorobotics.msgmonster.tests.GeneratedMessages;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MessagePoolGeneratorTests {
+
+    static Stream<Arguments> dataProvider() {
+        return Stream.of(
+                Arguments.of("ros1", Ros1CodecGeneratorTests.class.getSimpleName(), false, false),
+                Arguments.of("ros2", CdrCodecGeneratorTests.class.getSimpleName(), false, false),
+                Arguments.of("ros1", Ros1CodecGeneratorTests.class.getSimpleName(), true, false),
+                Arguments.of("ros2", CdrCodecGeneratorTests.class.getSimpleName(), true, false),
+                Arguments.of("ros1", Ros1CodecGeneratorTests.class.getSimpleName(), false, true),
+                Arguments.of("ros2", CdrCodecGeneratorTests.class.getSimpleName(), false, true));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dataProvider")
+    public void test_reuse(
+            String rosVersion,
+            String samples,
+            boolean arrayBuffers,
+            boolean nativeStrings,
+            @TempDir Path root)
+            throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        var sink = new InMemorySourceSink(root);
+        var app =
+                new MsgmonsterApp(
+                        version ->
+                                new RosMsgCommandMock(
+                                        version, Paths.get("samples").resolve(samples)));
+        app.setWorkspace(true);
+        app.setGenerateReuse(true);
+        // array buffers require codecs
+        app.setGenerateCodecs(arrayBuffers);
+        app.setGenerateArrayBuffers(arrayBuffers);
+        app.setGenerateNativeStrings(nativeStrings);
+        app.setSourceSink(sink);
+        app.run(List.of(rosVersion, "myros", "codec_msgs", root.toString()));
+        var pools =
+                sink.getSources().keySet().stream()
+                        .filter(name -> name.endsWith("Pool.java"))
+                        .map(name -> "myros." + name.replace(".java", "").replace('/', '.'))
+                        .toList();
+        Assertions.assertEquals(
+                List.of(
+                        "myros.codec_msgs.AllTypesPool",
+                        "myros.codec_msgs.ElementPool",
+                        "myros.geometry_msgs.PointPool"),
+                pools);
+        var random = new Random(1);
+        try (var loader = GeneratedClassesLoader.load(root, sink.getSources())) {
+            for (var poolName : pools) {
+                var poolClass = loader.loadClass(poolName);
+                var messageClass = loader.loadClass(poolName.replace("Pool", "Message"));
+                var reset = messageClass.getMethod("reset");
+                var copyFrom = messageClass.getMethod("copyFrom", messageClass);
+                var defaultMessage = messageClass.getConstructor().newInstance();
+                for (int i = 0; i < 5; i++) {
+                    var message = messageClass.getConstructor().newInstance();
+                    GeneratedMessages.fill(message, random);
+                    var copy = messageClass.getConstructor().newInstance();
+                    GeneratedMessages.fill(copy, random);
+                    Assertions.assertSame(copy, copyFrom.invoke(copy, message));
+                    Assertions.assertEquals(message, copy, poolName);
+                    // copy is deep and reuses nested messages and arrays of the same length
+                    var fields = GeneratedMessages.fields(messageClass);
+                    var values = new Object[fields.size()];
+                    for (int j = 0; j < values.length; j++) {
+                        var field = fields.get(j);
+                        // strings are immutable and shared
+                        if (field.getType().isPrimitive() || field.getType() == String.class)
+                            continue;
+                        values[j] = field.get(copy);
+                        Assertions.assertNotSame(field.get(message), values[j], field.getName());
+                    }
+                    copyFrom.invoke(copy, message);
+                    for (int j = 0; j < values.length; j++) {
+                        if (values[j] == null) continue;
+                        Assertions.assertSame(values[j], fields.get(j).get(copy));
+                    }
+                    Assertions.assertSame(copy, reset.invoke(copy));
+                    Assertions.assertEquals(defaultMessage, copy, poolName);
+                }
+
+                var pool = poolClass.getConstructor(int.class).newInstance(2);
+                var acquire = poolClass.getMethod("acquire");
+                var acquireCopyOf = poolClass.getMethod("acquireCopyOf", messageClass);
+                var release = poolClass.getMethod("release", messageClass);
+                var size = poolClass.getMethod("size");
+                var message = acquire.invoke(pool);
+                Assertions.assertEquals(defaultMessage, message);
+                GeneratedMessages.fill(message, random);
+                release.invoke(pool, message);
+                Assertions.assertEquals(1, size.invoke(pool));
+                Assertions.assertEquals(defaultMessage, message);
+                var other = messageClass.getConstructor().newInstance();
+                GeneratedMessages.fill(other, random);
+                var copy = acquireCopyOf.invoke(pool, other);
+                Assertions.assertSame(message, copy);
+                Assertions.assertEquals(other, copy);
+                Assertions.assertEquals(0, size.invoke(pool));
+                // messages which do not fit into the pool are dropped
+                for (int i = 0; i < 3; i++)
+                    release.invoke(pool, messageClass.getConstructor().newInstance());
+                Assertions.assertEquals(2, size.invoke(pool));
+            }
+        }
+    }
+}
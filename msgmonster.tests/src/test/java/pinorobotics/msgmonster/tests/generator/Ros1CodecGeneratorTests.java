@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import id.xfunction.logging.XLogger;
+import java.lang.reflect.Array;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.output.InMemorySourceSink;
+import pinorobotics.msgmonster.tests.GeneratedClassesLoader;
+import pinorobotics.msgmonster.tests.GeneratedMessages;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class Ros1CodecGeneratorTests {
+
+    private static final Path SAMPLES =
+            Paths.get("samples").resolve(Ros1CodecGeneratorTests.class.getSimpleName());
+
+    @ParameterizedTest
+    @CsvSource({"false, false", "true, false", "false, true"})
+    public void test_round_trip(boolean arrayBuffers, boolean nativeStrings, @TempDir Path root)
+            throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        var sink = new InMemorySourceSink(root);
+        var app = new MsgmonsterApp(rosVersion -> new RosMsgCommandMock(rosVersion, SAMPLES));
+        app.setWorkspace(true);
+        app.setGenerateCodecs(true);
+        app.setGenerateArrayBuffers(arrayBuffers);
+        app.setGenerateNativeStrings(nativeStrings);
+        app.setSourceSink(sink);
+        app.run(List.of("ros1", "myros", "codec_msgs", root.toString()));
+        var codecs =
+                sink.getSources().keySet().stream()
+                        .filter(name -> name.endsWith("Ros1Codec.java"))
+                        .map(name -> "myros." + name.replace(".java", "").replace('/', '.'))
+                        .toList();
+        Assertions.assertEquals(
+                List.of(
+                        "myros.codec_msgs.AllTypesRos1Codec",
+                        "myros.codec_msgs.ElementRos1Codec",
+                        "myros.geometry_msgs.PointRos1Codec"),
+                codecs);
+        var random = new Random(1);
+        try (var loader = GeneratedClassesLoader.load(root, sink.getSources())) {
+            for (var codecName : codecs) {
+                var codecClass = loader.loadClass(codecName);
+                var messageClass = loader.loadClass(codecName.replace("Ros1Codec", "Message"));
+                var size = codecClass.getMethod("size", messageClass);
+                var write = codecClass.getMethod("write", messageClass, ByteBuffer.class);
+                var read = codecClass.getMethod("read", ByteBuffer.class);
+                var readInto = codecClass.getMethod("read", ByteBuffer.class, messageClass);
+                for (int i = 0; i < 5; i++) {
+                    var message = messageClass.getConstructor().newInstance();
+                    GeneratedMessages.fill(message, random);
+                    var expected = serialize(message);
+                    var buf = ByteBuffer.allocate((int) size.invoke(null, message));
+                    write.invoke(null, message, buf);
+                    Assertions.assertFalse(buf.hasRemaining(), codecName);
+                    Assertions.assertArrayEquals(expected, buf.array(), codecName);
+                    Assertions.assertEquals(message, read.invoke(null, buf.rewind()), codecName);
+                    // array buffers keep their capacity and are reused by the next reads
+                    var copy = read.invoke(null, buf.rewind());
+                    var buffers = new ArrayList<Object>();
+                    for (var field : GeneratedMessages.fields(messageClass)) {
+                        if (Buffer.class.isAssignableFrom(field.getType()))
+                            buffers.add(field.get(copy));
+                    }
+                    if (codecName.endsWith("AllTypesRos1Codec"))
+                        Assertions.assertEquals(arrayBuffers ? 6 : 0, buffers.size());
+                    readInto.invoke(null, buf.rewind(), copy);
+                    Assertions.assertEquals(message, copy, codecName);
+                    // buffers are printed by their elements and not by position and limit
+                    Assertions.assertEquals(message.toString(), copy.toString(), codecName);
+                    Assertions.assertFalse(message.toString().contains("java.nio"), codecName);
+                    for (var field : GeneratedMessages.fields(messageClass)) {
+                        if (Buffer.class.isAssignableFrom(field.getType()))
+                            Assertions.assertSame(buffers.remove(0), field.get(copy));
+                    }
+                    // views do not give access to the arrays of their buffers
+                    for (var field : GeneratedMessages.fields(messageClass)) {
+                        if (Buffer.class.isAssignableFrom(field.getType()))
+                            field.set(
+                                    copy,
+                                    field.getType()
+                                            .getMethod("asReadOnlyBuffer")
+                                            .invoke(field.get(copy)));
+                    }
+                    Assertions.assertEquals(message.toString(), copy.toString(), codecName);
+                }
+            }
+        }
+    }
+
+    /** Reference serializer which finds fields of the messages through the reflection */
+    private byte[] serialize(Object message) throws Exception {
+        var buf = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        write(buf, message);
+        return Arrays.copyOf(buf.array(), buf.position());
+    }
+
+    private void write(ByteBuffer buf, Object message) throws Exception {
+        for (var field : GeneratedMessages.fields(message.getClass())) {
+            writeValue(
+                    buf,
+                    GeneratedMessages.serializedType(field),
+                    GeneratedMessages.serializedValue(field, message),
+                    GeneratedMessages.arraySize(field));
+        }
+    }
+
+    private void writeValue(ByteBuffer buf, Class<?> type, Object value, int arraySize)
+            throws Exception {
+        if (type.isArray()) {
+            var length = Array.getLength(value);
+            if (arraySize == 0) buf.putInt(length);
+            for (int i = 0; i < length; i++)
+                writeValue(buf, type.getComponentType(), Array.get(value, i), 0);
+        } else if (type == boolean.class) buf.put((byte) ((Boolean) value ? 1 : 0));
+        else if (type == byte.class) buf.put((Byte) value);
+        else if (type == short.class) buf.putShort((Short) value);
+        else if (type == int.class) buf.putInt((Integer) value);
+        else if (type == long.class) buf.putLong((Long) value);
+        else if (type == float.class) buf.putFloat((Float) value);
+        else if (type == double.class) buf.putDouble((Double) value);
+        else if (type == String.class) {
+            var bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            buf.putInt(bytes.length);
+            buf.put(bytes);
+        } else write(buf, value);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import pinorobotics.msgmonster.generator.MessageDefinitionReader;
+import pinorobotics.msgmonster.generator.Ros1Md5Calculator;
+import pinorobotics.msgmonster.ros.InMemoryRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Expected MD5 sums are the ones returned by "rosmsg md5" command.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class Ros1Md5CalculatorTests {
+
+    private static final InMemoryRosMsgCommand ROSMSG =
+            new InMemoryRosMsgCommand(
+                    Map.of(
+                            message("std_msgs/String"),
+                            List.of("string data"),
+                            message("std_msgs/Header"),
+                            List.of(
+                                    "# Standard metadata for higher-level stamped data types.",
+                                    "uint32 seq",
+                                    "time stamp",
+                                    "string frame_id"),
+                            message("tf2_msgs/TF2Error"),
+                            List.of(
+                                    "uint8 NO_ERROR = 0",
+                                    "uint8 LOOKUP_ERROR = 1",
+                                    "uint8 CONNECTIVITY_ERROR = 2",
+                                    "uint8 EXTRAPOLATION_ERROR = 3",
+                                    "uint8 INVALID_ARGUMENT_ERROR = 4",
+                                    "uint8 TIMEOUT_ERROR = 5",
+                                    "uint8 TRANSFORM_ERROR = 6",
+                                    "",
+                                    "uint8 error",
+                                    "string error_string"),
+                            message("tf2_msgs/TFMessage"),
+                            List.of("geometry_msgs/TransformStamped[] transforms"),
+                            message("geometry_msgs/TransformStamped"),
+                            List.of(
+                                    "Header header",
+                                    "string child_frame_id # the frame id of the child frame",
+                                    "Transform transform"),
+                            message("geometry_msgs/Transform"),
+                            List.of("Vector3 translation", "Quaternion rotation"),
+                            message("geometry_msgs/Vector3"),
+                            List.of("float64 x", "float64 y", "float64 z"),
+                            message("geometry_msgs/Quaternion"),
+                            List.of("float64 x", "float64 y", "float64 z", "float64 w"),
+                            message("test_msgs/Greeting"),
+                            List.of(
+                                    "string GREETING=hello world # not a comment",
+                                    "int32 ANSWER=42 # comment",
+                                    "string data"),
+                            message("shape_msgs/MeshTriangle"),
+                            List.of(
+                                    "# Definition of a triangle's vertices",
+                                    "uint32[3] vertex_indices")),
+                    RosVersion.ros1);
+
+    private record TestCase(String messageName, String expectedMd5Sum) {}
+
+    static Stream<TestCase> dataProvider() {
+        return Stream.of(
+                new TestCase("std_msgs/String", "992ce8a1687cec8c8bd883ec73ca41d1"),
+                new TestCase("std_msgs/Header", "2176decaecbce78abc3b96ef049fabed"),
+                new TestCase("tf2_msgs/TF2Error", "bc6848fd6fd750c92e38575618a4917d"),
+                new TestCase("tf2_msgs/TFMessage", "94810edda583a504dfda3829e70d7eec"),
+                new TestCase("shape_msgs/MeshTriangle", "23688b2e6d2de3d32fe8af104a903253"),
+                // string constant is the rest of the line including "#"
+                new TestCase("test_msgs/Greeting", "9e3825fb79df2458176ae088687163c2"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dataProvider")
+    public void test_calcMd5Sum(TestCase testCase) {
+        var calculator = new Ros1Md5Calculator(ROSMSG);
+        var definition = new MessageDefinitionReader(ROSMSG).read(message(testCase.messageName));
+        Assertions.assertEquals(testCase.expectedMd5Sum, calculator.calcMd5Sum(definition));
+        Assertions.assertEquals(
+                testCase.expectedMd5Sum, calculator.calcMd5Sum(testCase.messageName));
+    }
+
+    private static RosFile message(String name) {
+        return new RosFile(name, RosInterfaceType.MESSAGE);
+    }
+}
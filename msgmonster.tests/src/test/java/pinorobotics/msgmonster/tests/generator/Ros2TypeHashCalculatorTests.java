@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import pinorobotics.msgmonster.generator.MessageDefinitionReader;
+import pinorobotics.msgmonster.generator.Ros2TypeHashCalculator;
+import pinorobotics.msgmonster.ros.InMemoryRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Expected type hashes of standard messages are the ones generated by rosidl.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class Ros2TypeHashCalculatorTests {
+
+    private static final InMemoryRosMsgCommand ROSMSG =
+            new InMemoryRosMsgCommand(
+                    Map.of(
+                            message("std_msgs/msg/String"),
+                            List.of("string data"),
+                            message("std_msgs/msg/Empty"),
+                            List.of(),
+                            message("std_msgs/msg/Header"),
+                            List.of(
+                                    "# Standard metadata for higher-level stamped data types.",
+                                    "",
+                                    "# Two-integer timestamp that is expressed as seconds and"
+                                            + " nanoseconds.",
+                                    "builtin_interfaces/Time stamp",
+                                    "",
+                                    "# Transform frame with which this data is associated.",
+                                    "string frame_id"),
+                            message("builtin_interfaces/msg/Time"),
+                            List.of("int32 sec", "uint32 nanosec"),
+                            message("example_interfaces/srv/AddTwoIntsServiceRequest"),
+                            List.of("int64 a", "int64 b"),
+                            message("test_msgs/msg/Arrays"),
+                            List.of(
+                                    "uint8 CONSTANT=1",
+                                    "float64[36] covariance",
+                                    "string<=10[] names",
+                                    "std_msgs/Header[] headers",
+                                    "byte[] data"),
+                            message("t/msg/D"),
+                            List.of("int32 x 5", "string s \"hi\"", "float64 PI=3.14")),
+                    RosVersion.ros2);
+
+    private record TestCase(String messageName, String expectedTypeHash) {}
+
+    static Stream<TestCase> dataProvider() {
+        return Stream.of(
+                new TestCase(
+                        "std_msgs/msg/String",
+                        "RIHS01_df668c740482bbd48fb39d76a70dfd4bd59db1288021743503259e948f6b1a18"),
+                new TestCase(
+                        "std_msgs/msg/Empty",
+                        "RIHS01_20b625256f32d5dbc0d04fee44f43c41e51c70d3502f84b4a08e7a9c26a96312"),
+                new TestCase(
+                        "std_msgs/msg/Header",
+                        "RIHS01_f49fb3ae2cf070f793645ff749683ac6b06203e41c891e17701b1cb597ce6a01"),
+                new TestCase(
+                        "builtin_interfaces/msg/Time",
+                        "RIHS01_b106235e25a4c5ed35098aa0a61a3ee9c9b18d197f398b0e4206cea9acf9c197"),
+                new TestCase(
+                        "example_interfaces/srv/AddTwoIntsServiceRequest",
+                        "RIHS01_000c5fd92d6b2e1a05949348f584d6d652adea1e92d691792011ac2273508302"),
+                new TestCase(
+                        "test_msgs/msg/Arrays",
+                        "RIHS01_bcaabc4841c20f2e1d8b086b5a0a181ba14fa14bf76c027ebb7b8ca441b360b7"),
+                // fields with default values are part of the hash
+                new TestCase(
+                        "t/msg/D",
+                        "RIHS01_87a7cd03a2980a34dfff2799edbf49976f4d1313dbdfad6bd244ce644d2abaa8"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dataProvider")
+    public void test_calcTypeHash(TestCase testCase) {
+        var rosFile = message(testCase.messageName);
+        var definition = new MessageDefinitionReader(ROSMSG).read(rosFile);
+        Assertions.assertEquals(
+                testCase.expectedTypeHash,
+                new Ros2TypeHashCalculator(ROSMSG).calcTypeHash(rosFile, definition));
+    }
+
+    private static RosFile message(String name) {
+        return new RosFile(name, RosInterfaceType.MESSAGE);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.msgmonster.generator.Template;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class TemplateTests {
+
+    @Test
+    public void test_render() {
+        var template = Template.compile("public ${fieldType} ${fieldName} = new ${fieldType}();");
+        Assertions.assertEquals(
+                "public PoseMessage pose = new PoseMessage();",
+                template.render(Map.of("fieldType", "PoseMessage", "fieldName", "pose")));
+        // placeholders without values are kept
+        Assertions.assertEquals(
+                "public ${fieldType} pose = new ${fieldType}();",
+                template.render(Map.of("fieldName", "pose")));
+        Assertions.assertEquals("${a", Template.compile("${a").render(Map.of("a", "b")));
+        Assertions.assertEquals("", Template.compile("").render(Map.of()));
+    }
+
+    @Test
+    public void test_lines() {
+        var lines = Template.compile("a ${x}\n    ${...}\n\n").lines();
+        Assertions.assertEquals(4, lines.size());
+        Assertions.assertEquals("a 1", lines.get(0).render(Map.of("x", "1")));
+        Assertions.assertTrue(lines.get(1).hasPlaceholder("..."));
+        Assertions.assertEquals("    ", lines.get(1).getIdent());
+        Assertions.assertEquals(
+                List.of("", ""),
+                lines.subList(2, 4).stream().map(l -> l.render(Map.of())).toList());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.generator;
+
+import id.xfunction.logging.XLogger;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.output.InMemorySourceSink;
+import pinorobotics.msgmonster.tests.GeneratedClassesLoader;
+import pinorobotics.msgmonster.tests.GeneratedMessages;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * Messages are serialized with the generated codecs and then read back through the generated views.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class ViewGeneratorTests {
+
+    static Stream<Arguments> dataProvider() {
+        return Stream.of(
+                Arguments.of("ros1", "Ros1Codec", Ros1CodecGeneratorTests.class.getSimpleName()),
+                Arguments.of("ros2", "CdrCodec", CdrCodecGeneratorTests.class.getSimpleName()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dataProvider")
+    public void test_views(
+            String rosVersion, String codecSuffix, String samples, @TempDir Path root)
+            throws Exception {
+        XLogger.load("msgmonster-test.properties");
+        var sink = new InMemorySourceSink(root);
+        var app =
+                new MsgmonsterApp(
+                        version ->
+                                new RosMsgCommandMock(
+                                        version, Paths.get("samples").resolve(samples)));
+        app.setWorkspace(true);
+        app.setGenerateCodecs(true);
+        app.setGenerateViews(true);
+        app.setSourceSink(sink);
+        app.run(List.of(rosVersion, "myros", "codec_msgs", root.toString()));
+        var views =
+                sink.getSources().keySet().stream()
+                        .filter(name -> name.endsWith("View.java"))
+                        .map(name -> "myros." + name.replace(".java", "").replace('/', '.'))
+                        .toList();
+        Assertions.assertEquals(
+                List.of(
+                        "myros.codec_msgs.AllTypesView",
+                        "myros.codec_msgs.ElementView",
+                        "myros.geometry_msgs.PointView"),
+                views);
+        var random = new Random(1);
+        try (var loader = GeneratedClassesLoader.load(root, sink.getSources())) {
+            for (var viewName : views) {
+                var viewClass = loader.loadClass(viewName);
+                var messageClass = loader.loadClass(viewName.replace("View", "Message"));
+                var codecClass = loader.loadClass(viewName.replace("View", codecSuffix));
+                var size = codecClass.getMethod("size", messageClass);
+                var write = codecClass.getMethod("write", messageClass, ByteBuffer.class);
+                var wrap = viewClass.getMethod("wrap", ByteBuffer.class);
+                var view = viewClass.getConstructor().newInstance();
+                for (int i = 0; i < 6; i++) {
+                    var message = messageClass.getConstructor().newInstance();
+                    GeneratedMessages.fill(message, random);
+                    var messageSize = (int) size.invoke(null, message);
+                    // heap and direct buffers, message at the start and in the middle of it
+                    var position = i / 2 % 2 == 0 ? 0 : 3;
+                    var buf =
+                            i % 2 == 0
+                                    ? ByteBuffer.allocate(position + messageSize)
+                                    : ByteBuffer.allocateDirect(position + messageSize);
+                    write.invoke(null, message, buf.position(position));
+                    wrap.invoke(view, buf.position(position));
+                    Assertions.assertEquals(
+                            messageSize, viewClass.getMethod("byteSize").invoke(view), viewName);
+                    // offsets are resolved lazily so the order of the access should not matter
+                    assertView(message, view, i >= 4);
+                }
+            }
+        }
+    }
+
+    private void assertView(Object message, Object view, boolean isReversed) throws Exception {
+        var fields = new ArrayList<>(GeneratedMessages.fields(message.getClass()));
+        if (isReversed) Collections.reverse(fields);
+        for (var field : fields) {
+            var name = field.getName();
+            var value = field.get(message);
+            if (!field.getType().isArray()) {
+                assertValue(value, view, name, false, 0);
+                continue;
+            }
+            var length = Array.getLength(value);
+            Assertions.assertEquals(length, invoke(view, name + "_length"), name);
+            var componentType = field.getType().getComponentType();
+            if (componentType.isPrimitive()) {
+                var slice = invoke(view, name);
+                for (int i = 0; i < length; i++)
+                    Assertions.assertEquals(
+                            Array.get(value, i), element(slice, componentType, i), name);
+            } else {
+                for (int i = 0; i < length; i++)
+                    assertValue(Array.get(value, i), view, name, true, i);
+            }
+        }
+    }
+
+    private void assertValue(Object value, Object view, String name, boolean isElement, int index)
+            throws Exception {
+        switch (value.getClass().getSimpleName()) {
+            case "Time", "Duration" -> assertTime(value, view, name, isElement, index);
+            case "HeaderMessage" -> {
+                var stamp = value.getClass().getField("stamp").get(value);
+                assertTime(stamp, view, name + "_stamp", false, 0);
+                var frameId = value.getClass().getField("frame_id").get(value);
+                Assertions.assertEquals(
+                        frameId.getClass().getField("data").get(frameId),
+                        invoke(view, name + "_frame_id"),
+                        name);
+                if (hasField(value, "seq"))
+                    Assertions.assertEquals(
+                            value.getClass().getField("seq").get(value),
+                            invoke(view, name + "_seq"),
+                            name);
+            }
+            case "StringMessage" ->
+                    Assertions.assertEquals(
+                            value.getClass().getField("data").get(value),
+                            invoke(view, name, isElement, index),
+                            name);
+            default -> {
+                if (value.getClass().isPrimitive()
+                        || value instanceof Number
+                        || value instanceof Boolean)
+                    Assertions.assertEquals(value, invoke(view, name), name);
+                else assertView(value, invoke(view, name, isElement, index), false);
+            }
+        }
+    }
+
+    private void assertTime(Object time, Object view, String name, boolean isElement, int index)
+            throws Exception {
+        Assertions.assertEquals(
+                time.getClass().getField("sec").get(time),
+                invoke(view, name + "_sec", isElement, index),
+                name);
+        Assertions.assertEquals(
+                time.getClass().getField("nanosec").get(time),
+                invoke(view, name + "_nanosec", isElement, index),
+                name);
+    }
+
+    private Object element(Object slice, Class<?> type, int index) {
+        if (slice instanceof ByteBuffer buf)
+            return type == boolean.class ? buf.get(index) != 0 : buf.get(index);
+        if (slice instanceof ShortBuffer buf) return buf.get(index);
+        if (slice instanceof IntBuffer buf) return buf.get(index);
+        if (slice instanceof LongBuffer buf) return buf.get(index);
+        if (slice instanceof FloatBuffer buf) return buf.get(index);
+        if (slice instanceof DoubleBuffer buf) return buf.get(index);
+        throw new AssertionError("Unexpected slice " + slice);
+    }
+
+    private boolean hasField(Object value, String name) {
+        return Stream.of(value.getClass().getFields()).anyMatch(f -> f.getName().equals(name));
+    }
+
+    private Object invoke(Object view, String method) throws Exception {
+        return invoke(view, method, false, 0);
+    }
+
+    private Object invoke(Object view, String method, boolean isElement, int index)
+            throws Exception {
+        if (isElement) return view.getClass().getMethod(method, int.class).invoke(view, index);
+        return view.getClass().getMethod(method).invoke(view);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+import pinorobotics.msgmonster.utils.MsgMonsterUtils;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MsgmonsterEventsTests {
+
+    private static final List<String> EVENTS =
+            List.of(
+                    "msgmonster.SubprocessExec",
+                    "msgmonster.ParseDefinition",
+                    "msgmonster.RenderClass",
+                    "msgmonster.WriteFile");
+
+    @Test
+    public void test_events(@TempDir Path outputFolder, @TempDir Path recordingFolder)
+            throws Exception {
+        var recordingFile = recordingFolder.resolve("msgmonster.jfr");
+        try (var recording = new Recording()) {
+            EVENTS.forEach(name -> recording.enable(name).withoutThreshold());
+            recording.start();
+            MsgMonsterUtils.runCommand("echo hello").toList();
+            new MsgmonsterApp(
+                            rosVersion ->
+                                    new RosMsgCommandMock(
+                                            rosVersion,
+                                            Paths.get("samples").resolve("MsgmonsterAppTests")))
+                    .run(List.of("ros1", "myros", "test_msgs", outputFolder.toString()));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        var events = RecordingFile.readAllEvents(recordingFile);
+        for (var name : EVENTS) {
+            Assertions.assertTrue(
+                    events.stream().anyMatch(e -> e.getEventType().getName().equals(name)), name);
+        }
+        var exec = find(events, "msgmonster.SubprocessExec", "command", "echo hello");
+        Assertions.assertEquals(6, exec.getLong("bytes"));
+        var parse = find(events, "msgmonster.ParseDefinition", "interfaceName", "test_msgs/GoalID");
+        Assertions.assertEquals(2, parse.getInt("fields"));
+        var render = find(events, "msgmonster.RenderClass", "className", "GoalIdMessage");
+        Assertions.assertEquals("test_msgs/GoalID", render.getString("interfaceName"));
+        var goalIdFile = outputFolder.resolve("GoalIdMessage.java");
+        var write = find(events, "msgmonster.WriteFile", "path", goalIdFile.toString());
+        Assertions.assertEquals(Files.size(goalIdFile), write.getLong("bytes"));
+    }
+
+    private RecordedEvent find(
+            List<RecordedEvent> events, String name, String field, String value) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .filter(e -> value.equals(e.getString(field)))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.output;
+
+import id.xfunction.logging.XLogger;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.output.CompilingSourceSink;
+import pinorobotics.msgmonster.output.InMemorySourceSink;
+import pinorobotics.msgmonster.output.ZipSourceSink;
+import pinorobotics.msgmonster.tests.MsgmonsterAppTests;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class SourceSinksTests {
+
+    private static final Path SAMPLES =
+            Paths.get("samples").resolve(MsgmonsterAppTests.class.getSimpleName());
+    @TempDir Path outputFolder;
+    @TempDir Path generatedFolder;
+    private MsgmonsterApp msgmonsterApp;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        XLogger.load("msgmonster-test.properties");
+        msgmonsterApp = new MsgmonsterApp(rosVersion -> new RosMsgCommandMock(rosVersion, SAMPLES));
+    }
+
+    /** Sinks should receive exactly the same classes which are written to the output folder */
+    @ParameterizedTest
+    @CsvSource({"ros1", "ros2"})
+    public void test_in_memory(String rosVersion) throws Exception {
+        var root = Paths.get("gen");
+        var sink = new InMemorySourceSink(root);
+        msgmonsterApp.setThreads(4);
+        msgmonsterApp.setSourceSink(sink);
+        msgmonsterApp.run(
+                List.of(rosVersion, "id.jrosmessages.test_msgs", "test_msgs", root.toString()));
+        Assertions.assertEquals(generateToFolder(rosVersion), sink.getSources());
+        Assertions.assertFalse(Files.exists(root));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"sources.zip", "sources.jar"})
+    public void test_archive(String archiveName) throws Exception {
+        var archive = outputFolder.resolve(archiveName);
+        msgmonsterApp.setThreads(4);
+        msgmonsterApp.run(
+                List.of("ros2", "id.jrosmessages.test_msgs", "test_msgs", archive.toString()));
+        var sources = new TreeMap<String, String>();
+        try (var zip = new ZipFile(archive.toFile())) {
+            for (var entry : zip.stream().toList()) {
+                if (entry.getName().startsWith("META-INF/")) continue;
+                sources.put(
+                        entry.getName(),
+                        new String(
+                                zip.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8));
+            }
+            Assertions.assertEquals(
+                    archiveName.endsWith(".jar"), zip.getEntry("META-INF/MANIFEST.MF") != null);
+        }
+        Assertions.assertEquals(generateToFolder("ros2"), sources);
+    }
+
+    @Test
+    public void test_duplicate() throws Exception {
+        var file = outputFolder.resolve("test_msgs/StringMessage.java");
+        try (var sink = new ZipSourceSink(outputFolder, outputFolder.resolve("sources.zip"))) {
+            Assertions.assertFalse(sink.exists(file));
+            sink.write(file, "class");
+            Assertions.assertTrue(sink.exists(file));
+            Assertions.assertThrows(RuntimeException.class, () -> sink.write(file, "class"));
+        }
+        var sink = new InMemorySourceSink(outputFolder);
+        sink.write(file, "class");
+        Assertions.assertEquals(Map.of("test_msgs/StringMessage.java", "class"), sink.getSources());
+        Assertions.assertThrows(RuntimeException.class, () -> sink.write(file, "class"));
+        Assertions.assertThrows(
+                RuntimeException.class, () -> sink.write(Paths.get("Outside.java"), "class"));
+    }
+
+    /** Java packages which depend on each other are compiled into single jar */
+    @Test
+    public void test_compile() throws Exception {
+        var jar = outputFolder.resolve("classes.jar");
+        try (var sink = new CompilingSourceSink(outputFolder, jar, "")) {
+            sink.write(
+                    outputFolder.resolve("a/AMessage.java"),
+                    """
+                    package test.a;
+                    public class AMessage {
+                        public test.b.BMessage b = new test.b.BMessage();
+                        public String toString() { return "A" + b.name(); }
+                    }
+                    """);
+            sink.write(
+                    outputFolder.resolve("b/BMessage.java"),
+                    """
+                    package test.b;
+                    public class BMessage {
+                        public test.a.AMessage a;
+                        public String name() { return "B"; }
+                    }
+                    """);
+        }
+        try (var zip = new ZipFile(jar.toFile())) {
+            Assertions.assertEquals(
+                    List.of(
+                            "META-INF/MANIFEST.MF",
+                            "test/a/AMessage.class",
+                            "test/b/BMessage.class"),
+                    zip.stream().map(ZipEntry::getName).toList());
+        }
+        try (var loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            var message = loader.loadClass("test.a.AMessage").getConstructor().newInstance();
+            Assertions.assertEquals("AB", message.toString());
+        }
+    }
+
+    @Test
+    public void test_compile_error() throws Exception {
+        var jar = outputFolder.resolve("classes.jar");
+        var sink = new CompilingSourceSink(outputFolder, jar, "");
+        sink.write(
+                outputFolder.resolve("a/AMessage.java"),
+                "package test.a; public class AMessage { UnknownMessage field; }");
+        var e = Assertions.assertThrows(RuntimeException.class, sink::close);
+        Assertions.assertTrue(e.getMessage().contains("UnknownMessage"), e.getMessage());
+        Assertions.assertFalse(Files.exists(jar));
+    }
+
+    /** Classes generated into the output folder */
+    private Map<String, String> generateToFolder(String rosVersion) throws Exception {
+        new MsgmonsterApp(version -> new RosMsgCommandMock(version, SAMPLES))
+                .run(
+                        List.of(
+                                rosVersion,
+                                "id.jrosmessages.test_msgs",
+                                "test_msgs",
+                                generatedFolder.toString()));
+        var sources = new TreeMap<String, String>();
+        try (var files = Files.list(generatedFolder)) {
+            for (var file : files.toList()) {
+                if (file.getFileName().toString().equals(MsgmonsterApp.MANIFEST_FILE_NAME))
+                    continue;
+                sources.put(file.getFileName().toString(), Files.readString(file));
+            }
+        }
+        return sources;
+    }
+}
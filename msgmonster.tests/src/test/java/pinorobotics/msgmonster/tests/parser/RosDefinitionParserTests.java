@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.parser;
+
+import id.xfunction.lang.XRE;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.msgmonster.parser.RosDefinitionParser;
+import pinorobotics.msgmonster.parser.RosElement.BlankLine;
+import pinorobotics.msgmonster.parser.RosElement.Comment;
+import pinorobotics.msgmonster.parser.RosElement.Declaration;
+import pinorobotics.msgmonster.parser.RosType;
+import pinorobotics.msgmonster.parser.RosType.ArrayKind;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class RosDefinitionParserTests {
+
+    @Test
+    public void test_message() {
+        var definition =
+                new RosDefinitionParser()
+                        .parse(
+                                List.of(
+                                        "# message comment",
+                                        "",
+                                        "  float64[36] covariance  # row-major",
+                                        "string<=10[<=5] names",
+                                        "int32[] data",
+                                        "uint8 STATUS_OK=1",
+                                        "string NAME = hello",
+                                        "int32 retries 3",
+                                        "geometry_msgs/Pose pose"));
+        Assertions.assertEquals(1, definition.sections().size());
+        Assertions.assertEquals(
+                List.of(
+                        new Comment(" message comment"),
+                        BlankLine.INSTANCE,
+                        new Declaration(
+                                new RosType("float64", ArrayKind.FIXED, 36),
+                                "covariance",
+                                "",
+                                false,
+                                " row-major"),
+                        new Declaration(
+                                new RosType("string<=10", ArrayKind.BOUNDED, 5),
+                                "names",
+                                "",
+                                false,
+                                ""),
+                        new Declaration(
+                                new RosType("int32", ArrayKind.UNBOUNDED, 0),
+                                "data",
+                                "",
+                                false,
+                                ""),
+                        new Declaration(
+                                new RosType("uint8", ArrayKind.NONE, 0),
+                                "STATUS_OK",
+                                "1",
+                                true,
+                                ""),
+                        new Declaration(
+                                new RosType("string", ArrayKind.NONE, 0),
+                                "NAME",
+                                "hello",
+                                true,
+                                ""),
+                        new Declaration(
+                                new RosType("int32", ArrayKind.NONE, 0), "retries", "3", false, ""),
+                        new Declaration(
+                                new RosType("geometry_msgs/Pose", ArrayKind.NONE, 0),
+                                "pose",
+                                "",
+                                false,
+                                "")),
+                definition.sections().get(0).elements());
+        Assertions.assertEquals(7, definition.sections().get(0).getDeclarationsCount());
+    }
+
+    @Test
+    public void test_values() {
+        var definition =
+                new RosDefinitionParser()
+                        .parse(
+                                List.of(
+                                        "string GREETING=hello world # not a comment",
+                                        "float64 PI = 3.14 # pi",
+                                        "string s \"hello # world\"  # greeting",
+                                        "int32[] a [1, 2] # array",
+                                        "string[] names [\"a]\", 'b c']",
+                                        "int32 x 5"));
+        Assertions.assertEquals(
+                List.of(
+                        new Declaration(
+                                new RosType("string", ArrayKind.NONE, 0),
+                                "GREETING",
+                                "hello world # not a comment",
+                                true,
+                                ""),
+                        new Declaration(
+                                new RosType("float64", ArrayKind.NONE, 0),
+                                "PI",
+                                "3.14",
+                                true,
+                                " pi"),
+                        new Declaration(
+                                new RosType("string", ArrayKind.NONE, 0),
+                                "s",
+                                "\"hello # world\"",
+                                false,
+                                " greeting"),
+                        new Declaration(
+                                new RosType("int32", ArrayKind.UNBOUNDED, 0),
+                                "a",
+                                "[1, 2]",
+                                false,
+                                " array"),
+                        new Declaration(
+                                new RosType("string", ArrayKind.UNBOUNDED, 0),
+                                "names",
+                                "[\"a]\", 'b c']",
+                                false,
+                                ""),
+                        new Declaration(
+                                new RosType("int32", ArrayKind.NONE, 0), "x", "5", false, "")),
+                definition.sections().get(0).elements());
+    }
+
+    @Test
+    public void test_action() {
+        var definition =
+                new RosDefinitionParser()
+                        .parse(List.of("int32 order", "---", "int32[] sequence", " --- ", ""));
+        var sections = definition.sections();
+        Assertions.assertEquals(3, sections.size());
+        Assertions.assertEquals(1, sections.get(0).getDeclarationsCount());
+        Assertions.assertEquals(1, sections.get(1).getDeclarationsCount());
+        Assertions.assertEquals(List.of(BlankLine.INSTANCE), sections.get(2).elements());
+    }
+
+    @Test
+    public void test_type() {
+        Assertions.assertEquals("float64[36]", RosType.parse("float64[36]").toString());
+        Assertions.assertEquals("int32[<=5]", RosType.parse("int32[<=5]").toString());
+        Assertions.assertEquals("string<=10", RosType.parse("string<=10").toString());
+        Assertions.assertTrue(RosType.parse("wstring<=10").isString());
+        Assertions.assertFalse(RosType.parse("strings/Name").isString());
+        Assertions.assertThrows(XRE.class, () -> RosType.parse("int32[abc]"));
+        Assertions.assertThrows(
+                XRE.class, () -> new RosDefinitionParser().parse(List.of("invalid_field")));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.ros;
+
+import id.xfunction.nio.file.XFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.ros.CachingRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class CachingRosMsgCommandTests {
+
+    private static final Path SAMPLES = Paths.get("samples").resolve("MsgmonsterAppTests");
+    private static final RosFile STRING_MSG =
+            new RosFile("test_msgs/msg/String", RosInterfaceType.MESSAGE);
+    @TempDir Path samples;
+    @TempDir Path cacheFolder;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        XFiles.copyRecursively(SAMPLES, samples);
+        writePackageManifest("1.0.0");
+    }
+
+    private void writePackageManifest(String version) throws IOException {
+        Files.writeString(
+                samples.resolve("test_msgs/package.xml"),
+                "<package><name>test_msgs</name><version>" + version + "</version></package>");
+    }
+
+    private CachingRosMsgCommand createCommand(long maxSize) {
+        return new CachingRosMsgCommand(
+                new RosMsgCommandMock(RosVersion.ros2, samples),
+                cacheFolder,
+                maxSize,
+                "humble",
+                packageName -> Optional.of(samples.resolve(packageName)));
+    }
+
+    @Test
+    public void test_cache() throws Exception {
+        var rosmsg = createCommand(CachingRosMsgCommand.DEFAULT_MAX_SIZE);
+        Assertions.assertEquals(List.of("string data"), rosmsg.lines(STRING_MSG).toList());
+        Assertions.assertEquals(List.of("string data"), rosmsg.lines(STRING_MSG).toList());
+        var files = rosmsg.listFiles(Paths.get("test_msgs")).toList();
+        Assertions.assertTrue(files.contains(STRING_MSG));
+        Assertions.assertEquals(files, rosmsg.listFiles(Paths.get("test_msgs")).toList());
+        Assertions.assertEquals(2, rosmsg.getHits());
+        Assertions.assertEquals(2, rosmsg.getMisses());
+
+        // cache is preserved between the runs
+        rosmsg = createCommand(CachingRosMsgCommand.DEFAULT_MAX_SIZE);
+        Assertions.assertEquals(List.of("string data"), rosmsg.lines(STRING_MSG).toList());
+        Assertions.assertEquals(1, rosmsg.getHits());
+
+        // new version of the package invalidates its entries
+        Files.writeString(samples.resolve("test_msgs/String.msg"), "string new_data");
+        writePackageManifest("1.0.1");
+        rosmsg = createCommand(CachingRosMsgCommand.DEFAULT_MAX_SIZE);
+        Assertions.assertEquals(List.of("string new_data"), rosmsg.lines(STRING_MSG).toList());
+        Assertions.assertEquals(0, rosmsg.getHits());
+        Assertions.assertEquals(1, rosmsg.getMisses());
+
+        // packages without package.xml are not cached
+        var pose = new RosFile("geometry_msgs/msg/Pose", RosInterfaceType.MESSAGE);
+        Assertions.assertFalse(rosmsg.lines(pose).toList().isEmpty());
+        Assertions.assertFalse(rosmsg.lines(pose).toList().isEmpty());
+        Assertions.assertEquals(0, rosmsg.getHits());
+        Assertions.assertEquals(1, rosmsg.getMisses());
+    }
+
+    /** Least recently used entries are evicted once cache exceeds its size */
+    @Test
+    public void test_eviction() throws Exception {
+        var maxSize = 300;
+        var rosmsg = createCommand(maxSize);
+        rosmsg.lines(STRING_MSG).toList();
+        for (var name : List.of("GoalID", "GoalStatus", "CollisionObject")) {
+            rosmsg.lines(new RosFile("test_msgs/msg/" + name, RosInterfaceType.MESSAGE)).toList();
+        }
+        var size = 0L;
+        try (var entries = Files.list(cacheFolder)) {
+            for (var entry : entries.toList()) size += Files.size(entry);
+        }
+        Assertions.assertTrue(size <= maxSize, "Cache size " + size);
+        rosmsg.lines(STRING_MSG).toList();
+        Assertions.assertEquals(0, rosmsg.getHits());
+        Assertions.assertEquals(5, rosmsg.getMisses());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.ros;
+
+import id.xfunction.lang.XRE;
+import id.xfunctiontests.XAsserts;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.ros.FileSystemRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class FileSystemRosMsgCommandTests {
+
+    private static final Path SAMPLES = Paths.get("samples").resolve("MsgmonsterAppTests");
+    @TempDir Path rosPath;
+
+    /** Creates ROS package with the layout as it is installed in "share" folder */
+    private Path createPackage(Path parent) throws IOException {
+        return createPackage(parent, "test_msgs");
+    }
+
+    private Path createPackage(Path parent, String packageName) throws IOException {
+        var packageDir = parent.resolve(packageName);
+        Files.createDirectories(packageDir);
+        Files.writeString(packageDir.resolve("package.xml"), "<package/>");
+        try (var files = Files.list(SAMPLES.resolve(packageName))) {
+            for (var file : files.toList()) {
+                var fileName = file.getFileName().toString();
+                var folder = packageDir.resolve(fileName.substring(fileName.indexOf('.') + 1));
+                Files.createDirectories(folder);
+                Files.copy(file, folder.resolve(fileName));
+            }
+        }
+        return packageDir;
+    }
+
+    @Test
+    public void test_ros2(@TempDir Path outputFolder) throws Exception {
+        // packages with the definitions of nested messages are needed for type hashes
+        for (var packageName :
+                List.of(
+                        "test_msgs",
+                        "std_msgs",
+                        "builtin_interfaces",
+                        "geometry_msgs",
+                        "object_recognition_msgs",
+                        "shape_msgs")) {
+            createPackage(rosPath.resolve("share"), packageName);
+        }
+        new MsgmonsterApp(rosVersion -> new FileSystemRosMsgCommand(rosVersion, List.of(rosPath)))
+                .run(
+                        List.of(
+                                "ros2",
+                                "id.jrosmessages.test_msgs",
+                                "test_msgs",
+                                outputFolder.toString()));
+        XAsserts.assertContentEquals(
+                SAMPLES.resolve("expected").resolve("ros2").resolve("gen"), outputFolder);
+    }
+
+    @Test
+    public void test_ros1() throws Exception {
+        createPackage(rosPath.resolve("src").resolve("nested"));
+        var rosmsg =
+                new FileSystemRosMsgCommand(
+                        RosVersion.ros1,
+                        FileSystemRosMsgCommand.parseRosPaths(
+                                "/non/existing/path:" + rosPath.resolve("src")));
+        Assertions.assertEquals(
+                """
+                RosFile[name=test_msgs/AllowedCollisionEntry, type=MESSAGE]
+                RosFile[name=test_msgs/AllowedCollisionMatrix, type=MESSAGE]
+                RosFile[name=test_msgs/CollisionObject, type=MESSAGE]
+                RosFile[name=test_msgs/GoalID, type=MESSAGE]
+                RosFile[name=test_msgs/GoalStatus, type=MESSAGE]
+                RosFile[name=test_msgs/GoalStatusArray, type=MESSAGE]
+                RosFile[name=test_msgs/Invalid, type=MESSAGE]
+                RosFile[name=test_msgs/LaserScan, type=MESSAGE]
+                RosFile[name=test_msgs/MessageWithNoFields, type=MESSAGE]
+                RosFile[name=test_msgs/String, type=MESSAGE]
+                RosFile[name=test_msgs/TestDifferentFields, type=MESSAGE]
+                RosFile[name=test_msgs/AddTwoInts, type=SERVICE]""",
+                rosmsg.listFiles(Paths.get("test_msgs"))
+                        .map(RosFile::toString)
+                        .collect(Collectors.joining("\n")));
+        Assertions.assertEquals(
+                Files.readAllLines(SAMPLES.resolve("test_msgs/AddTwoInts.srv")),
+                rosmsg.lines(new RosFile("test_msgs/AddTwoInts", RosInterfaceType.SERVICE))
+                        .toList());
+        Assertions.assertEquals(
+                "[RosFile[name=test_msgs/String, type=MESSAGE]]",
+                rosmsg.listFiles(Paths.get("test_msgs/String")).toList().toString());
+    }
+
+    @Test
+    public void test_not_found() throws Exception {
+        var rosmsg = new FileSystemRosMsgCommand(RosVersion.ros2, List.of(rosPath));
+        var e =
+                Assertions.assertThrows(
+                        XRE.class, () -> rosmsg.listFiles(Paths.get("stdwqwqw_msgs")));
+        Assertions.assertTrue(e.getMessage().endsWith("Unknown package 'stdwqwqw_msgs'"));
+        createPackage(rosPath.resolve("share"));
+        Assertions.assertThrows(
+                XRE.class,
+                () -> rosmsg.lines(new RosFile("test_msgs/msg/Unknown", RosInterfaceType.MESSAGE)));
+        Assertions.assertEquals(
+                rosPath.resolve("share/test_msgs"), rosmsg.findPackage("test_msgs").get());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.ros;
+
+import id.xfunction.lang.XRE;
+import id.xfunctiontests.XAsserts;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.app.MsgmonsterApp;
+import pinorobotics.msgmonster.ros.HelperProcessRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Instead of real helper these tests use stub which speaks the same protocol
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class HelperProcessRosMsgCommandTests {
+
+    private static final Path SAMPLES = Paths.get("samples");
+    private static final Path STUB_HELPER =
+            SAMPLES.resolve(HelperProcessRosMsgCommandTests.class.getSimpleName())
+                    .resolve("stub_helper.py");
+    @TempDir Path tempFolder;
+    private Path startLog;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        startLog = Files.createFile(tempFolder.resolve("helper.log"));
+    }
+
+    private HelperProcessRosMsgCommand createCommand(RosVersion rosVersion) {
+        return new HelperProcessRosMsgCommand(
+                rosVersion,
+                List.of(
+                        "python3",
+                        STUB_HELPER.toString(),
+                        rosVersion.toString(),
+                        SAMPLES.resolve("MsgmonsterAppTests").toString(),
+                        startLog.toString()));
+    }
+
+    /** All ROS files should be generated with single helper process */
+    @Test
+    public void test_ros2(@TempDir Path outputFolder) throws Exception {
+        new MsgmonsterApp(this::createCommand)
+                .run(
+                        List.of(
+                                "ros2",
+                                "id.jrosmessages.test_msgs",
+                                "test_msgs",
+                                outputFolder.toString()));
+        XAsserts.assertContentEquals(
+                SAMPLES.resolve("MsgmonsterAppTests/expected/ros2/gen"), outputFolder);
+        Assertions.assertEquals(List.of("started"), Files.readAllLines(startLog));
+    }
+
+    @Test
+    public void test_ros1() throws Exception {
+        try (var rosmsg = createCommand(RosVersion.ros1)) {
+            Assertions.assertEquals(
+                    """
+                    RosFile[name=test_msgs/AddTwoInts, type=SERVICE]
+                    RosFile[name=test_msgs/GoalID, type=MESSAGE]""",
+                    rosmsg.listFiles(Paths.get("test_msgs"))
+                            .filter(f -> f.name().toString().matches(".*/(AddTwo|Fib|GoalID).*"))
+                            .map(RosFile::toString)
+                            .collect(Collectors.joining("\n")));
+            Assertions.assertEquals(
+                    Files.readAllLines(SAMPLES.resolve("MsgmonsterAppTests/test_msgs/String.msg")),
+                    rosmsg.lines(new RosFile("test_msgs/String", RosInterfaceType.MESSAGE))
+                            .toList());
+            var e =
+                    Assertions.assertThrows(
+                            XRE.class,
+                            () ->
+                                    rosmsg.lines(
+                                            new RosFile(
+                                                    "test_msgs/Unknown",
+                                                    RosInterfaceType.MESSAGE)));
+            Assertions.assertTrue(
+                    e.getMessage().contains("Request 'show MESSAGE test_msgs/Unknown' failed"));
+            // helper should still be usable after the error
+            Assertions.assertEquals(
+                    1,
+                    rosmsg.lines(new RosFile("test_msgs/String", RosInterfaceType.MESSAGE))
+                            .count());
+        }
+        Assertions.assertEquals(List.of("started"), Files.readAllLines(startLog));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.ros;
+
+import id.xfunction.nio.file.XFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pinorobotics.msgmonster.ros.MemoizingRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+import pinorobotics.msgmonster.tests.RosMsgCommandMock;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MemoizingRosMsgCommandTests {
+
+    private static final Path SAMPLES = Paths.get("samples").resolve("MsgmonsterAppTests");
+    private static final RosFile STRING_MSG =
+            new RosFile("test_msgs/msg/String", RosInterfaceType.MESSAGE);
+    @TempDir Path samples;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        XFiles.copyRecursively(SAMPLES, samples);
+    }
+
+    @Test
+    public void test_revalidate() throws Exception {
+        var rosmsg =
+                new MemoizingRosMsgCommand(
+                        new RosMsgCommandMock(RosVersion.ros2, samples),
+                        packageName ->
+                                packageName.equals("test_msgs")
+                                        ? Optional.of(samples.resolve(packageName))
+                                        : Optional.empty());
+        Assertions.assertEquals(List.of("string data"), rosmsg.lines(STRING_MSG).toList());
+        Assertions.assertEquals(List.of("string data"), rosmsg.lines(STRING_MSG).toList());
+        var files = rosmsg.listFiles(Paths.get("test_msgs")).toList();
+        Assertions.assertEquals(files, rosmsg.listFiles(Paths.get("test_msgs")).toList());
+        Assertions.assertEquals(2, rosmsg.getHits());
+        Assertions.assertEquals(2, rosmsg.getMisses());
+        Assertions.assertFalse(rosmsg.revalidate());
+
+        // results are not dropped until revalidation
+        Files.writeString(samples.resolve("test_msgs/String.msg"), "string new_data");
+        Assertions.assertEquals(List.of("string data"), rosmsg.lines(STRING_MSG).toList());
+        Assertions.assertTrue(rosmsg.revalidate());
+        Assertions.assertEquals(List.of("string new_data"), rosmsg.lines(STRING_MSG).toList());
+        Assertions.assertEquals(3, rosmsg.getHits());
+        Assertions.assertEquals(3, rosmsg.getMisses());
+
+        // packages which cannot be located are not memoized
+        var pose = new RosFile("geometry_msgs/msg/Pose", RosInterfaceType.MESSAGE);
+        Assertions.assertFalse(rosmsg.lines(pose).toList().isEmpty());
+        Assertions.assertFalse(rosmsg.lines(pose).toList().isEmpty());
+        Assertions.assertEquals(3, rosmsg.getHits());
+        Assertions.assertTrue(rosmsg.revalidate());
+    }
+}
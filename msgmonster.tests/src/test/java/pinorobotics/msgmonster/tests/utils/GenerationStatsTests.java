@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.tests.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.msgmonster.utils.GenerationStats;
+import pinorobotics.msgmonster.utils.GenerationStats.Phase;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class GenerationStatsTests {
+
+    @Test
+    public void test_nested_phases() {
+        var stats = new GenerationStats();
+        stats.track(
+                "test_msgs/msg/String",
+                () ->
+                        GenerationStats.measure(
+                                Phase.RENDER,
+                                () -> {
+                                    sleep(20);
+                                    GenerationStats.measure(Phase.PARSE, () -> sleep(100));
+                                }));
+        // not tracked
+        GenerationStats.measure(Phase.WRITE, () -> sleep(10));
+        stats.finish();
+        Assertions.assertEquals(1, stats.getFilesCount());
+        Assertions.assertEquals(0, stats.getTotalNanos(Phase.WRITE));
+        var parse = stats.getTotalNanos(Phase.PARSE);
+        var render = stats.getTotalNanos(Phase.RENDER);
+        Assertions.assertTrue(parse >= 100_000_000, "parse " + parse);
+        // render does not include nested parse phase
+        Assertions.assertTrue(render >= 20_000_000 && render < parse, "render " + render);
+        var json = stats.formatJson(10);
+        Assertions.assertTrue(json.contains("\"filesCount\": 1,"), json);
+        Assertions.assertTrue(json.contains("\"name\": \"test_msgs/msg/String\""), json);
+        var text = stats.formatText(10);
+        Assertions.assertTrue(text.contains("Generated 1 ROS files"), text);
+        Assertions.assertTrue(text.contains("  test_msgs/msg/String "), text);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
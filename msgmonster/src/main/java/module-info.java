@@ -21,8 +21,15 @@
 module msgmonster {
     requires id.xfunction;
     requires org.ainslec.picocog;
+    requires jdk.jfr;
+    requires java.compiler;
 
     exports pinorobotics.msgmonster.app;
+    exports pinorobotics.msgmonster.output;
+    exports pinorobotics.msgmonster.generator to
+            msgmonster.tests;
+    exports pinorobotics.msgmonster.parser to
+            msgmonster.tests;
     exports pinorobotics.msgmonster.ros to
             msgmonster.tests;
     exports pinorobotics.msgmonster.utils to
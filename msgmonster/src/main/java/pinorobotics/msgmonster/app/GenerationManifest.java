@@ -0,0 +1,201 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.app;
+
+import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XRE;
+import id.xfunction.logging.XLogger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+
+/**
+ * Manifest of the generated files which is stored inside the output folder. It allows to regenerate
+ * only those ROS files which changed since the previous run.
+ *
+ * <p>For each ROS file manifest keeps the hash of its input (definition of the ROS file, version of
+ * the templates, generator options) and the list of Java files generated from it.
+ *
+ * <p>Each ROS file belongs to some scope (ex. ROS package which was given as an input). When run
+ * for the same scope is completed, the files generated for the ROS files which are not part of that
+ * scope anymore are deleted. Entries from other scopes are preserved.
+ *
+ * <p>Manifest is a text file where each line describes one ROS file:
+ *
+ * <pre>{@code
+ * <scope> <ROS file type> <ROS file name> <input hash> <generated file 1>,...,<generated file N>
+ * }</pre>
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+class GenerationManifest {
+    private static final XLogger LOGGER = XLogger.getLogger(GenerationManifest.class);
+    static final String FILE_NAME = ".msgmonster-manifest";
+
+    private record Entry(String scope, String inputHash, List<String> outputs) {}
+
+    private Path outputFolder;
+    private Path manifestFile;
+    private String scope;
+    private Map<RosFile, Entry> previousEntries = new HashMap<>();
+    private Map<RosFile, Entry> entries = new ConcurrentHashMap<>();
+    private Set<RosFile> removed = new HashSet<>();
+
+    /**
+     * Load manifest from the output folder if it exists
+     *
+     * @param scope scope of all ROS files of the current run
+     */
+    GenerationManifest(Path outputFolder, String scope) {
+        this.outputFolder = outputFolder;
+        this.manifestFile = outputFolder.resolve(FILE_NAME);
+        this.scope = scope;
+        if (Files.isRegularFile(manifestFile)) load();
+    }
+
+    private void load() {
+        for (var line : Unchecked.get(() -> Files.readAllLines(manifestFile))) {
+            if (line.isBlank()) continue;
+            var tokens = line.split(" ");
+            if (tokens.length != 5)
+                throw new XRE("Manifest %s is corrupted: %s", manifestFile, line);
+            previousEntries.put(
+                    new RosFile(tokens[2], RosInterfaceType.valueOf(tokens[1])),
+                    new Entry(tokens[0], tokens[3], Arrays.asList(tokens[4].split(","))));
+        }
+        LOGGER.fine("Loaded {0} entries from {1}", previousEntries.size(), manifestFile);
+    }
+
+    /**
+     * ROS file is up to date when it was generated before from the same input and all files which
+     * were generated for it still exist
+     */
+    boolean isUpToDate(RosFile rosFile, String inputHash) {
+        var entry = previousEntries.get(rosFile);
+        if (entry == null || !entry.inputHash().equals(inputHash)) return false;
+        if (!entry.outputs().stream().map(outputFolder::resolve).allMatch(Files::isRegularFile))
+            return false;
+        entries.put(rosFile, new Entry(scope, inputHash, entry.outputs()));
+        return true;
+    }
+
+    /** Delete all files which were generated for the ROS file during the previous run */
+    void deleteOutputs(RosFile rosFile) {
+        var entry = previousEntries.get(rosFile);
+        if (entry == null) return;
+        entry.outputs().forEach(this::delete);
+    }
+
+    /**
+     * Record files generated for the ROS file. Files which were generated for it during the
+     * previous run but not anymore are deleted.
+     */
+    void update(RosFile rosFile, String inputHash, List<Path> outputs) {
+        var entry =
+                new Entry(
+                        scope,
+                        inputHash,
+                        outputs.stream().map(Path::getFileName).map(Path::toString).toList());
+        entries.put(rosFile, entry);
+        var previousEntry = previousEntries.get(rosFile);
+        if (previousEntry == null) return;
+        previousEntry.outputs().stream()
+                .filter(o -> !entry.outputs().contains(o))
+                .filter(o -> Files.exists(outputFolder.resolve(o)))
+                .forEach(this::delete);
+    }
+
+    /** Delete all files which were generated for the ROS file which does not exist anymore */
+    void remove(RosFile rosFile) {
+        LOGGER.info("ROS file {0} does not exist anymore", rosFile);
+        deleteOutputs(rosFile);
+        removed.add(rosFile);
+    }
+
+    /**
+     * Delete files which were generated for the ROS files from the current scope which were not
+     * processed during the current run and save the manifest
+     */
+    void save() {
+        save(true);
+    }
+
+    /**
+     * Save the manifest keeping entries of all ROS files which were not processed during the
+     * current run. Used when only some of the ROS files from the current scope were regenerated.
+     */
+    void saveUpdates() {
+        save(false);
+    }
+
+    private void save(boolean isCompleteScope) {
+        var outputs =
+                entries.values().stream()
+                        .flatMap(e -> e.outputs().stream())
+                        .collect(Collectors.toCollection(HashSet::new));
+        for (var e : previousEntries.entrySet()) {
+            if (entries.containsKey(e.getKey()) || removed.contains(e.getKey())) continue;
+            var entry = e.getValue();
+            if (isCompleteScope && entry.scope().equals(scope)) {
+                LOGGER.info("ROS file {0} does not exist anymore", e.getKey());
+                entry.outputs().stream().filter(o -> !outputs.contains(o)).forEach(this::delete);
+            } else {
+                entries.put(e.getKey(), entry);
+            }
+        }
+        var lines =
+                entries.entrySet().stream()
+                        .map(
+                                e ->
+                                        String.join(
+                                                " ",
+                                                e.getValue().scope(),
+                                                e.getKey().type().toString(),
+                                                e.getKey().name().toString(),
+                                                e.getValue().inputHash(),
+                                                String.join(",", e.getValue().outputs())))
+                        .sorted()
+                        .toList();
+        // write manifest atomically so that it is never left partially written
+        var tmpFile = outputFolder.resolve(FILE_NAME + ".tmp");
+        Unchecked.run(
+                () -> {
+                    Files.write(tmpFile, lines);
+                    Files.move(
+                            tmpFile,
+                            manifestFile,
+                            StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                });
+    }
+
+    private void delete(String output) {
+        LOGGER.info("Deleting {0}", output);
+        Unchecked.run(() -> Files.deleteIfExists(outputFolder.resolve(output)));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.app;
+
+import id.xfunction.logging.XLogger;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import pinorobotics.msgmonster.generator.DependencyResolver;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosMsgCommand;
+import pinorobotics.msgmonster.utils.MsgMonsterUtils;
+
+/**
+ * Calculates hashes of everything what generated classes depend on: definitions of the ROS file and
+ * of all ROS files it embeds (MD5 sums, type hashes and layouts of the nested messages are part of
+ * the generated classes) and the generator options.
+ *
+ * <p>Hashes and dependencies of each ROS file are memoized for the whole run, so that definition of
+ * every ROS file is read only once no matter how many other ROS files embed it. Calculator is
+ * thread safe.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+class InputHashCalculator {
+    private static final XLogger LOGGER = XLogger.getLogger(InputHashCalculator.class);
+
+    /**
+     * @param hash hash of the definition of the ROS file
+     * @param dependencies ROS files which are embedded by the ROS file directly
+     */
+    private record FileInput(String hash, Set<RosFile> dependencies) {}
+
+    private RosMsgCommand rosmsg;
+    private DependencyResolver dependencyResolver;
+    private Map<RosFile, FileInput> inputs = new ConcurrentHashMap<>();
+
+    InputHashCalculator(RosMsgCommand rosmsg) {
+        this.rosmsg = rosmsg;
+        dependencyResolver = new DependencyResolver(rosmsg);
+    }
+
+    /**
+     * @return empty when definition of the ROS file or of any ROS file it embeds cannot be read
+     */
+    Optional<String> calcInputHash(RosFile rosFile, String options) {
+        try {
+            // ROS files of the closure are sorted by name so that hash does not depend on the
+            // order they are found
+            var closure = new TreeMap<String, String>();
+            var queue = new ArrayDeque<RosFile>();
+            queue.add(rosFile);
+            while (!queue.isEmpty()) {
+                var next = queue.poll();
+                var name = next.name().toString();
+                if (closure.containsKey(name)) continue;
+                var input = read(next);
+                closure.put(name, input.hash());
+                queue.addAll(input.dependencies());
+            }
+            var buf = new StringBuilder(options);
+            closure.forEach((name, hash) -> buf.append('\n').append(name).append(' ').append(hash));
+            return Optional.of(MsgMonsterUtils.sha256(buf.toString()));
+        } catch (Exception e) {
+            LOGGER.warning("Could not read definition of {0}: {1}", rosFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private FileInput read(RosFile rosFile) {
+        var input = inputs.get(rosFile);
+        if (input != null) return input;
+        var lines = rosmsg.lines(rosFile).toList();
+        input =
+                new FileInput(
+                        MsgMonsterUtils.sha256(String.join("\n", lines)),
+                        dependencyResolver.findDependencies(rosFile, lines));
+        inputs.put(rosFile, input);
+        return input;
+    }
+}
@@ -17,27 +17,60 @@
  */
 package pinorobotics.msgmonster.app;
 
+import id.xfunction.Preconditions;
 import id.xfunction.ResourceUtils;
 import id.xfunction.cli.ArgumentParsingException;
 import id.xfunction.cli.SmartArgs;
+import id.xfunction.lang.XRE;
 import id.xfunction.logging.XLogger;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import pinorobotics.msgmonster.generator.DependencyResolver;
+import pinorobotics.msgmonster.generator.GeneratorUtils;
 import pinorobotics.msgmonster.generator.JRosActionGenerator;
 import pinorobotics.msgmonster.generator.JRosMessageGenerator;
 import pinorobotics.msgmonster.generator.JRosServiceGenerator;
+import pinorobotics.msgmonster.generator.ReverseDependencyIndex;
+import pinorobotics.msgmonster.generator.Ros1Md5Calculator;
+import pinorobotics.msgmonster.generator.Ros2TypeHashCalculator;
+import pinorobotics.msgmonster.output.CompilingSourceSink;
+import pinorobotics.msgmonster.output.DirectorySourceSink;
+import pinorobotics.msgmonster.output.GeneratedSourceSink;
+import pinorobotics.msgmonster.output.ZipSourceSink;
+import pinorobotics.msgmonster.ros.CachingRosMsgCommand;
+import pinorobotics.msgmonster.ros.FileSystemRosMsgCommand;
+import pinorobotics.msgmonster.ros.HelperProcessRosMsgCommand;
+import pinorobotics.msgmonster.ros.MeasuredRosMsgCommand;
+import pinorobotics.msgmonster.ros.MemoizingRosMsgCommand;
 import pinorobotics.msgmonster.ros.Ros1MsgCommand;
 import pinorobotics.msgmonster.ros.Ros2MsgCommand;
 import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosMsgCommand;
 import pinorobotics.msgmonster.ros.RosMsgCommandFactory;
 import pinorobotics.msgmonster.ros.RosVersion;
+import pinorobotics.msgmonster.utils.GenerationStats;
+import pinorobotics.msgmonster.utils.GenerationStats.Phase;
 
 /**
  * @author aeon_flux aeon_flux@eclipso.ch
@@ -45,11 +78,55 @@ import pinorobotics.msgmonster.ros.RosVersion;
 public class MsgmonsterApp {
     private static final XLogger LOGGER = XLogger.getLogger(MsgmonsterApp.class);
     private static final ResourceUtils resourceUtils = new ResourceUtils();
+    private static final String STATS_FILE_NAME = ".msgmonster-stats.json";
+
+    /** Name of the file in the output folder where incremental generation keeps its state */
+    public static final String MANIFEST_FILE_NAME = GenerationManifest.FILE_NAME;
+
+    private static final int STATS_SLOWEST_COUNT = 10;
     private RosMsgCommandFactory rosCommandFactory;
     private List<Predicate<String>> excludePredicates = List.of();
+    private int threads = 1;
+    private boolean workspace;
+    private boolean reachableOnly;
+    private Optional<Path> cacheFolder = Optional.empty();
+    private long cacheSize = CachingRosMsgCommand.DEFAULT_MAX_SIZE;
+    private Optional<StatsFormat> statsFormat = Optional.empty();
+    private Optional<GeneratedSourceSink> sourceSink = Optional.empty();
+    private Optional<String> compileClasspath = Optional.empty();
+    private Optional<Path> daemonSocket = Optional.empty();
+    private boolean watch;
+    private boolean generateCodecs;
+    private boolean generateViews;
+    private boolean generateReuse;
+    private boolean generateArrayBuffers;
+    private boolean generateNativeStrings;
+    private PrintStream out = System.out;
+
+    /**
+     * ROS files of one Java package
+     *
+     * @param scope see {@link GenerationManifest}
+     * @param rosPackage ROS package when all of its ROS files are generated into this Java package
+     */
+    private record Target(
+            Path packageName,
+            Path outputFolder,
+            String scope,
+            Optional<String> rosPackage,
+            List<RosFile> rosFiles) {
+
+        Target withRosFiles(List<RosFile> rosFiles) {
+            return new Target(packageName, outputFolder, scope, rosPackage, rosFiles);
+        }
+    }
 
-    private static void usage() {
-        resourceUtils.readResourceAsStream("README-msgmonster.md").forEach(System.out::println);
+    /** All targets of the generation run */
+    private record Generation(
+            Path outputFolder, List<Target> targets, Map<String, String> javaPackages) {}
+
+    void usage() {
+        resourceUtils.readResourceAsStream("README-msgmonster.md").forEach(out::println);
     }
 
     public MsgmonsterApp(RosMsgCommandFactory rosCommandFactory) {
@@ -65,10 +142,157 @@ public class MsgmonsterApp {
                         });
     }
 
+    void setRosCommandFactory(RosMsgCommandFactory rosCommandFactory) {
+        this.rosCommandFactory = rosCommandFactory;
+    }
+
     public void setExcludePatterns(List<Pattern> patterns) {
         this.excludePredicates = patterns.stream().map(Pattern::asMatchPredicate).toList();
     }
 
+    /**
+     * Number of threads which generate ROS files concurrently. Generated output does not depend on
+     * number of threads.
+     */
+    public void setThreads(int threads) {
+        Preconditions.isTrue(threads > 0, "Number of threads should be positive: %s", threads);
+        this.threads = threads;
+    }
+
+    /**
+     * In workspace mode input is a list of ROS packages or ROS files. Classes are generated for all
+     * of them and for all ROS packages they depend on. Each ROS package is mapped to its own Java
+     * package with the given Java package name used as a prefix.
+     */
+    public void setWorkspace(boolean workspace) {
+        this.workspace = workspace;
+    }
+
+    /**
+     * In workspace mode generate only ROS files which are reachable from the input instead of the
+     * whole ROS packages they belong to
+     */
+    public void setReachableOnly(boolean reachableOnly) {
+        this.reachableOnly = reachableOnly;
+    }
+
+    /**
+     * Keep results of ROS commands in the given folder and reuse them on the next runs
+     *
+     * @see CachingRosMsgCommand
+     */
+    public void setCacheFolder(Path cacheFolder) {
+        this.cacheFolder = Optional.of(cacheFolder);
+    }
+
+    /** Maximum size of the cache folder in bytes */
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Report time spent in each phase of the generation once it is complete. Report is printed to
+     * the standard output and, for {@link StatsFormat#json}, it is also saved to the output folder.
+     */
+    public void setStatsFormat(StatsFormat statsFormat) {
+        this.statsFormat = Optional.of(statsFormat);
+    }
+
+    /**
+     * Write generated classes to the given sink instead of the output folder. Sink receives the
+     * paths of the classes inside the output folder and it is closed once the generation is
+     * complete.
+     *
+     * <p>By default classes are written to the output folder on the file system or, when the output
+     * folder name ends with ".zip" or ".jar", to the archive with such name (see {@link
+     * ZipSourceSink}).
+     */
+    public void setSourceSink(GeneratedSourceSink sourceSink) {
+        this.sourceSink = Optional.of(sourceSink);
+    }
+
+    /**
+     * Instead of writing sources, compile them in memory and write resulting classes into the jar
+     * (output folder name should end with ".jar")
+     *
+     * @param classpath classpath with the dependencies of the generated classes (jrosmessages)
+     * @see CompilingSourceSink
+     */
+    public void setCompileClasspath(String classpath) {
+        this.compileClasspath = Optional.of(classpath);
+    }
+
+    /** Where to print usage and stats report (by default to the standard output) */
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Once generation is complete keep watching ROS packages of the input and regenerate ROS files
+     * which changed together with all ROS files which embed them (see {@link
+     * ReverseDependencyIndex}). Runs until the thread is interrupted.
+     *
+     * <p>Requires ROS command which can locate ROS packages on the file system (see {@link
+     * FileSystemRosMsgCommand}) and the output folder on the file system.
+     */
+    public void setWatch(boolean watch) {
+        this.watch = watch;
+    }
+
+    /**
+     * Generate reflection-free codec next to each message class
+     *
+     * @see JRosMessageGenerator#setGenerateCodecs(boolean)
+     */
+    public void setGenerateCodecs(boolean generateCodecs) {
+        this.generateCodecs = generateCodecs;
+    }
+
+    /**
+     * Generate zero-copy view next to each message class
+     *
+     * @see JRosMessageGenerator#setGenerateViews(boolean)
+     */
+    public void setGenerateViews(boolean generateViews) {
+        this.generateViews = generateViews;
+    }
+
+    /**
+     * Generate reset() and copyFrom() methods in each message class and the pool next to it
+     *
+     * @see JRosMessageGenerator#setGenerateReuse(boolean)
+     */
+    public void setGenerateReuse(boolean generateReuse) {
+        this.generateReuse = generateReuse;
+    }
+
+    /**
+     * Generate variable size arrays of primitive types as Java NIO buffers
+     *
+     * @see JRosMessageGenerator#setGenerateArrayBuffers(boolean)
+     */
+    public void setGenerateArrayBuffers(boolean generateArrayBuffers) {
+        this.generateArrayBuffers = generateArrayBuffers;
+    }
+
+    /**
+     * Generate string fields as {@link String} instead of StringMessage
+     *
+     * @see JRosMessageGenerator#setGenerateNativeStrings(boolean)
+     */
+    public void setGenerateNativeStrings(boolean generateNativeStrings) {
+        this.generateNativeStrings = generateNativeStrings;
+    }
+
+    boolean isWatch() {
+        return watch;
+    }
+
+    /** Socket of the {@link MsgmonsterDaemon} when it was requested with "-daemon" option */
+    Optional<Path> getDaemonSocket() {
+        return daemonSocket;
+    }
+
     private boolean isExcluded(RosFile rosFile) {
         var rosFileName = rosFile.name().toString();
         return excludePredicates.stream().filter(p -> p.test(rosFileName)).findFirst().isPresent();
@@ -80,65 +304,570 @@ public class MsgmonsterApp {
             return;
         }
         var rosVersion = RosVersion.valueOf(args.get(0));
+        if (watch) {
+            watch(rosVersion, args);
+            return;
+        }
+        try (var rosmsg = new MeasuredRosMsgCommand(createRosMsgCommand(rosVersion))) {
+            run(rosmsg, new Ros1Md5Calculator(rosmsg), new Ros2TypeHashCalculator(rosmsg), args);
+        }
+    }
+
+    private RosMsgCommand createRosMsgCommand(RosVersion rosVersion) {
+        return createCachingRosMsgCommand(rosCommandFactory.create(rosVersion));
+    }
+
+    private RosMsgCommand createCachingRosMsgCommand(RosMsgCommand rosmsg) {
+        if (cacheFolder.isEmpty()) return rosmsg;
+        LOGGER.info("Cache folder {0}", cacheFolder.get());
+        return new CachingRosMsgCommand(rosmsg, cacheFolder.get(), cacheSize);
+    }
+
+    /** ROS command which results can be reused by many runs */
+    MemoizingRosMsgCommand createMemoizingRosMsgCommand(RosVersion rosVersion) {
         var rosmsg = rosCommandFactory.create(rosVersion);
+        return new MemoizingRosMsgCommand(
+                createCachingRosMsgCommand(rosmsg),
+                FileSystemRosMsgCommand.createPackageLocator(rosmsg));
+    }
+
+    /**
+     * Run generation with the given ROS command and calculators. They are not closed so they can be
+     * reused by the next runs.
+     */
+    void run(
+            RosMsgCommand rosmsg,
+            Ros1Md5Calculator md5Calculator,
+            Ros2TypeHashCalculator typeHashCalculator,
+            List<String> args)
+            throws Exception {
+        if (args.size() < 4) {
+            usage();
+            return;
+        }
+        var stats = new GenerationStats();
+        var generation = listTargets(rosmsg, args, stats);
+        generate(
+                rosmsg,
+                md5Calculator,
+                typeHashCalculator,
+                generation,
+                generation.targets(),
+                stats,
+                false);
+    }
+
+    private Generation listTargets(RosMsgCommand rosmsg, List<String> args, GenerationStats stats)
+            throws Exception {
+        var rosVersion = rosmsg.getRosVersion();
         var packageName = Paths.get(args.get(1));
         var outputFolder = Paths.get(args.get(3));
-        outputFolder.toFile().mkdirs();
         LOGGER.info("Output folder {0}", outputFolder);
-        var input = Paths.get(args.get(2));
-        var messageGenerator = new JRosMessageGenerator(rosmsg, outputFolder, packageName);
-        var serviceGenerator = new JRosServiceGenerator(rosmsg, outputFolder, packageName);
-        var actionGenerator = new JRosActionGenerator(rosmsg, outputFolder, packageName);
-        var rosFiles = rosmsg.listFiles(input);
-        rosFiles.forEach(
-                rosFile -> {
-                    LOGGER.info("Processing file {0}", rosFile);
-                    if (isExcluded(rosFile)) {
-                        LOGGER.info("File marked as excluded, ignoring...");
-                        return;
+        var scope = rosVersion + ":" + args.get(2);
+        var targets = new ArrayList<Target>();
+        var javaPackages = new TreeMap<String, String>();
+        // listing is not attributed to any of the ROS files
+        stats.track(
+                null,
+                () -> {
+                    if (workspace) {
+                        var roots = Arrays.stream(args.get(2).split(",")).map(Paths::get).toList();
+                        var closure = new DependencyResolver(rosmsg).resolve(roots, reachableOnly);
+                        closure.keySet().forEach(p -> javaPackages.put(p, packageName + "." + p));
+                        for (var e : closure.entrySet()) {
+                            LOGGER.info(
+                                    "ROS package {0}: {1} files", e.getKey(), e.getValue().size());
+                            targets.add(
+                                    new Target(
+                                            Paths.get(javaPackages.get(e.getKey())),
+                                            outputFolder.resolve(e.getKey()),
+                                            scope,
+                                            reachableOnly
+                                                    ? Optional.empty()
+                                                    : Optional.of(e.getKey()),
+                                            e.getValue()));
+                        }
+                    } else {
+                        var input = Paths.get(args.get(2));
+                        targets.add(
+                                new Target(
+                                        packageName,
+                                        outputFolder,
+                                        scope,
+                                        input.getNameCount() == 1
+                                                ? Optional.of(input.toString())
+                                                : Optional.empty(),
+                                        rosmsg.listFiles(input).toList()));
                     }
+                });
+        return new Generation(outputFolder, targets, javaPackages);
+    }
+
+    /**
+     * @param isPartial see {@link #generate(RosMsgCommand, Ros1Md5Calculator,
+     *     Ros2TypeHashCalculator, List, Map, GeneratedSourceSink, GenerationStats, boolean)}
+     */
+    private void generate(
+            RosMsgCommand rosmsg,
+            Ros1Md5Calculator md5Calculator,
+            Ros2TypeHashCalculator typeHashCalculator,
+            Generation generation,
+            List<Target> targets,
+            GenerationStats stats,
+            boolean isPartial)
+            throws Exception {
+        // jrosclient does not support buffers so messages with them can be serialized only by
+        // codecs
+        Preconditions.isTrue(
+                !generateArrayBuffers || generateCodecs, "Array buffers require codecs");
+        var outputFolder = generation.outputFolder();
+        var sink =
+                isPartial
+                        ? new DirectorySourceSink(true)
+                        : sourceSink.orElseGet(() -> createSourceSink(outputFolder));
+        try {
+            generate(
+                    rosmsg,
+                    md5Calculator,
+                    typeHashCalculator,
+                    targets,
+                    generation.javaPackages(),
+                    sink,
+                    stats,
+                    isPartial);
+        } finally {
+            // sinks may buffer the sources until they are closed
+            stats.track(null, () -> GenerationStats.measure(Phase.WRITE, sink::close));
+        }
+        stats.finish();
+        if (statsFormat.isPresent()) reportStats(stats, outputFolder);
+    }
+
+    private void watch(RosVersion rosVersion, List<String> args) throws Exception {
+        var outputFolder = Paths.get(args.get(3));
+        Preconditions.isTrue(
+                sourceSink.isEmpty()
+                        && compileClasspath.isEmpty()
+                        && !ZipSourceSink.isArchive(outputFolder),
+                "Watch mode requires output folder: %s",
+                outputFolder);
+        // cached definitions are invalidated only when the version of the ROS package changes
+        if (cacheFolder.isPresent()) LOGGER.warning("Cache is not used in watch mode");
+        var baseRosmsg = rosCommandFactory.create(rosVersion);
+        try (var rosmsg = new MeasuredRosMsgCommand(baseRosmsg)) {
+            var stats = new GenerationStats();
+            var generation = listTargets(rosmsg, args, stats);
+            var packageLocator = FileSystemRosMsgCommand.createPackageLocator(baseRosmsg);
+            var packageDirs = new TreeMap<String, Path>();
+            var owners = new HashMap<RosFile, Target>();
+            for (var target : generation.targets()) {
+                for (var rosFile : target.rosFiles()) {
+                    owners.put(rosFile, target);
+                    var packageName = rosFile.name().getName(0).toString();
+                    if (packageDirs.containsKey(packageName)) continue;
+                    packageLocator
+                            .apply(packageName)
+                            .ifPresent(dir -> packageDirs.put(packageName, dir));
+                }
+            }
+            Preconditions.isTrue(
+                    !packageDirs.isEmpty(), "None of the ROS packages can be located to watch");
+            // watching starts before the generation so that changes made during it are not lost
+            try (var watcher = new RosFilesWatcher(rosVersion, packageDirs)) {
+                generate(
+                        rosmsg,
+                        new Ros1Md5Calculator(rosmsg),
+                        new Ros2TypeHashCalculator(rosmsg),
+                        generation,
+                        generation.targets(),
+                        stats,
+                        false);
+                var index = new ReverseDependencyIndex(new DependencyResolver(rosmsg));
+                owners.keySet().forEach(index::update);
+                LOGGER.info("Watching ROS packages {0}", packageDirs.keySet());
+                while (true) regenerate(rosmsg, generation, owners, index, watcher.take());
+            } catch (InterruptedException e) {
+                LOGGER.info("Watching is stopped");
+            }
+        }
+    }
+
+    /**
+     * Regenerate changed ROS files and all ROS files which embed them
+     *
+     * @param owners targets of all ROS files which are being watched
+     */
+    private void regenerate(
+            RosMsgCommand rosmsg,
+            Generation generation,
+            Map<RosFile, Target> owners,
+            ReverseDependencyIndex index,
+            RosFilesWatcher.Changes changes)
+            throws Exception {
+        var packageTargets =
+                generation.targets().stream()
+                        .filter(target -> target.rosPackage().isPresent())
+                        .collect(Collectors.toMap(target -> target.rosPackage().get(), t -> t));
+        // new ROS files are generated only when the whole ROS package is being generated
+        for (var rosFile : changes.changed()) {
+            var target = packageTargets.get(rosFile.name().getName(0).toString());
+            if (target != null) owners.putIfAbsent(rosFile, target);
+        }
+        var changed = changes.changed().stream().filter(owners::containsKey).toList();
+        var deleted = changes.deleted().stream().filter(owners::containsKey).toList();
+        deleted.forEach(index::remove);
+        changed.forEach(index::update);
+        var affected = new LinkedHashSet<RosFile>(changed);
+        affected.addAll(index.findDependents(changed));
+        affected.addAll(index.findDependents(deleted));
+        affected.removeAll(deleted);
+        for (var e : groupByTarget(deleted, owners).entrySet()) {
+            var manifest = new GenerationManifest(e.getKey().outputFolder(), e.getKey().scope());
+            e.getValue().forEach(manifest::remove);
+            manifest.saveUpdates();
+        }
+        deleted.forEach(owners::remove);
+        if (affected.isEmpty()) return;
+        LOGGER.info("Regenerating {0}", affected);
+        var targets =
+                groupByTarget(affected, owners).entrySet().stream()
+                        .map(e -> e.getKey().withRosFiles(e.getValue()))
+                        .toList();
+        // MD5 sums and type hashes of the ROS files which embed changed ones change too, so
+        // they are calculated again
+        generate(
+                rosmsg,
+                new Ros1Md5Calculator(rosmsg),
+                new Ros2TypeHashCalculator(rosmsg),
+                generation,
+                targets,
+                new GenerationStats(),
+                true);
+    }
+
+    private static Map<Target, List<RosFile>> groupByTarget(
+            Collection<RosFile> rosFiles, Map<RosFile, Target> owners) {
+        return rosFiles.stream()
+                .collect(
+                        Collectors.groupingBy(
+                                owners::get, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private GeneratedSourceSink createSourceSink(Path outputFolder) {
+        if (compileClasspath.isPresent()) {
+            Preconditions.isTrue(
+                    outputFolder.getFileName().toString().endsWith(".jar"),
+                    "Compiled classes can be written only into the jar: %s",
+                    outputFolder);
+            LOGGER.info("Compiling all classes into the jar");
+            return new CompilingSourceSink(outputFolder, outputFolder, compileClasspath.get());
+        }
+        // files which are not recorded in the manifest (ex. left by the runs before the manifest
+        // was used) are replaced, otherwise they would never be regenerated
+        if (!ZipSourceSink.isArchive(outputFolder)) return new DirectorySourceSink(true);
+        LOGGER.info("Writing all classes into the archive");
+        return new ZipSourceSink(outputFolder, outputFolder);
+    }
+
+    private void reportStats(GenerationStats stats, Path outputFolder) throws Exception {
+        out.print(stats.formatText(STATS_SLOWEST_COUNT));
+        if (statsFormat.get() != StatsFormat.json) return;
+        // when output is not a folder (ex. archive) stats are saved next to it
+        var statsFile =
+                Files.isDirectory(outputFolder)
+                        ? outputFolder.resolve(STATS_FILE_NAME)
+                        : outputFolder.resolveSibling(outputFolder.getFileName() + STATS_FILE_NAME);
+        Files.writeString(statsFile, stats.formatJson(STATS_SLOWEST_COUNT));
+        LOGGER.info("Stats saved to {0}", statsFile);
+    }
+
+    /**
+     * @param isPartial when true only some of the ROS files of the targets are given. They are
+     *     regenerated even if their definitions did not change (ex. when ROS files they embed
+     *     changed) and entries of all other ROS files are kept in the manifest.
+     */
+    private void generate(
+            RosMsgCommand rosmsg,
+            Ros1Md5Calculator md5Calculator,
+            Ros2TypeHashCalculator typeHashCalculator,
+            List<Target> targets,
+            Map<String, String> javaPackages,
+            GeneratedSourceSink sink,
+            GenerationStats stats,
+            boolean isPartial)
+            throws InterruptedException {
+        var templatesVersion = new GeneratorUtils().calcTemplatesVersion();
+        var inputHashCalculator = new InputHashCalculator(rosmsg);
+        var manifests = new ArrayList<GenerationManifest>();
+        var executor = Executors.newFixedThreadPool(threads);
+        var isCompleted = false;
+        try {
+            var tasks = new ArrayList<Future<?>>();
+            for (var target : targets) {
+                // sources of the previous runs are not available to non incremental sinks so
+                // everything is generated again
+                var manifest = Optional.<GenerationManifest>empty();
+                if (sink.isIncremental()) {
+                    target.outputFolder().toFile().mkdirs();
+                    manifest =
+                            Optional.of(
+                                    new GenerationManifest(target.outputFolder(), target.scope()));
+                    manifests.add(manifest.get());
+                }
+                var options = new ArrayList<String>();
+                options.add(rosmsg.getRosVersion().toString());
+                options.add(target.packageName().toString());
+                options.add(templatesVersion);
+                // imports of the generated classes depend on which ROS packages are generated
+                if (!javaPackages.isEmpty()) options.add(String.join(",", javaPackages.keySet()));
+                if (generateCodecs) options.add("codecs");
+                if (generateViews) options.add("views");
+                if (generateReuse) options.add("reuse");
+                if (generateArrayBuffers) options.add("arrayBuffers");
+                if (generateNativeStrings) options.add("nativeStrings");
+                var generator =
+                        createGenerator(
+                                rosmsg,
+                                md5Calculator,
+                                typeHashCalculator,
+                                javaPackages,
+                                target,
+                                sink,
+                                manifest,
+                                inputHashCalculator,
+                                String.join(" ", options),
+                                isPartial);
+                target.rosFiles().stream()
+                        .map(
+                                rosFile ->
+                                        executor.submit(
+                                                () ->
+                                                        stats.track(
+                                                                rosFile.name().toString(),
+                                                                () -> generator.accept(rosFile))))
+                        .forEach(tasks::add);
+            }
+            for (var task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    throw new XRE("Error generating ROS files", e.getCause());
+                }
+            }
+            isCompleted = true;
+        } finally {
+            if (isCompleted) executor.shutdown();
+            else {
+                // sink is closed once generation is over so none of the remaining tasks should
+                // write into it
+                executor.shutdownNow();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (isPartial) manifests.forEach(GenerationManifest::saveUpdates);
+        else manifests.forEach(GenerationManifest::save);
+    }
+
+    private Consumer<RosFile> createGenerator(
+            RosMsgCommand rosmsg,
+            Ros1Md5Calculator md5Calculator,
+            Ros2TypeHashCalculator typeHashCalculator,
+            Map<String, String> javaPackages,
+            Target target,
+            GeneratedSourceSink sink,
+            Optional<GenerationManifest> manifest,
+            InputHashCalculator inputHashCalculator,
+            String options,
+            boolean isPartial) {
+        var outputFolder = target.outputFolder();
+        var packageName = target.packageName();
+        var messageGenerator =
+                new JRosMessageGenerator(
+                        rosmsg, md5Calculator, typeHashCalculator, outputFolder, packageName);
+        var serviceGenerator =
+                new JRosServiceGenerator(
+                        rosmsg, md5Calculator, typeHashCalculator, outputFolder, packageName);
+        var actionGenerator =
+                new JRosActionGenerator(
+                        rosmsg, md5Calculator, typeHashCalculator, outputFolder, packageName);
+        messageGenerator.setJavaPackages(javaPackages);
+        serviceGenerator.setJavaPackages(javaPackages);
+        actionGenerator.setJavaPackages(javaPackages);
+        messageGenerator.setSourceSink(sink);
+        serviceGenerator.setSourceSink(sink);
+        actionGenerator.setSourceSink(sink);
+        messageGenerator.setGenerateCodecs(generateCodecs);
+        serviceGenerator.setGenerateCodecs(generateCodecs);
+        actionGenerator.setGenerateCodecs(generateCodecs);
+        messageGenerator.setGenerateViews(generateViews);
+        serviceGenerator.setGenerateViews(generateViews);
+        actionGenerator.setGenerateViews(generateViews);
+        messageGenerator.setGenerateReuse(generateReuse);
+        serviceGenerator.setGenerateReuse(generateReuse);
+        actionGenerator.setGenerateReuse(generateReuse);
+        messageGenerator.setGenerateArrayBuffers(generateArrayBuffers);
+        serviceGenerator.setGenerateArrayBuffers(generateArrayBuffers);
+        actionGenerator.setGenerateArrayBuffers(generateArrayBuffers);
+        messageGenerator.setGenerateNativeStrings(generateNativeStrings);
+        serviceGenerator.setGenerateNativeStrings(generateNativeStrings);
+        actionGenerator.setGenerateNativeStrings(generateNativeStrings);
+        return rosFile -> {
+            LOGGER.info("Processing file {0}", rosFile);
+            if (isExcluded(rosFile)) {
+                LOGGER.info("File marked as excluded, ignoring...");
+                return;
+            }
+            var inputHash =
+                    manifest.isPresent()
+                            ? inputHashCalculator.calcInputHash(rosFile, options)
+                            : Optional.<String>empty();
+            // in partial runs sources of the previous run are replaced by the sink
+            if (!isPartial) {
+                if (inputHash.isPresent() && manifest.get().isUpToDate(rosFile, inputHash.get())) {
+                    LOGGER.info("File is up to date, ignoring...");
+                    return;
+                }
+                manifest.ifPresent(m -> m.deleteOutputs(rosFile));
+            }
+            var files =
                     switch (rosFile.type()) {
                         case MESSAGE -> messageGenerator.generateJavaClass(rosFile);
                         case SERVICE -> serviceGenerator.generateJavaClass(rosFile);
                         case ACTION -> actionGenerator.generateJavaClass(rosFile);
-                        default -> LOGGER.warning("ROS file type not supported: {0}", rosFile);
+                    };
+            if (inputHash.isPresent() && !files.isEmpty())
+                manifest.get().update(rosFile, inputHash.get(), files);
+        };
+    }
+
+    /**
+     * Configure the app with the options from the command line
+     *
+     * @return positional arguments
+     */
+    static List<String> parseArgs(MsgmonsterApp app, String[] args)
+            throws ArgumentParsingException {
+        Map<String, Consumer<String>> handlers =
+                Map.of(
+                        "-exclude",
+                        val -> {
+                            app.setExcludePatterns(
+                                    Arrays.stream(val.split(",")).map(Pattern::compile).toList());
+                        },
+                        "-threads",
+                        val -> app.setThreads(Integer.parseInt(val)),
+                        "-helperCommand",
+                        val -> {
+                            var helperCommand = Arrays.asList(val.split(" "));
+                            app.setRosCommandFactory(
+                                    rosVersion ->
+                                            new HelperProcessRosMsgCommand(
+                                                    rosVersion, helperCommand));
+                        },
+                        "-cache",
+                        val -> app.setCacheFolder(Paths.get(val)),
+                        "-cacheSize",
+                        val -> app.setCacheSize(Long.parseLong(val) * 1024 * 1024),
+                        "-compile",
+                        val -> app.setCompileClasspath(val),
+                        "-stats",
+                        val -> app.setStatsFormat(StatsFormat.valueOf(val)),
+                        "-daemon",
+                        val -> app.daemonSocket = Optional.of(Paths.get(val)),
+                        "-rosPath",
+                        val -> {
+                            var rosPaths = FileSystemRosMsgCommand.parseRosPaths(val);
+                            app.setRosCommandFactory(
+                                    rosVersion ->
+                                            new FileSystemRosMsgCommand(rosVersion, rosPaths));
+                        });
+        var positionalArgs = new ArrayList<String>();
+        Function<String, Boolean> defaultHandler =
+                arg -> {
+                    switch (arg) {
+                        case "-d":
+                            {
+                                XLogger.load("logging-debug-msgmonster.properties");
+                                return true;
+                            }
+                        case "-helper":
+                            {
+                                app.setRosCommandFactory(HelperProcessRosMsgCommand::new);
+                                return true;
+                            }
+                        case "-workspace":
+                            {
+                                app.setWorkspace(true);
+                                return true;
+                            }
+                        case "-reachableOnly":
+                            {
+                                app.setReachableOnly(true);
+                                return true;
+                            }
+                        case "-watch":
+                            {
+                                app.setWatch(true);
+                                return true;
+                            }
+                        case "-codecs":
+                            {
+                                app.setGenerateCodecs(true);
+                                return true;
+                            }
+                        case "-views":
+                            {
+                                app.setGenerateViews(true);
+                                return true;
+                            }
+                        case "-reuse":
+                            {
+                                app.setGenerateReuse(true);
+                                return true;
+                            }
+                        case "-arrayBuffers":
+                            {
+                                app.setGenerateArrayBuffers(true);
+                                return true;
+                            }
+                        case "-nativeStrings":
+                            {
+                                app.setGenerateNativeStrings(true);
+                                return true;
+                            }
+                        case "-fs":
+                            {
+                                app.setRosCommandFactory(FileSystemRosMsgCommand::fromEnvironment);
+                                return true;
+                            }
+                        default:
+                            {
+                                positionalArgs.add(arg);
+                                return true;
+                            }
                     }
-                });
+                };
+        new SmartArgs(handlers, defaultHandler).parse(args);
+        if (app.generateArrayBuffers && !app.generateCodecs)
+            throw new ArgumentParsingException("-arrayBuffers requires -codecs");
+        return positionalArgs;
     }
 
     public static void main(String[] args) throws Exception {
+        XLogger.load("logging-msgmonster.properties");
+        var app = new MsgmonsterApp();
         try {
-            XLogger.load("logging-msgmonster.properties");
-            var app = new MsgmonsterApp();
-            Map<String, Consumer<String>> handlers =
-                    Map.of(
-                            "-exclude",
-                            val -> {
-                                app.setExcludePatterns(
-                                        Arrays.stream(val.split(","))
-                                                .map(Pattern::compile)
-                                                .toList());
-                            });
-            var positionalArgs = new ArrayList<String>();
-            Function<String, Boolean> defaultHandler =
-                    arg -> {
-                        switch (arg) {
-                            case "-d":
-                                {
-                                    XLogger.load("logging-debug-msgmonster.properties");
-                                    return true;
-                                }
-                            default:
-                                {
-                                    positionalArgs.add(arg);
-                                    return true;
-                                }
-                        }
-                    };
-            new SmartArgs(handlers, defaultHandler).parse(args);
-            app.run(positionalArgs);
+            var positionalArgs = parseArgs(app, args);
+            if (app.daemonSocket.isEmpty()) {
+                app.run(positionalArgs);
+                return;
+            }
+            try (var daemon = new MsgmonsterDaemon(app.daemonSocket.get(), MsgmonsterApp::new)) {
+                Runtime.getRuntime().addShutdownHook(new Thread(daemon::close));
+                daemon.run();
+            }
         } catch (ArgumentParsingException e) {
-            usage();
+            app.usage();
         }
     }
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.app;
+
+import id.xfunction.Preconditions;
+import id.xfunction.cli.ArgumentParsingException;
+import id.xfunction.lang.XRE;
+import id.xfunction.logging.XLogger;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import pinorobotics.msgmonster.generator.Ros1Md5Calculator;
+import pinorobotics.msgmonster.generator.Ros2TypeHashCalculator;
+import pinorobotics.msgmonster.ros.MeasuredRosMsgCommand;
+import pinorobotics.msgmonster.ros.MemoizingRosMsgCommand;
+import pinorobotics.msgmonster.ros.RosMsgCommand;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Long running msgmonster process which accepts generation requests over the Unix domain socket.
+ *
+ * <p>Request consists of the same arguments which msgmonster accepts on the command line, one
+ * argument per line, followed by an empty line. Daemon replies with the output of the generation
+ * (ex. "-stats" report) and the status line: {@link #OK} or {@link #ERROR} followed by the error
+ * message. After that connection is closed. Requests are processed one at a time in the order they
+ * arrive.
+ *
+ * <p>JVM stays warm between the requests: classes are loaded, code is compiled and templates are
+ * ready. ROS commands are kept open and their results are kept in memory (see {@link
+ * MemoizingRosMsgCommand}) together with MD5 sums and type hashes of the nested messages, so
+ * definitions are not read and parsed again. They are dropped once any ROS interface definition
+ * file of their ROS package changes.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MsgmonsterDaemon implements AutoCloseable {
+    private static final XLogger LOGGER = XLogger.getLogger(MsgmonsterDaemon.class);
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR: ";
+
+    /** Options which define how ROS commands are created */
+    private static final Set<String> ROS_COMMAND_FLAGS = Set.of("-fs", "-helper");
+
+    private static final Set<String> ROS_COMMAND_OPTIONS =
+            Set.of("-rosPath", "-helperCommand", "-cache", "-cacheSize");
+
+    private Path socketFile;
+    private Supplier<MsgmonsterApp> appFactory;
+    private ServerSocketChannel server;
+    private Map<String, WarmRosMsgCommand> rosCommands = new HashMap<>();
+
+    /** ROS command which is shared by all requests with the same ROS command options */
+    private static class WarmRosMsgCommand {
+        private MemoizingRosMsgCommand memoizingRosmsg;
+        private RosMsgCommand rosmsg;
+        private Ros1Md5Calculator md5Calculator;
+        private Ros2TypeHashCalculator typeHashCalculator;
+
+        WarmRosMsgCommand(MemoizingRosMsgCommand memoizingRosmsg) {
+            this.memoizingRosmsg = memoizingRosmsg;
+            rosmsg = new MeasuredRosMsgCommand(memoizingRosmsg);
+            resetCalculators();
+        }
+
+        void revalidate() {
+            // MD5 sums and type hashes may depend on the definitions which changed
+            if (memoizingRosmsg.revalidate()) resetCalculators();
+        }
+
+        private void resetCalculators() {
+            md5Calculator = new Ros1Md5Calculator(rosmsg);
+            typeHashCalculator = new Ros2TypeHashCalculator(rosmsg);
+        }
+    }
+
+    /**
+     * Bind daemon to the given socket file
+     *
+     * @param appFactory creates app for each of the requests, which is then configured with the
+     *     options of the request
+     */
+    public MsgmonsterDaemon(Path socketFile, Supplier<MsgmonsterApp> appFactory)
+            throws IOException {
+        this.socketFile = socketFile;
+        this.appFactory = appFactory;
+        var address = UnixDomainSocketAddress.of(socketFile);
+        if (Files.exists(socketFile)) {
+            if (isDaemonRunning(address))
+                throw new XRE("Daemon is already running on %s", socketFile);
+            LOGGER.info("Removing socket file of the previous daemon {0}", socketFile);
+            Files.delete(socketFile);
+        }
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(address);
+        LOGGER.info("Listening on {0}", socketFile);
+    }
+
+    /** Socket file left by a daemon which did not exit cleanly refuses connections */
+    private static boolean isDaemonRunning(UnixDomainSocketAddress address) {
+        try {
+            SocketChannel.open(address).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Process requests until the daemon is closed */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                try (var channel = server.accept()) {
+                    handle(channel);
+                }
+            }
+        } catch (ClosedChannelException e) {
+            LOGGER.info("Daemon is stopped");
+        } finally {
+            rosCommands.values().forEach(rosCommand -> rosCommand.memoizingRosmsg.close());
+            rosCommands.clear();
+        }
+    }
+
+    private void handle(SocketChannel channel) throws IOException {
+        var reader =
+                new BufferedReader(
+                        new InputStreamReader(
+                                Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        var args = new ArrayList<String>();
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) args.add(line);
+        LOGGER.info("Request {0}", args);
+        var out = new PrintStream(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8);
+        try {
+            generate(args, out);
+            out.println(OK);
+        } catch (Exception e) {
+            LOGGER.severe("Request failed", e);
+            out.println(ERROR + e.getMessage());
+        }
+    }
+
+    private void generate(List<String> args, PrintStream out) throws Exception {
+        var app = appFactory.get();
+        app.setOutput(out);
+        List<String> positionalArgs;
+        try {
+            positionalArgs = MsgmonsterApp.parseArgs(app, args.toArray(String[]::new));
+        } catch (ArgumentParsingException e) {
+            app.usage();
+            throw e;
+        }
+        Preconditions.isTrue(
+                app.getDaemonSocket().isEmpty(), "Daemon cannot be started by the request");
+        // requests are processed one at a time and watch would block all of them
+        Preconditions.isTrue(!app.isWatch(), "Watch mode is not supported by the daemon");
+        if (positionalArgs.size() < 4) {
+            app.usage();
+            return;
+        }
+        var rosVersion = RosVersion.valueOf(positionalArgs.get(0));
+        var rosCommand =
+                rosCommands.computeIfAbsent(
+                        rosVersion + " " + rosCommandOptions(args),
+                        key -> new WarmRosMsgCommand(app.createMemoizingRosMsgCommand(rosVersion)));
+        rosCommand.revalidate();
+        app.run(
+                rosCommand.rosmsg,
+                rosCommand.md5Calculator,
+                rosCommand.typeHashCalculator,
+                positionalArgs);
+    }
+
+    /** Options of the request which define how ROS command is created */
+    private String rosCommandOptions(List<String> args) {
+        var options = new ArrayList<String>();
+        for (int i = 0; i < args.size(); i++) {
+            var arg = args.get(i);
+            if (ROS_COMMAND_FLAGS.contains(arg)) options.add(arg);
+            else if (ROS_COMMAND_OPTIONS.contains(arg) && i + 1 < args.size()) {
+                options.add(arg);
+                options.add(args.get(++i));
+            }
+        }
+        return String.join(" ", options);
+    }
+
+    /** Stop accepting requests and remove the socket file */
+    @Override
+    public void close() {
+        try {
+            server.close();
+            Files.deleteIfExists(socketFile);
+        } catch (IOException e) {
+            LOGGER.warning("Could not close the daemon: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Send request to the daemon and pass all lines of its output to the consumer
+     *
+     * @return true if generation completed successfully
+     */
+    public static boolean send(Path socketFile, List<String> args, Consumer<String> output)
+            throws IOException {
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(socketFile))) {
+            var writer =
+                    new PrintStream(
+                            Channels.newOutputStream(channel), false, StandardCharsets.UTF_8);
+            for (var arg : args) {
+                Preconditions.isTrue(
+                        !arg.isEmpty() && arg.lines().count() == 1, "Invalid argument: %s", arg);
+                writer.println(arg);
+            }
+            writer.println();
+            writer.flush();
+            var reader =
+                    new BufferedReader(
+                            new InputStreamReader(
+                                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            String status = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (status != null) output.accept(status);
+                status = line;
+            }
+            if (status == null) throw new XRE("Daemon closed connection without reply");
+            if (status.equals(OK)) return true;
+            output.accept(status);
+            return false;
+        }
+    }
+}
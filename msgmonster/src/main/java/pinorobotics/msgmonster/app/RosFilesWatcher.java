@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.app;
+
+import id.xfunction.logging.XLogger;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Watches folders with the ROS interface definition files ("msg", "srv", "action") of the given ROS
+ * packages and reports which ROS files changed.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+class RosFilesWatcher implements AutoCloseable {
+    private static final XLogger LOGGER = XLogger.getLogger(RosFilesWatcher.class);
+    private static final List<String> FOLDERS = List.of("msg", "srv", "action");
+
+    /** Files which are not ROS interface definitions (ex. temporary files of the editors) */
+    private static final Pattern ROS_FILE_NAME = Pattern.compile("[a-zA-Z]\\w*");
+
+    /**
+     * Editors may save the file in several steps (ex. truncate and write), all changes which follow
+     * each other within this interval are reported together
+     */
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private RosVersion rosVersion;
+    private WatchService watchService;
+    private Map<WatchKey, String> packages = new HashMap<>();
+
+    /**
+     * @param changed ROS files which were created or modified
+     * @param deleted ROS files which were deleted
+     */
+    record Changes(Set<RosFile> changed, Set<RosFile> deleted) {}
+
+    /**
+     * @param packageDirs folders of the ROS packages by their names
+     */
+    RosFilesWatcher(RosVersion rosVersion, Map<String, Path> packageDirs) throws IOException {
+        this.rosVersion = rosVersion;
+        watchService = FileSystems.getDefault().newWatchService();
+        for (var e : packageDirs.entrySet()) {
+            var folders = FOLDERS.stream().map(e.getValue()::resolve).filter(Files::isDirectory);
+            for (var folder : folders.toList()) {
+                LOGGER.fine("Watching {0}", folder);
+                packages.put(
+                        folder.register(
+                                watchService,
+                                StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY,
+                                StandardWatchEventKinds.ENTRY_DELETE),
+                        e.getKey());
+            }
+        }
+    }
+
+    /** Wait until any of the ROS files changes */
+    Changes take() throws InterruptedException {
+        // ROS file with its last known location
+        var files = new LinkedHashMap<RosFile, Path>();
+        var key = watchService.take();
+        while (key != null) {
+            var folder = (Path) key.watchable();
+            var packageName = packages.get(key);
+            for (var event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    LOGGER.warning("Some of the changes in {0} were lost", folder);
+                    listFolder(folder)
+                            .forEach(
+                                    file ->
+                                            toRosFile(packageName, file)
+                                                    .ifPresent(f -> files.put(f, file)));
+                    continue;
+                }
+                var file = folder.resolve((Path) event.context());
+                toRosFile(packageName, file).ifPresent(f -> files.put(f, file));
+            }
+            key.reset();
+            key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        var deleted =
+                files.entrySet().stream()
+                        .filter(e -> !Files.exists(e.getValue()))
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+        files.keySet().removeAll(deleted);
+        LOGGER.fine("Changed {0}, deleted {1}", files.keySet(), deleted);
+        return new Changes(files.keySet(), deleted);
+    }
+
+    private List<Path> listFolder(Path folder) {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.toList();
+        } catch (IOException e) {
+            LOGGER.warning("Could not list {0}: {1}", folder, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Optional<RosFile> toRosFile(String packageName, Path file) {
+        var fileName = file.getFileName().toString();
+        var dot = fileName.lastIndexOf('.');
+        if (dot < 0) return Optional.empty();
+        var name = fileName.substring(0, dot);
+        if (!ROS_FILE_NAME.matcher(name).matches()) return Optional.empty();
+        var extension = fileName.substring(dot + 1);
+        var type =
+                switch (extension) {
+                    case "msg" -> RosInterfaceType.MESSAGE;
+                    case "srv" -> RosInterfaceType.SERVICE;
+                    case "action" -> RosInterfaceType.ACTION;
+                    default -> null;
+                };
+        if (type == null) return Optional.empty();
+        // same ROS files as the ones listed by FileSystemRosMsgCommand
+        return switch (rosVersion) {
+            case ros1 ->
+                    switch (type) {
+                        case MESSAGE -> RosFile.create(rosVersion, Paths.get(packageName, name));
+                        case SERVICE ->
+                                Optional.of(new RosFile(Paths.get(packageName, name), type));
+                            // ROS1 action files are available through the messages generated for
+                            // them
+                        case ACTION -> Optional.empty();
+                    };
+            case ros2 -> Optional.of(new RosFile(Paths.get(packageName, extension, name), type));
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import id.xfunction.lang.XRE;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Generates ROS2 codec for the message which uses XCDR1 little-endian encoding (CDR_LE).
+ *
+ * <p>CDR aligns each primitive value to its size (Time, Duration, lengths of strings and sequences
+ * to 4 bytes) relative to the start of the top-level message. Generator tracks the alignment of the
+ * fields while it goes through them, so padding is calculated at generation time and only fields
+ * which follow the fields of variable size (strings, sequences, nested messages) are aligned at
+ * runtime. Fixed size fields which follow each other form a run which has constant size: they are
+ * accessed by their constant offsets from the start of the run and buffer position is updated only
+ * once per run.
+ *
+ * <p>Fields of the nested messages are handled by their own codecs, so they should be generated too
+ * (ex. in workspace mode). Fields of the messages provided by jrosmessages (Header, Time, Duration,
+ * strings) are handled by the codec itself.
+ *
+ * @see <a href="https://www.omg.org/spec/DDS-XTypes/1.3/PDF">XCDR1 encoding</a>
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class CdrCodecGenerator implements CodecGenerator {
+    public static final String CODEC_SUFFIX = "CdrCodec";
+
+    /** Size and alignment of the sequence length and of the string length */
+    private static final int LENGTH_SIZE = 4;
+
+    /** Time and Duration consist of two 32-bit integers */
+    private static final int TIME_SIZE = 8;
+
+    private static final int TIME_ALIGNMENT = 4;
+
+    private CodecUtils codecUtils;
+
+    /**
+     * Value which is written and read at the constant offset from the start of the run
+     *
+     * @param accessor suffix of the ByteBuffer methods or null for the padding
+     * @param value expression of the value or null for the padding
+     */
+    private record Part(int offset, int size, String accessor, String value) {}
+
+    /** Code of the codec methods together with the layout of the fields generated so far */
+    private static class Sections {
+        List<String> size = new ArrayList<>();
+        List<String> write = new ArrayList<>();
+        List<String> read = new ArrayList<>();
+
+        /** Current position relative to the origin modulo this alignment is known */
+        int alignment = 1;
+
+        /** Current position relative to the origin modulo {@link #alignment} */
+        int offset;
+
+        /** Fixed size fields which are not generated yet */
+        List<Part> run = new ArrayList<>();
+
+        int runSize;
+
+        /** Whether runs can be accessed by constant offsets (not allowed inside of the loops) */
+        boolean isAbsolute;
+
+        /** Whether variable with the start of the run is declared */
+        boolean hasRunStart;
+
+        Sections(boolean isAbsolute) {
+            this.isAbsolute = isAbsolute;
+        }
+    }
+
+    /**
+     * @param javaTypeResolver returns full name of the Java class of the field which type is
+     *     defined in other ROS package
+     * @param arrayBuffers whether message classes are generated in array buffers mode (see {@link
+     *     JRosMessageGenerator#setGenerateArrayBuffers(boolean)})
+     * @param nativeStrings whether message classes are generated in native strings mode (see {@link
+     *     JRosMessageGenerator#setGenerateNativeStrings(boolean)})
+     */
+    public CdrCodecGenerator(
+            Function<Field, String> javaTypeResolver, boolean arrayBuffers, boolean nativeStrings) {
+        codecUtils = new CodecUtils(javaTypeResolver, CODEC_SUFFIX, arrayBuffers, nativeStrings);
+    }
+
+    @Override
+    public String getCodecSuffix() {
+        return CODEC_SUFFIX;
+    }
+
+    @Override
+    public String renderJavaClass(
+            MessageDefinition definition, Path packageName, String messageClassName) {
+        var sections = new Sections(true);
+        for (var field : definition.getFields()) generateField(sections, field);
+        closeRun(sections);
+        return codecUtils.renderJavaClass(
+                definition,
+                packageName,
+                messageClassName,
+                "codec_imports",
+                "cdr_codec",
+                Map.of(),
+                Map.of(
+                        "size", sections.size,
+                        "write", sections.write,
+                        "read", sections.read));
+    }
+
+    private void generateField(Sections sections, Field field) {
+        var value = "message." + field.getName();
+        if (!field.hasArrayType()) {
+            generateValue(sections, field, value);
+            return;
+        }
+        var arraySize = field.getArraySize();
+        var javaType = codecUtils.javaType(field);
+        var primitiveType = CodecUtils.PRIMITIVE_TYPES.get(javaType);
+        var isBulk = primitiveType != null && !javaType.equals("boolean");
+        if (arraySize > 0) {
+            // elements of the fixed size arrays follow each other without any prefix
+            if (isBulk) alignTo(sections, primitiveType.size());
+            closeRun(sections);
+            sections.write.add(
+                    "Preconditions.equals(%d, %s.length, \"Invalid size of %s\");"
+                            .formatted(arraySize, value, field.getName()));
+            sections.read.add("{");
+            sections.read.add("    int length = %d;".formatted(arraySize));
+        } else {
+            alignTo(sections, LENGTH_SIZE);
+            closeRun(sections);
+            var length = codecUtils.lengthOf(field, value);
+            if (field.getArrayBound() > 0)
+                sections.write.add(
+                        "Preconditions.isTrue(%s <= %d, \"Invalid size of %s\");"
+                                .formatted(length, field.getArrayBound(), field.getName()));
+            sections.size.add("offset += %d;".formatted(LENGTH_SIZE));
+            sections.write.add("buf.putInt(%s);".formatted(length));
+            sections.read.add("{");
+            sections.read.add("    int length = buf.getInt();");
+            sections.offset = (sections.offset + LENGTH_SIZE) % sections.alignment;
+        }
+        codecUtils.prepareArray(field, value).forEach(s -> sections.read.add("    " + s));
+        if (isBulk) {
+            var length = codecUtils.lengthOf(field, value);
+            if (arraySize == 0) alignElements(sections, length, primitiveType.size());
+            generateBulkTransfer(sections, field, value, primitiveType, arraySize);
+        } else {
+            generateLoop(sections, field, value, javaType);
+        }
+        sections.read.add("}");
+    }
+
+    /**
+     * Elements of the sequences are aligned only when there are any. After the length elements
+     * smaller than 8 bytes are always aligned.
+     */
+    private void alignElements(Sections sections, String length, int elementSize) {
+        if (elementSize <= LENGTH_SIZE) return;
+        if (elementSize <= sections.alignment) {
+            var padding = -sections.offset & (elementSize - 1);
+            if (padding == 0) return;
+            sections.size.add("if (%s > 0) offset += %d;".formatted(length, padding));
+            sections.write.add("if (%s > 0) buf.put(PADDING, 0, %d);".formatted(length, padding));
+            sections.read.add(
+                    "    if (length > 0) buf.position(buf.position() + %d);".formatted(padding));
+            return;
+        }
+        sections.size.add("if (%s > 0) offset = align(offset, %d);".formatted(length, elementSize));
+        sections.write.add("if (%s > 0) pad(buf, origin, %d);".formatted(length, elementSize));
+        sections.read.add(
+                "    if (length > 0) skipPadding(buf, origin, %d);".formatted(elementSize));
+    }
+
+    private void generateBulkTransfer(
+            Sections sections,
+            Field field,
+            String value,
+            CodecUtils.PrimitiveType type,
+            int arraySize) {
+        var length = codecUtils.lengthOf(field, value);
+        if (arraySize > 0) sections.size.add("offset += %d;".formatted(arraySize * type.size()));
+        else if (type.size() == 1) sections.size.add("offset += %s;".formatted(length));
+        else sections.size.add("offset += %s * %d;".formatted(length, type.size()));
+        sections.write.addAll(codecUtils.bulkWrite(field, value));
+        codecUtils.bulkRead(field, value).forEach(s -> sections.read.add("    " + s));
+        if (arraySize > 0) {
+            sections.offset = (sections.offset + arraySize * type.size()) % sections.alignment;
+        } else {
+            // sequence ends either right after its length or after the aligned elements
+            sections.alignment = Math.min(type.size(), LENGTH_SIZE);
+            sections.offset = 0;
+        }
+    }
+
+    private void generateLoop(Sections sections, Field field, String value, String javaType) {
+        var item = value + "[i]";
+        var loop = "for (int i = 0; i < %s.length; i++) {".formatted(value);
+        // alignment of the elements is not known at generation time
+        var elements = new Sections(false);
+        generateValue(elements, field, item);
+        closeRun(elements);
+        if (javaType.equals("boolean")) {
+            sections.size.add(
+                    field.getArraySize() > 0
+                            ? "offset += %d;".formatted(field.getArraySize())
+                            : "offset += %s.length;".formatted(value));
+        } else {
+            sections.size.add(loop);
+            elements.size.forEach(s -> sections.size.add("    " + s));
+            sections.size.add("}");
+        }
+        sections.write.add(loop);
+        elements.write.forEach(s -> sections.write.add("    " + s));
+        sections.write.add("}");
+        sections.read.add("    for (int i = 0; i < length; i++) {");
+        if (codecUtils.isMutable(field))
+            sections.read.add(
+                    "        if (%s == null) %s = new %s();".formatted(item, item, javaType));
+        elements.read.forEach(s -> sections.read.add("        " + s));
+        sections.read.add("    }");
+        sections.alignment = 1;
+        sections.offset = 0;
+    }
+
+    private void generateValue(Sections sections, Field field, String value) {
+        switch (codecUtils.kind(field)) {
+            case PRIMITIVE -> {
+                var type = CodecUtils.PRIMITIVE_TYPES.get(field.getJavaType());
+                var accessor = field.getJavaType().equals("boolean") ? "Boolean" : type.accessor();
+                addFixed(
+                        sections,
+                        type.size(),
+                        type.size(),
+                        List.of(new Part(0, type.size(), accessor, value)));
+            }
+            case TIME -> generateTime(sections, value);
+            case HEADER -> {
+                generateTime(sections, value + ".stamp");
+                generateString(sections, value + ".frame_id.data");
+            }
+            case STRING -> {
+                // wide strings have different encoding
+                if (field.getType().startsWith("wstring"))
+                    throw new XRE("Type %s is not supported by the codec", field.getType());
+                generateString(sections, codecUtils.textOf(field, value));
+            }
+            case MESSAGE -> {
+                closeRun(sections);
+                var codec = codecUtils.codecClassName(field);
+                sections.size.add("offset = %s.size(%s, offset);".formatted(codec, value));
+                sections.write.add("%s.write(%s, buf, origin);".formatted(codec, value));
+                sections.read.add("%s.read(buf, origin, %s);".formatted(codec, value));
+                sections.alignment = 1;
+                sections.offset = 0;
+            }
+        }
+    }
+
+    private void generateTime(Sections sections, String value) {
+        addFixed(
+                sections,
+                TIME_ALIGNMENT,
+                TIME_SIZE,
+                List.of(
+                        new Part(0, 4, "Int", value + ".sec"),
+                        new Part(4, 4, "Int", value + ".nanosec")));
+    }
+
+    private void generateString(Sections sections, String value) {
+        alignTo(sections, LENGTH_SIZE);
+        closeRun(sections);
+        sections.size.add("offset += sizeOf(%s);".formatted(value));
+        sections.write.add("writeString(buf, %s);".formatted(value));
+        sections.read.add("%s = readString(buf);".formatted(value));
+        sections.alignment = 1;
+        sections.offset = 0;
+    }
+
+    /** Add fixed size value to the current run */
+    private void addFixed(Sections sections, int alignment, int size, List<Part> parts) {
+        alignTo(sections, alignment);
+        for (var part : parts)
+            sections.run.add(
+                    new Part(
+                            sections.runSize + part.offset(),
+                            part.size(),
+                            part.accessor(),
+                            part.value()));
+        sections.runSize += size;
+        sections.offset = (sections.offset + size) % sections.alignment;
+    }
+
+    /**
+     * Align current position. When current alignment is known the padding is added to the current
+     * run, otherwise it is calculated at runtime.
+     */
+    private void alignTo(Sections sections, int alignment) {
+        if (alignment <= sections.alignment) {
+            var padding = -sections.offset & (alignment - 1);
+            if (padding == 0) return;
+            sections.run.add(new Part(sections.runSize, padding, null, null));
+            sections.runSize += padding;
+            sections.offset = (sections.offset + padding) % sections.alignment;
+            return;
+        }
+        closeRun(sections);
+        sections.size.add("offset = align(offset, %d);".formatted(alignment));
+        sections.write.add("pad(buf, origin, %d);".formatted(alignment));
+        sections.read.add("skipPadding(buf, origin, %d);".formatted(alignment));
+        sections.alignment = alignment;
+        sections.offset = 0;
+    }
+
+    /** Generate code of the current run */
+    private void closeRun(Sections sections) {
+        if (sections.run.isEmpty()) return;
+        sections.size.add("offset += %d;".formatted(sections.runSize));
+        if (sections.isAbsolute && sections.run.size() > 1) {
+            var runStart = (sections.hasRunStart ? "" : "int ") + "p = buf.position();";
+            sections.hasRunStart = true;
+            sections.write.add(runStart);
+            sections.read.add(runStart);
+            for (var part : sections.run) {
+                var index = part.offset() == 0 ? "p" : "p + " + part.offset();
+                if (part.value() == null)
+                    sections.write.add(
+                            "buf.put(%s, PADDING, 0, %d);".formatted(index, part.size()));
+                else {
+                    sections.write.add(writePart(part, index + ", "));
+                    sections.read.add(readPart(part, index));
+                }
+            }
+            sections.write.add("buf.position(p + %d);".formatted(sections.runSize));
+            sections.read.add("buf.position(p + %d);".formatted(sections.runSize));
+        } else {
+            for (var part : sections.run) {
+                if (part.value() == null) {
+                    sections.write.add("buf.put(PADDING, 0, %d);".formatted(part.size()));
+                    sections.read.add("buf.position(buf.position() + %d);".formatted(part.size()));
+                } else {
+                    sections.write.add(writePart(part, ""));
+                    sections.read.add(readPart(part, ""));
+                }
+            }
+        }
+        sections.run.clear();
+        sections.runSize = 0;
+    }
+
+    private String writePart(Part part, String index) {
+        if (part.accessor().equals("Boolean"))
+            return "buf.put(%s(byte) (%s ? 1 : 0));".formatted(index, part.value());
+        return "buf.put%s(%s%s);".formatted(part.accessor(), index, part.value());
+    }
+
+    private String readPart(Part part, String index) {
+        if (part.accessor().equals("Boolean"))
+            return "%s = buf.get(%s) != 0;".formatted(part.value(), index);
+        return "%s = buf.get%s(%s);".formatted(part.value(), part.accessor(), index);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import java.nio.file.Path;
+
+/**
+ * Generates codec for the message: the class with straight-line code which serializes and
+ * deserializes each of the message fields without reflection or boxing.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public interface CodecGenerator {
+
+    /**
+     * Suffix of the codec class name. It replaces "Message" suffix of the message class name (ex.
+     * "PointMessage" codec is "PointRos1Codec").
+     */
+    String getCodecSuffix();
+
+    /**
+     * @return source code of the codec class
+     */
+    String renderJavaClass(MessageDefinition definition, Path packageName, String messageClassName);
+}
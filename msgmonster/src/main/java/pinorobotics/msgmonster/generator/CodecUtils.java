@@ -0,0 +1,291 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import id.xfunction.lang.XRE;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.ainslec.picocog.PicoWriter;
+
+/**
+ * Functionality shared by the codec generators
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+class CodecUtils {
+
+    /**
+     * @param size size in bytes
+     * @param accessor suffix of the ByteBuffer methods (ex. "Int" for "putInt", "getInt")
+     */
+    record PrimitiveType(int size, String accessor) {}
+
+    /** Representation of Java primitive types in the ByteBuffer */
+    static final Map<String, PrimitiveType> PRIMITIVE_TYPES =
+            Map.of(
+                    "boolean", new PrimitiveType(1, ""),
+                    "byte", new PrimitiveType(1, ""),
+                    "short", new PrimitiveType(2, "Short"),
+                    "int", new PrimitiveType(4, "Int"),
+                    "long", new PrimitiveType(8, "Long"),
+                    "float", new PrimitiveType(4, "Float"),
+                    "double", new PrimitiveType(8, "Double"));
+
+    /**
+     * Java NIO buffers which hold variable size arrays of the primitive types in array buffers mode
+     * (there is no buffer for boolean)
+     */
+    static final Map<String, String> BUFFER_TYPES =
+            Map.of(
+                    "byte", "ByteBuffer",
+                    "short", "ShortBuffer",
+                    "int", "IntBuffer",
+                    "long", "LongBuffer",
+                    "float", "FloatBuffer",
+                    "double", "DoubleBuffer");
+
+    enum Kind {
+        PRIMITIVE,
+        /** Time or Duration */
+        TIME,
+        HEADER,
+        STRING,
+        /** Message which has its own codec */
+        MESSAGE
+    }
+
+    private GeneratorUtils utils = new GeneratorUtils();
+    private Formatter formatter = new Formatter();
+    private Function<Field, String> javaTypeResolver;
+    private String codecSuffix;
+    private boolean arrayBuffers;
+    private boolean nativeStrings;
+
+    /**
+     * @param javaTypeResolver returns full name of the Java class of the field which type is
+     *     defined in other ROS package
+     * @param arrayBuffers whether message classes are generated in array buffers mode
+     * @param nativeStrings whether message classes are generated in native strings mode
+     */
+    CodecUtils(
+            Function<Field, String> javaTypeResolver,
+            String codecSuffix,
+            boolean arrayBuffers,
+            boolean nativeStrings) {
+        this.javaTypeResolver = javaTypeResolver;
+        this.codecSuffix = codecSuffix;
+        this.arrayBuffers = arrayBuffers;
+        this.nativeStrings = nativeStrings;
+    }
+
+    /**
+     * In array buffers mode variable size arrays of the primitive types are held by the buffers.
+     * Content of such array is between 0 and the limit of the buffer, its capacity is kept when the
+     * length of the array changes.
+     *
+     * @return type of the buffer which holds the field or empty when field is a plain Java array or
+     *     not an array at all
+     */
+    static Optional<String> bufferType(Field field, boolean arrayBuffers) {
+        if (!arrayBuffers || !field.hasArrayType() || field.getArraySize() > 0)
+            return Optional.empty();
+        return Optional.ofNullable(BUFFER_TYPES.get(field.getJavaType()));
+    }
+
+    /**
+     * @see #bufferType(Field, boolean)
+     */
+    Optional<String> bufferType(Field field) {
+        return bufferType(field, arrayBuffers);
+    }
+
+    /**
+     * In native strings mode all strings are held by {@link String} fields instead of the
+     * StringMessage
+     */
+    static boolean isNativeString(Field field, boolean nativeStrings) {
+        return nativeStrings && field.hasStringType();
+    }
+
+    /**
+     * @see #isNativeString(Field, boolean)
+     */
+    boolean isNativeString(Field field) {
+        return isNativeString(field, nativeStrings);
+    }
+
+    /**
+     * Expression which accesses the text of the string value
+     *
+     * @param value value of the field which has {@link Kind#STRING} kind
+     */
+    String textOf(Field field, String value) {
+        return isNativeString(field) ? value : value + ".data";
+    }
+
+    /**
+     * Whether values of the field type (or of its element type when field is an array) are updated
+     * in place, otherwise they are immutable and assigned (primitives, native strings)
+     */
+    boolean isMutable(Field field) {
+        return !field.hasPrimitiveType() && !isNativeString(field);
+    }
+
+    /** Expression which returns length of the array field */
+    String lengthOf(Field field, String value) {
+        return bufferType(field).isPresent() ? value + ".limit()" : value + ".length";
+    }
+
+    Kind kind(Field field) {
+        if (field.hasPrimitiveType()) return Kind.PRIMITIVE;
+        if (field.hasBasicType()) return Kind.TIME;
+        if (isNativeString(field)) return Kind.STRING;
+        if (field.hasStdMsgType()) {
+            return switch (field.getJavaType()) {
+                case "HeaderMessage" -> Kind.HEADER;
+                case "StringMessage" -> Kind.STRING;
+                default -> throw new XRE("Type %s is not supported by the codec", field.getType());
+            };
+        }
+        if (field.hasStringType())
+            throw new XRE("Type %s is not supported by the codec", field.getType());
+        return Kind.MESSAGE;
+    }
+
+    /**
+     * Statements of the read method which prepare the array field to receive "length" elements.
+     * Buffers are reallocated only when their capacity is not enough.
+     */
+    List<String> prepareArray(Field field, String value) {
+        var bufferType = bufferType(field);
+        if (bufferType.isEmpty())
+            return List.of(
+                    "if (%s.length != length) %s = new %s[length];"
+                            .formatted(value, value, javaType(field)));
+        return List.of(
+                "if (%s.capacity() < length) %s = java.nio.%s.allocate(length);"
+                        .formatted(value, value, bufferType.get()),
+                "%s.clear().limit(length);".formatted(value));
+    }
+
+    /**
+     * Statements which write all elements of the array of the primitive type (except boolean) in
+     * bulk
+     */
+    List<String> bulkWrite(Field field, String value) {
+        var type = PRIMITIVE_TYPES.get(field.getJavaType());
+        var length = lengthOf(field, value);
+        var isBuffer = bufferType(field).isPresent();
+        if (type.accessor().isEmpty()) {
+            if (!isBuffer) return List.of("buf.put(%s);".formatted(value));
+            // absolute transfer keeps position of the message buffer
+            return List.of(
+                    "buf.put(buf.position(), %s, 0, %s);".formatted(value, length),
+                    "buf.position(buf.position() + %s);".formatted(length));
+        }
+        // bulk transfer through the view buffer which has the same byte order
+        return List.of(
+                isBuffer
+                        ? "buf.as%sBuffer().put(0, %s, 0, %s);"
+                                .formatted(type.accessor(), value, length)
+                        : "buf.as%sBuffer().put(%s);".formatted(type.accessor(), value),
+                "buf.position(buf.position() + %s * %d);".formatted(length, type.size()));
+    }
+
+    /**
+     * Statements which read "length" elements of the array of the primitive type (except boolean)
+     * in bulk
+     */
+    List<String> bulkRead(Field field, String value) {
+        var type = PRIMITIVE_TYPES.get(field.getJavaType());
+        var isBuffer = bufferType(field).isPresent();
+        if (type.accessor().isEmpty()) {
+            if (!isBuffer) return List.of("buf.get(%s);".formatted(value));
+            return List.of(
+                    "%s.put(0, buf, buf.position(), length);".formatted(value),
+                    "buf.position(buf.position() + length);");
+        }
+        return List.of(
+                isBuffer
+                        ? "%s.put(0, buf.as%sBuffer(), 0, length);"
+                                .formatted(value, type.accessor())
+                        : "buf.as%sBuffer().get(%s);".formatted(type.accessor(), value),
+                "buf.position(buf.position() + length * %d);".formatted(type.size()));
+    }
+
+    /** Java type of the field (or of its elements when field is an array) */
+    String javaType(Field field) {
+        if (field.hasPrimitiveType()) return field.getJavaType();
+        if (isNativeString(field)) return "String";
+        if (field.hasBasicType() || field.hasStdMsgType()) return field.getJavaFullType();
+        if (field.hasForeignType()) return javaTypeResolver.apply(field);
+        return field.getJavaType();
+    }
+
+    /** Name of the codec class of the field which type is a message with its own codec */
+    String codecClassName(Field field) {
+        return formatter.formatAsCodecClassName(javaType(field), codecSuffix);
+    }
+
+    /**
+     * Renders codec class from the template
+     *
+     * @param importsTemplateName template with the imports of the codec class
+     * @param sections code of the template placeholders which are put on separate lines
+     */
+    String renderJavaClass(
+            MessageDefinition definition,
+            Path packageName,
+            String messageClassName,
+            String importsTemplateName,
+            String templateName,
+            Map<String, String> values,
+            Map<String, List<String>> sections) {
+        var writer = new PicoWriter();
+        utils.generateHeader(writer, definition.getName());
+        writer.writeln(String.format("package %s;", packageName));
+        writer.writeln();
+        for (var line : utils.getTemplate(importsTemplateName).lines())
+            writer.writeln(line.render(Map.of()));
+        writer.writeln();
+        var allValues = new HashMap<>(values);
+        allValues.put("className", formatter.formatAsCodecClassName(messageClassName, codecSuffix));
+        allValues.put("messageClassName", messageClassName);
+        for (var line : utils.getTemplate(templateName).lines()) {
+            var code =
+                    sections.entrySet().stream()
+                            .filter(e -> line.hasPlaceholder(e.getKey()))
+                            .map(Map.Entry::getValue)
+                            .findFirst();
+            if (code.isEmpty()) {
+                writer.writeln(line.render(allValues));
+                continue;
+            }
+            var ident = line.getIdent();
+            code.get()
+                    .forEach(
+                            statement ->
+                                    writer.writeln(statement.isEmpty() ? "" : ident + statement));
+        }
+        return writer.toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import id.xfunction.logging.XLogger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import pinorobotics.msgmonster.parser.RosDefinition;
+import pinorobotics.msgmonster.parser.RosDefinitionParser;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosMsgCommand;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Resolves the closure of ROS files which are referenced (directly or indirectly) by the fields of
+ * the given root packages or ROS files.
+ *
+ * <p>Types which are provided by jrosmessages (primitives, std_msgs, time, duration) are not part
+ * of the closure.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class DependencyResolver {
+    private static final XLogger LOGGER = XLogger.getLogger(DependencyResolver.class);
+    private RosMsgCommand rosmsg;
+    private MessageDefinitionReader reader;
+    private RosDefinitionParser parser = new RosDefinitionParser();
+
+    public DependencyResolver(RosMsgCommand rosmsg) {
+        this.rosmsg = rosmsg;
+        this.reader = new MessageDefinitionReader(rosmsg);
+    }
+
+    /**
+     * @param roots ROS packages or ROS files
+     * @param reachableOnly when true only ROS files which are reachable from the roots are
+     *     included, otherwise all ROS files of each ROS package which is part of the closure are
+     *     included
+     * @return ROS files of the closure grouped by their ROS package name, each ROS file is included
+     *     only once
+     */
+    public Map<String, List<RosFile>> resolve(List<Path> roots, boolean reachableOnly) {
+        var visited = new HashSet<RosFile>();
+        var visitedPackages = new HashSet<String>();
+        var queue = new ArrayDeque<RosFile>();
+        for (var root : roots) {
+            if (root.getNameCount() == 1) {
+                visitedPackages.add(root.toString());
+                rosmsg.listFiles(root).forEach(queue::add);
+            } else {
+                RosFile.create(rosmsg.getRosVersion(), root).ifPresent(queue::add);
+            }
+        }
+        while (!queue.isEmpty()) {
+            var rosFile = queue.poll();
+            if (!visited.add(rosFile)) continue;
+            var packageName = packageName(rosFile);
+            if (!reachableOnly && visitedPackages.add(packageName)) {
+                LOGGER.fine("Adding package {0}", packageName);
+                rosmsg.listFiles(Paths.get(packageName)).forEach(queue::add);
+            }
+            queue.addAll(findDependencies(rosFile));
+        }
+        return visited.stream()
+                .sorted(Comparator.comparing(rosFile -> rosFile.name().toString()))
+                .collect(
+                        Collectors.groupingBy(
+                                DependencyResolver::packageName,
+                                TreeMap::new,
+                                Collectors.toList()));
+    }
+
+    private static String packageName(RosFile rosFile) {
+        return rosFile.name().getName(0).toString();
+    }
+
+    /** Messages which are referenced by the fields of the given ROS file */
+    public Set<RosFile> findDependencies(RosFile rosFile) {
+        return findDependencies(rosFile, () -> reader.parse(rosFile));
+    }
+
+    /**
+     * Same as {@link #findDependencies(RosFile)} but for the definition lines which were already
+     * read
+     */
+    public Set<RosFile> findDependencies(RosFile rosFile, List<String> lines) {
+        return findDependencies(rosFile, () -> parser.parse(lines));
+    }
+
+    private Set<RosFile> findDependencies(RosFile rosFile, Supplier<RosDefinition> parse) {
+        var dependencies = new HashSet<RosFile>();
+        try {
+            // services and actions consist of several sections and each of them is read as a
+            // separate message
+            var sectionFile = new RosFile(rosFile.name(), RosInterfaceType.MESSAGE);
+            for (var section : parse.get().sections()) {
+                var definition = reader.read(sectionFile, section);
+                for (var field : definition.getFields()) {
+                    if (!isGenerated(field)) continue;
+                    dependencies.add(resolveRosFile(packageName(rosFile), field.getType()));
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warning("Could not resolve dependencies of {0}: {1}", rosFile, e.getMessage());
+        }
+        LOGGER.fine("Dependencies of {0}: {1}", rosFile, dependencies);
+        return dependencies;
+    }
+
+    /** Types of fields which are not available in jrosmessages and need to be generated */
+    private boolean isGenerated(Field field) {
+        if (field.hasPrimitiveType() || field.hasBasicType() || field.hasStdMsgType()) return false;
+        return !field.hasStringType();
+    }
+
+    private RosFile resolveRosFile(String packageName, String type) {
+        var path = Paths.get(type);
+        if (path.getNameCount() == 1) path = Paths.get(packageName).resolve(path);
+        if (rosmsg.getRosVersion() == RosVersion.ros2 && path.getNameCount() == 2)
+            path = path.getName(0).resolve("msg").resolve(path.getName(1));
+        return new RosFile(path, RosInterfaceType.MESSAGE);
+    }
+}
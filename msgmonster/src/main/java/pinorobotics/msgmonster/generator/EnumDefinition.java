@@ -19,6 +19,7 @@ package pinorobotics.msgmonster.generator;
 
 import java.util.ArrayList;
 import java.util.List;
+import pinorobotics.msgmonster.parser.RosType;
 import pinorobotics.msgmonster.ros.RosVersion;
 
 /**
@@ -33,8 +34,10 @@ public class EnumDefinition {
         this.rosVersion = rosVersion;
     }
 
-    public void addField(String type, String name, String value, String comment) {
-        fields.add(new Field(rosVersion, name, type, value, comment));
+    public Field addField(RosType type, String name, String value, String comment) {
+        var field = new Field(rosVersion, name, type, value, true, comment);
+        fields.add(field);
+        return field;
     }
 
     @Override
@@ -19,6 +19,7 @@ package pinorobotics.msgmonster.generator;
 
 import java.util.Map;
 import java.util.Set;
+import pinorobotics.msgmonster.parser.RosType;
 import pinorobotics.msgmonster.ros.RosVersion;
 
 /**
@@ -61,25 +62,33 @@ public class Field {
     private Formatter formatter = new Formatter();
     private String name, type, comment;
     private String value;
-    private int arraySize;
-    private boolean isArray;
+    private boolean constant;
+    private RosType rosType;
 
     private RosVersion rosVersion;
 
     public Field(RosVersion rosVersion, String name, String rosType, String value, String comment) {
+        this(rosVersion, name, RosType.parse(rosType), value, !value.isEmpty(), comment);
+    }
+
+    /**
+     * @param constant true for constants and false for fields, including the ones with default
+     *     value (ROS2)
+     */
+    public Field(
+            RosVersion rosVersion,
+            String name,
+            RosType rosType,
+            String value,
+            boolean constant,
+            String comment) {
         this.rosVersion = rosVersion;
         this.name = name;
-        this.type = rosType.replaceAll("(.*)\\[\\d*\\]", "$1");
+        this.type = rosType.name();
+        this.rosType = rosType;
         this.value = value;
+        this.constant = constant;
         this.comment = comment;
-        isArray = rosType.contains("[");
-        if (isArray) arraySize = readArraySize(rosType);
-    }
-
-    private int readArraySize(String rosType) {
-        var sizeStr = rosType.replaceAll(".*\\[(\\d*)\\]", "$1").replaceAll("\\s*", "");
-        if (sizeStr.isBlank()) return 0;
-        return Integer.parseInt(sizeStr);
     }
 
     public String getName() {
@@ -90,27 +99,43 @@ public class Field {
         return type;
     }
 
+    /** ROS type including array specification (ex. "float64[36]", "string[]") */
+    public String getRosType() {
+        return rosType.toString();
+    }
+
     public String getComment() {
         return comment;
     }
 
+    /** Value of the constant or default value of the field (ROS2), empty string otherwise */
     public String getValue() {
         return value;
     }
 
+    /** Constant (ex. "int32 X=1") as opposed to the field with default value (ex. "int32 x 1") */
+    public boolean isConstant() {
+        return constant;
+    }
+
     @Override
     public String toString() {
         return String.format("%s <%s> [%s] {%s}\n", name, type, value, comment);
     }
 
     public boolean hasArrayType() {
-        return isArray;
+        return rosType.isArray();
     }
 
     public boolean hasPrimitiveType() {
         return PRIMITIVES_TYPE_MAP.containsKey(type);
     }
 
+    /** String of any kind (ex. "string", "wstring", "string<=10") */
+    public boolean hasStringType() {
+        return rosType.isString();
+    }
+
     public boolean hasBasicType() {
         return BASIC_TYPE_MAP.containsKey(type);
     }
@@ -149,7 +174,13 @@ public class Field {
         return STDMSG_TYPE_MAP.containsKey(type);
     }
 
+    /** Size of the fixed size array, 0 for arrays which size is not fixed */
     public int getArraySize() {
-        return arraySize;
+        return rosType.arrayKind() == RosType.ArrayKind.FIXED ? rosType.arraySize() : 0;
+    }
+
+    /** Maximum size of the bounded array (ex. "int32[<=5]"), 0 for all other arrays */
+    public int getArrayBound() {
+        return rosType.arrayKind() == RosType.ArrayKind.BOUNDED ? rosType.arraySize() : 0;
     }
 }
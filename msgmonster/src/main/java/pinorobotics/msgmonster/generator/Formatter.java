@@ -64,6 +64,15 @@ public class Formatter {
         return camelCase(fieldType) + "Message";
     }
 
+    /**
+     * Formats Java class name of the message to the name of its codec class.
+     *
+     * <p>For example: "GoalStatusMessage" to "GoalStatusRos1Codec"
+     */
+    public String formatAsCodecClassName(String messageClassName, String codecSuffix) {
+        return messageClassName.replaceAll("Message$", "") + codecSuffix;
+    }
+
     public String formatAsMethodName(String fieldType) {
         return camelCase(fieldType);
     }
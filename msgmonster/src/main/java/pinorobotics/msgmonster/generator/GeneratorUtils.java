@@ -18,32 +18,114 @@
 package pinorobotics.msgmonster.generator;
 
 import id.xfunction.ResourceUtils;
-import id.xfunction.text.Substitutor;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import org.ainslec.picocog.PicoWriter;
+import pinorobotics.msgmonster.jfr.RenderClassEvent;
+import pinorobotics.msgmonster.jfr.WriteFileEvent;
+import pinorobotics.msgmonster.output.GeneratedSourceSink;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.utils.GenerationStats;
+import pinorobotics.msgmonster.utils.GenerationStats.Phase;
+import pinorobotics.msgmonster.utils.MsgMonsterUtils;
 
 public class GeneratorUtils {
     private static final ResourceUtils resourceUtils = new ResourceUtils();
-    private Substitutor substitutor = new Substitutor();
+
+    /** All templates which are used to generate Java classes */
+    private static final List<String> TEMPLATES =
+            List.of(
+                    "action2_get_result_request",
+                    "action2_goal",
+                    "action2_result",
+                    "action_definition",
+                    "action_imports",
+                    "buffer_to_array",
+                    "cdr_codec",
+                    "class_field",
+                    "class_field_array",
+                    "class_field_array_buffer",
+                    "class_field_fixed_size_array",
+                    "class_field_fixed_size_message_array",
+                    "class_field_fixed_size_string_array",
+                    "class_field_primitive",
+                    "class_field_string",
+                    "class_fields_header",
+                    "class_message_metadata",
+                    "class_type_hash",
+                    "codec_imports",
+                    "constant_int_field",
+                    "copy_from",
+                    "enum_field",
+                    "equals",
+                    "hash_code",
+                    "header",
+                    "imports",
+                    "message_pool",
+                    "message_view",
+                    "pool_imports",
+                    "reset",
+                    "ros1_codec",
+                    "service_definition",
+                    "service_imports",
+                    "toString",
+                    "view_imports",
+                    "with_method",
+                    "with_method_for_array_buffer",
+                    "with_method_for_fixed_size_array");
+
+    /** Templates are loaded and compiled only once */
+    private static final Map<String, Template> COMPILED_TEMPLATES = new ConcurrentHashMap<>();
 
     public void generateHeader(PicoWriter writer, String msgName) {
-        var header = readResource("header");
-        Map<String, String> substitution = new HashMap<>();
-        substitution.put("${msgName}", msgName);
-        header = substitutor.substitute(header, substitution);
-        writer.write(header);
+        writer.write(getTemplate("header").render(name -> name.equals("msgName") ? msgName : null));
+    }
+
+    public Template getTemplate(String templateName) {
+        return COMPILED_TEMPLATES.computeIfAbsent(
+                templateName, name -> Template.compile(readResource(name)));
     }
 
     public String readResource(String resourceName) {
         return resourceUtils.readResource(resourceName);
     }
 
-    public Stream<String> readResourceAsStream(String resourceName) {
-        return resourceUtils.readResourceAsStream(resourceName);
+    /**
+     * Render Java class for the ROS file
+     *
+     * @param className name of the Java class which is rendered
+     * @param renderer returns source code of the Java class
+     */
+    public String renderJavaClass(RosFile rosFile, String className, Supplier<String> renderer) {
+        var event = new RenderClassEvent();
+        event.begin();
+        var classOutput = GenerationStats.measure(Phase.RENDER, renderer);
+        event.end();
+        if (event.shouldCommit()) {
+            event.interfaceName = rosFile.name().toString();
+            event.className = className;
+            event.bytes = classOutput.length();
+            event.commit();
+        }
+        return classOutput;
+    }
+
+    /** Write generated class into the new source of the sink */
+    public void writeJavaFile(GeneratedSourceSink sink, Path outFile, String content) {
+        var event = new WriteFileEvent();
+        event.begin();
+        GenerationStats.measure(Phase.WRITE, () -> sink.write(outFile, content));
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = outFile.toString();
+            event.bytes = content.getBytes(StandardCharsets.UTF_8).length;
+            event.commit();
+        }
     }
 
     public void generateJavadocComment(PicoWriter writer, String comment) {
@@ -55,10 +137,14 @@ public class GeneratorUtils {
         writer.writeln(" */");
     }
 
-    public void removeLeadingBlankLines(ArrayList<String> lines) {
-        while (!lines.isEmpty()) {
-            if (!lines.get(0).isEmpty()) break;
-            lines.remove(0);
-        }
+    /**
+     * Version of the generated code. It changes when any of the templates or version of msgmonster
+     * changes.
+     */
+    public String calcTemplatesVersion() {
+        var buf = new StringBuilder();
+        buf.append(GeneratorUtils.class.getPackage().getImplementationVersion());
+        TEMPLATES.forEach(name -> buf.append(readResource(name)));
+        return MsgMonsterUtils.sha256(buf.toString());
     }
 }
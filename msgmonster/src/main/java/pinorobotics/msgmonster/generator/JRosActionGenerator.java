@@ -18,17 +18,14 @@
 package pinorobotics.msgmonster.generator;
 
 import id.xfunction.logging.XLogger;
-import id.xfunction.text.Substitutor;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 import org.ainslec.picocog.PicoWriter;
-import pinorobotics.msgmonster.ros.InMemoryRosMsgCommand;
+import pinorobotics.msgmonster.output.DirectorySourceSink;
+import pinorobotics.msgmonster.output.GeneratedSourceSink;
 import pinorobotics.msgmonster.ros.RosFile;
 import pinorobotics.msgmonster.ros.RosInterfaceType;
 import pinorobotics.msgmonster.ros.RosMsgCommand;
@@ -46,37 +43,124 @@ import pinorobotics.msgmonster.ros.RosVersion;
 public class JRosActionGenerator {
     private static final XLogger LOGGER = XLogger.getLogger(JRosMessageGenerator.class);
     private Formatter formatter = new Formatter();
-    private Map<String, String> substitution = new HashMap<>();
-    private Substitutor substitutor = new Substitutor();
     private GeneratorUtils utils = new GeneratorUtils();
     private RosMsgCommand rosmsg;
+    private Ros1Md5Calculator md5Calculator;
+    private Ros2TypeHashCalculator typeHashCalculator;
     private Path outputFolder;
     private Path packageName;
+    private Map<String, String> javaPackages = Map.of();
+    private GeneratedSourceSink sink = new DirectorySourceSink();
+    private boolean generateCodecs;
+    private boolean generateViews;
+    private boolean generateReuse;
+    private boolean generateArrayBuffers;
+    private boolean generateNativeStrings;
 
     public JRosActionGenerator(RosMsgCommand rosmsg, Path outputFolder, Path packageName) {
+        this(
+                rosmsg,
+                new Ros1Md5Calculator(rosmsg),
+                new Ros2TypeHashCalculator(rosmsg),
+                outputFolder,
+                packageName);
+    }
+
+    public JRosActionGenerator(
+            RosMsgCommand rosmsg,
+            Ros1Md5Calculator md5Calculator,
+            Ros2TypeHashCalculator typeHashCalculator,
+            Path outputFolder,
+            Path packageName) {
         this.rosmsg = rosmsg;
+        this.md5Calculator = md5Calculator;
+        this.typeHashCalculator = typeHashCalculator;
         this.outputFolder = outputFolder;
         this.packageName = packageName;
     }
 
-    public void generateJavaClass(RosFile rosFile) {
+    /**
+     * @see JRosMessageGenerator#setJavaPackages(Map)
+     */
+    public void setJavaPackages(Map<String, String> javaPackages) {
+        this.javaPackages = javaPackages;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setSourceSink(GeneratedSourceSink)
+     */
+    public void setSourceSink(GeneratedSourceSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateCodecs(boolean)
+     */
+    public void setGenerateCodecs(boolean generateCodecs) {
+        this.generateCodecs = generateCodecs;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateViews(boolean)
+     */
+    public void setGenerateViews(boolean generateViews) {
+        this.generateViews = generateViews;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateReuse(boolean)
+     */
+    public void setGenerateReuse(boolean generateReuse) {
+        this.generateReuse = generateReuse;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateArrayBuffers(boolean)
+     */
+    public void setGenerateArrayBuffers(boolean generateArrayBuffers) {
+        this.generateArrayBuffers = generateArrayBuffers;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateNativeStrings(boolean)
+     */
+    public void setGenerateNativeStrings(boolean generateNativeStrings) {
+        this.generateNativeStrings = generateNativeStrings;
+    }
+
+    /**
+     * @return files which were generated or empty list if nothing was generated
+     */
+    public List<Path> generateJavaClass(RosFile rosFile) {
         try {
-            generateJavaInternal(rosFile);
+            return generateJavaInternal(rosFile);
         } catch (Exception e) {
             LOGGER.severe("Error generating service class for " + rosFile, e);
             e.printStackTrace();
+            return List.of();
         }
     }
 
-    private void generateJavaInternal(RosFile rosFile) throws IOException {
-        generateActionDefinition(rosFile);
-        if (rosmsg.getRosVersion() == RosVersion.ros2) generateAction2Classes(rosFile);
-        generateActionMessages(rosFile);
+    private List<Path> generateJavaInternal(RosFile rosFile) {
+        var files = new ArrayList<Path>();
+        generateActionDefinition(rosFile).ifPresent(files::add);
+        if (rosmsg.getRosVersion() == RosVersion.ros2)
+            files.addAll(generateAction2Classes(rosFile));
+        files.addAll(generateActionMessages(rosFile));
+        return files;
     }
 
-    private void generateAction2Classes(RosFile rosFile) throws IOException {
-        substitution.clear();
+    private List<Path> generateAction2Classes(RosFile rosFile) {
+        var files = new ArrayList<Path>();
         var actionName = formatAsActionName(rosFile);
+        var values =
+                Map.of(
+                        "actionName",
+                        actionName,
+                        "msgName",
+                        formatter.formatAsMessageName(rosmsg.getRosVersion(), rosFile.name()),
+                        "fullJavaPackageName",
+                        packageName.toString());
         String[][] params = {
             {"ActionGoalMessage.java", "action2_goal"},
             {"ActionResultMessage.java", "action2_result"},
@@ -84,91 +168,101 @@ public class JRosActionGenerator {
         };
         for (int i = 0; i < params.length; i++) {
             Path outFile = outputFolder.resolve(actionName + params[i][0]);
-            if (outFile.toFile().exists()) {
+            if (sink.exists(outFile)) {
                 LOGGER.warning("Message file already exist - ignoring");
-                return;
+                return files;
             }
-            var classOutput = utils.readResource(params[i][1]);
-            substitution.put("${actionName}", formatAsActionName(rosFile));
-            var msgName = formatter.formatAsMessageName(rosmsg.getRosVersion(), rosFile.name());
-            substitution.put("${msgName}", msgName);
-            substitution.put("${fullJavaPackageName}", packageName.toString());
-            classOutput = substitutor.substitute(classOutput, substitution);
-            Files.writeString(outFile, classOutput, StandardOpenOption.CREATE_NEW);
+            var templateName = params[i][1];
+            var classOutput =
+                    utils.renderJavaClass(
+                            rosFile,
+                            actionName + params[i][0].replace(".java", ""),
+                            () -> utils.getTemplate(templateName).render(values));
+            utils.writeJavaFile(sink, outFile, classOutput);
+            files.add(outFile);
         }
+        return files;
     }
 
     private String formatAsActionName(RosFile rosFile) {
         return formatter.formatAsJavaClassName(rosFile).replaceAll("ActionDefinition", "");
     }
 
-    private void generateActionDefinition(RosFile rosFile) throws IOException {
-        substitution.clear();
+    private Optional<Path> generateActionDefinition(RosFile rosFile) {
         String className = formatter.formatAsJavaClassName(rosFile);
         Path outFile = outputFolder.resolve(className + ".java");
-        if (outFile.toFile().exists()) {
+        if (sink.exists(outFile)) {
             LOGGER.warning("Message file already exist - ignoring");
-            return;
+            return Optional.empty();
         }
+        utils.writeJavaFile(
+                sink,
+                outFile,
+                utils.renderJavaClass(rosFile, className, () -> renderActionDefinition(rosFile)));
+        return Optional.of(outFile);
+    }
+
+    private String renderActionDefinition(RosFile rosFile) {
         PicoWriter topWriter = new PicoWriter();
         utils.generateHeader(
                 topWriter, formatter.formatAsMessageName(rosmsg.getRosVersion(), rosFile.name()));
         topWriter.writeln(String.format("package %s;", packageName));
-        topWriter.write(utils.readResource("action_imports"));
-        topWriter.writeln();
-        generateJavadocComment(topWriter, rosFile);
-        topWriter.write(utils.readResource("action_definition"));
-        var classOutput = topWriter.toString();
-        substitution.put("${actionName}", formatAsActionName(rosFile));
-        substitution.put(
-                "${rosVersion}",
-                ""
-                        + switch (rosmsg.getRosVersion()) {
+        var values =
+                Map.of(
+                        "actionName",
+                        formatAsActionName(rosFile),
+                        "rosVersion",
+                        switch (rosmsg.getRosVersion()) {
                             case ros1 -> "1";
                             case ros2 -> "2";
                         });
-        classOutput = substitutor.substitute(classOutput, substitution);
-        Files.writeString(outFile, classOutput, StandardOpenOption.CREATE_NEW);
-    }
-
-    private void generateActionMessages(RosFile rosFile) {
-        var lines =
-                rosmsg.lines(rosFile)
-                        .map(String::trim)
-                        .collect(Collectors.toCollection(ArrayList<String>::new));
-        var posA = lines.indexOf("---");
-        if (posA < 0) {
-            LOGGER.severe(
-                    "Action definition is invalid and will be ignored, separator '---' is not"
-                            + " found: {0}",
-                    rosFile);
-            return;
-        }
-        var posB = lines.lastIndexOf("---");
-        if (posB <= posA) {
-            LOGGER.severe(
-                    "Action definition is invalid and will be ignored, separator '---' ordering is"
-                            + " invalid: {0}",
-                    rosFile);
-            return;
-        }
+        topWriter.write(utils.getTemplate("action_imports").render(values));
+        topWriter.writeln();
+        generateJavadocComment(topWriter, rosFile);
+        topWriter.write(utils.getTemplate("action_definition").render(values));
+        return topWriter.toString();
+    }
 
+    private List<Path> generateActionMessages(RosFile rosFile) {
         try {
+            var reader = new MessageDefinitionReader(rosmsg);
+            var sections = reader.parse(rosFile).sections();
+            if (sections.size() < 2) {
+                LOGGER.severe(
+                        "Action definition is invalid and will be ignored, separator '---' is not"
+                                + " found: {0}",
+                        rosFile);
+                return List.of();
+            }
+            if (sections.size() != 3) {
+                LOGGER.severe(
+                        "Action definition is invalid and will be ignored, it should have goal,"
+                                + " result and feedback sections separated with '---': {0}",
+                        rosFile);
+                return List.of();
+            }
             var goal = new RosFile(rosFile.name() + "Goal", RosInterfaceType.MESSAGE);
             var result = new RosFile(rosFile.name() + "Result", RosInterfaceType.MESSAGE);
             var messageGenerator =
                     new JRosMessageGenerator(
-                            new InMemoryRosMsgCommand(
-                                    Map.of(
-                                            goal, lines.subList(0, posA),
-                                            result, lines.subList(posA + 1, posB)),
-                                    rosmsg.getRosVersion()),
-                            outputFolder,
-                            packageName);
-            messageGenerator.generateJavaClass(goal);
-            messageGenerator.generateJavaClass(result);
+                            rosmsg, md5Calculator, typeHashCalculator, outputFolder, packageName);
+            messageGenerator.setJavaPackages(javaPackages);
+            messageGenerator.setSourceSink(sink);
+            messageGenerator.setGenerateCodecs(generateCodecs);
+            messageGenerator.setGenerateViews(generateViews);
+            messageGenerator.setGenerateReuse(generateReuse);
+            messageGenerator.setGenerateArrayBuffers(generateArrayBuffers);
+            messageGenerator.setGenerateNativeStrings(generateNativeStrings);
+            var files = new ArrayList<Path>();
+            files.addAll(
+                    messageGenerator.generateJavaClass(goal, reader.read(goal, sections.get(0))));
+            files.addAll(
+                    messageGenerator.generateJavaClass(
+                            result, reader.read(result, sections.get(1))));
+            return files;
         } catch (Exception e) {
             LOGGER.severe("Error generating goal/result messages", e);
+            return List.of();
         }
     }
 
@@ -18,19 +18,24 @@
 package pinorobotics.msgmonster.generator;
 
 import id.xfunction.XUtils;
+import id.xfunction.function.LazyInitializer;
+import id.xfunction.lang.XRE;
 import id.xfunction.logging.XLogger;
-import id.xfunction.text.Substitutor;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.ainslec.picocog.PicoWriter;
+import pinorobotics.msgmonster.output.DirectorySourceSink;
+import pinorobotics.msgmonster.output.GeneratedSourceSink;
 import pinorobotics.msgmonster.ros.RosFile;
 import pinorobotics.msgmonster.ros.RosInterfaceType;
 import pinorobotics.msgmonster.ros.RosMsgCommand;
@@ -42,161 +47,399 @@ import pinorobotics.msgmonster.ros.RosVersion;
  */
 public class JRosMessageGenerator {
     private static final XLogger LOGGER = XLogger.getLogger(JRosMessageGenerator.class);
+
+    /** Classes which provide hashCode for Java primitive types */
+    private static final Map<String, String> BOXED_TYPES =
+            Map.of(
+                    "boolean", "Boolean",
+                    "byte", "Byte",
+                    "short", "Short",
+                    "int", "Integer",
+                    "long", "Long",
+                    "float", "Float",
+                    "double", "Double");
+
     private Formatter formatter = new Formatter();
-    private Map<String, String> substitution = new HashMap<>();
-    private Substitutor substitutor = new Substitutor();
     private GeneratorUtils utils = new GeneratorUtils();
     private RosMsgCommand rosmsg;
+    private MessageDefinitionReader reader;
+    private Ros1Md5Calculator md5Calculator;
+    private Ros2TypeHashCalculator typeHashCalculator;
     private Path outputFolder;
     private Path packageName;
+    private Map<String, String> javaPackages = Map.of();
+    private GeneratedSourceSink sink = new DirectorySourceSink();
+    private boolean generateCodecs;
+    private CodecGenerator codecGenerator;
+    private boolean generateViews;
+    private ViewGenerator viewGenerator;
+    private boolean generateReuse;
+    private MessagePoolGenerator poolGenerator;
+    private boolean generateArrayBuffers;
+    private boolean generateNativeStrings;
 
     public JRosMessageGenerator(RosMsgCommand rosmsg, Path outputFolder, Path packageName) {
+        this(
+                rosmsg,
+                new Ros1Md5Calculator(rosmsg),
+                new Ros2TypeHashCalculator(rosmsg),
+                outputFolder,
+                packageName);
+    }
+
+    /**
+     * @param md5Calculator calculator which is used for ROS1 messages
+     * @param typeHashCalculator calculator which is used for ROS2 messages
+     *     <p>Calculators can be shared between generators so that nested messages are processed
+     *     only once
+     */
+    public JRosMessageGenerator(
+            RosMsgCommand rosmsg,
+            Ros1Md5Calculator md5Calculator,
+            Ros2TypeHashCalculator typeHashCalculator,
+            Path outputFolder,
+            Path packageName) {
         this.rosmsg = rosmsg;
+        this.reader = new MessageDefinitionReader(rosmsg);
+        this.md5Calculator = md5Calculator;
+        this.typeHashCalculator = typeHashCalculator;
         this.outputFolder = outputFolder;
         this.packageName = packageName;
+        viewGenerator = new ViewGenerator(rosmsg.getRosVersion(), this::formatAsJavaFullType);
+        createCompanionGenerators();
+    }
+
+    /** Generators which depend on how the fields of the message class are generated */
+    private void createCompanionGenerators() {
+        codecGenerator =
+                switch (rosmsg.getRosVersion()) {
+                    case ros1 ->
+                            new Ros1CodecGenerator(
+                                    this::formatAsJavaFullType,
+                                    generateArrayBuffers,
+                                    generateNativeStrings);
+                    case ros2 ->
+                            new CdrCodecGenerator(
+                                    this::formatAsJavaFullType,
+                                    generateArrayBuffers,
+                                    generateNativeStrings);
+                };
+        poolGenerator =
+                new MessagePoolGenerator(
+                        rosmsg.getRosVersion(), generateArrayBuffers, generateNativeStrings);
+    }
+
+    /**
+     * By default classes of the messages from other ROS packages are expected to be available in
+     * jrosmessages (ex. "id.jrosmessages.geometry_msgs"). This allows to override it.
+     *
+     * @param javaPackages map from ROS package name to Java package name
+     */
+    public void setJavaPackages(Map<String, String> javaPackages) {
+        this.javaPackages = javaPackages;
+    }
+
+    /** Where to write generated classes (by default to the output folder on the file system) */
+    public void setSourceSink(GeneratedSourceSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Generate codec next to each message class (see {@link Ros1CodecGenerator} for ROS1 messages
+     * and {@link CdrCodecGenerator} for ROS2 messages).
+     */
+    public void setGenerateCodecs(boolean generateCodecs) {
+        this.generateCodecs = generateCodecs;
+    }
+
+    /** Generate zero-copy view next to each message class (see {@link ViewGenerator}) */
+    public void setGenerateViews(boolean generateViews) {
+        this.generateViews = generateViews;
+    }
+
+    /**
+     * Generate reset() and copyFrom() methods in each message class and the pool next to it (see
+     * {@link MessagePoolGenerator})
+     */
+    public void setGenerateReuse(boolean generateReuse) {
+        this.generateReuse = generateReuse;
+    }
+
+    /**
+     * Generate variable size arrays of the primitive types (except bool) as Java NIO buffers (ex.
+     * "float32[]" as {@link java.nio.FloatBuffer}) instead of the plain Java arrays. Elements of
+     * such array are stored between 0 and the limit of the buffer, while its capacity is kept when
+     * the length of the array changes. This allows generated codecs and reset() to reuse the
+     * storage of the array instead of allocating new one for each message.
+     *
+     * <p>Messages which are generated in this mode can be serialized only by the generated codecs.
+     */
+    public void setGenerateArrayBuffers(boolean generateArrayBuffers) {
+        this.generateArrayBuffers = generateArrayBuffers;
+        createCompanionGenerators();
+    }
+
+    /**
+     * Generate fields of "string", "wstring" and bounded "string<=N" types as {@link String} with
+     * empty string as default value, instead of the nested StringMessage. Message metadata (name,
+     * fields, MD5 sum) and the wire format stay the same.
+     */
+    public void setGenerateNativeStrings(boolean generateNativeStrings) {
+        this.generateNativeStrings = generateNativeStrings;
+        createCompanionGenerators();
+    }
+
+    /**
+     * @return files which were generated or empty list if nothing was generated
+     */
+    public List<Path> generateJavaClass(RosFile rosFile) {
+        return generateJavaClass(rosFile, () -> reader.read(rosFile));
+    }
+
+    /**
+     * Generate class for the message which definition was already read (ex. request message of the
+     * service)
+     *
+     * @return files which were generated or empty list if nothing was generated
+     */
+    public List<Path> generateJavaClass(RosFile rosFile, MessageDefinition definition) {
+        return generateJavaClass(rosFile, () -> definition);
     }
 
-    public void generateJavaClass(RosFile rosFile) {
+    private List<Path> generateJavaClass(RosFile rosFile, Supplier<MessageDefinition> definition) {
         try {
-            generateJavaInternal(rosFile);
+            return generateJavaInternal(rosFile, definition);
         } catch (Exception e) {
             LOGGER.severe("Error generating class for " + rosFile, e);
+            return List.of();
         }
     }
 
-    private void generateJavaInternal(RosFile rosFile) throws IOException {
-        substitution.clear();
+    private List<Path> generateJavaInternal(
+            RosFile rosFile, Supplier<MessageDefinition> definition) {
         String className = formatter.formatAsJavaClassName(rosFile);
         Path outFile = outputFolder.resolve(className + ".java");
-        if (outFile.toFile().exists()) {
+        if (sink.exists(outFile)) {
             LOGGER.warning("Message file already exist - ignoring");
-            return;
+            return List.of();
         }
-        var msgFile = rosFile.name();
-        var definition = readMessageDefinition(rosFile);
+        // definition is read only once even when codec or view is generated too
+        var lazyDefinition = new LazyInitializer<>(definition);
+        utils.writeJavaFile(sink, outFile, renderJavaClass(rosFile, lazyDefinition));
+        var files = new ArrayList<Path>();
+        files.add(outFile);
+        if (generateCodecs)
+            generateCompanionClass(rosFile, codecGenerator, lazyDefinition, className)
+                    .ifPresent(files::add);
+        if (generateViews)
+            generateCompanionClass(rosFile, viewGenerator, lazyDefinition, className)
+                    .ifPresent(files::add);
+        if (generateReuse)
+            generateCompanionClass(rosFile, poolGenerator, lazyDefinition, className)
+                    .ifPresent(files::add);
+        return files;
+    }
+
+    /** Generate class which accompanies the message class (ex. codec) */
+    private Optional<Path> generateCompanionClass(
+            RosFile rosFile,
+            CodecGenerator generator,
+            Supplier<MessageDefinition> definition,
+            String className) {
+        var companionClassName =
+                formatter.formatAsCodecClassName(className, generator.getCodecSuffix());
+        var companionFile = outputFolder.resolve(companionClassName + ".java");
+        try {
+            var companion =
+                    utils.renderJavaClass(
+                            rosFile,
+                            companionClassName,
+                            () ->
+                                    generator.renderJavaClass(
+                                            definition.get(), packageName, className));
+            utils.writeJavaFile(sink, companionFile, companion);
+        } catch (Exception e) {
+            // message class is still usable through the reflection
+            LOGGER.warning(
+                    "Class {0} for {1} is not generated: {2}",
+                    companionClassName, rosFile, e.getMessage());
+            return Optional.empty();
+        }
+        return Optional.of(companionFile);
+    }
+
+    /**
+     * @return source code of the Java class for the message
+     */
+    public String renderJavaClass(RosFile rosFile) {
+        return renderJavaClass(rosFile, () -> reader.read(rosFile));
+    }
+
+    private String renderJavaClass(RosFile rosFile, Supplier<MessageDefinition> definition) {
+        return utils.renderJavaClass(
+                rosFile,
+                formatter.formatAsJavaClassName(rosFile),
+                () -> renderJavaClassInternal(rosFile, definition.get()));
+    }
+
+    private String renderJavaClassInternal(RosFile rosFile, MessageDefinition definition) {
+        var classValues = new HashMap<String, String>();
+        String className = formatter.formatAsJavaClassName(rosFile);
         PicoWriter topWriter = new PicoWriter();
         utils.generateHeader(topWriter, definition.getName());
-        substitution.put("${msgName}", definition.getName());
-        rosmsg.calcMd5Sum(msgFile).ifPresent(md5 -> substitution.put("${md5sum}", md5));
+        classValues.put("className", className);
+        classValues.put("msgName", definition.getName());
+        if (rosmsg.getRosVersion() == RosVersion.ros1)
+            classValues.put("md5sum", md5Calculator.calcMd5Sum(definition));
+        if (rosmsg.getRosVersion() == RosVersion.ros2)
+            classValues.put("typeHash", typeHashCalculator.calcTypeHash(rosFile, definition));
         topWriter.writeln(String.format("package %s;", packageName));
         topWriter.writeln();
         generateImports(topWriter, definition);
         generateJavadocComment(topWriter, definition);
-        generateMessageMetadata(topWriter, definition);
+        generateMessageMetadata(topWriter, definition, classValues);
         topWriter.writeln_r(String.format("public class %s implements Message {", className));
-        substitution.put("${className}", className);
         var memvarWriter = topWriter.createDeferredWriter();
         memvarWriter.writeln();
-        memvarWriter.writeln(utils.readResource("class_fields_header"));
+        memvarWriter.writeln(utils.getTemplate("class_fields_header").render(classValues));
+        if (rosmsg.getRosVersion() == RosVersion.ros2)
+            writeWithIdent(memvarWriter, utils.getTemplate("class_type_hash").render(classValues));
         generateEnums(memvarWriter, definition);
         generateConstants(memvarWriter, definition);
         generateClassFields(memvarWriter, definition);
-        generateWithMethods(memvarWriter, definition);
-        generateHashCode(memvarWriter, definition);
-        generateEquals(memvarWriter, definition);
-        generateToString(memvarWriter, definition);
+        generateWithMethods(memvarWriter, definition, classValues);
+        if (generateReuse) generateReuseMethods(memvarWriter, definition, classValues);
+        generateHashCode(memvarWriter, definition, classValues);
+        generateEquals(memvarWriter, definition, classValues);
+        generateToString(memvarWriter, definition, classValues);
         topWriter.writeln_l("}");
-        var classOutput = topWriter.toString();
-        classOutput = substitutor.substitute(classOutput, substitution);
-        Files.writeString(outFile, classOutput, StandardOpenOption.CREATE_NEW);
+        return topWriter.toString();
     }
 
-    private void generateToString(PicoWriter writer, MessageDefinition definition) {
+    /**
+     * Write template line by line. The line with "${...}" placeholder is replaced with the output
+     * of the list writer which receives the identation of that line.
+     */
+    private void writeTemplate(
+            PicoWriter writer,
+            String templateName,
+            Map<String, String> classValues,
+            Consumer<String> listWriter) {
+        for (var line : utils.getTemplate(templateName).lines()) {
+            if (line.hasPlaceholder("...")) listWriter.accept(line.getIdent());
+            else writer.writeln(line.render(classValues));
+        }
+    }
+
+    private void generateToString(
+            PicoWriter writer, MessageDefinition definition, Map<String, String> classValues) {
         if (definition.getFields().isEmpty()) return;
-        utils.readResourceAsStream("toString")
-                .forEach(
-                        line -> {
-                            if (!line.contains("${...}")) {
-                                writer.writeln(line);
-                                return;
-                            }
-                            var ident =
-                                    line.substring(0, line.length() - line.stripLeading().length());
-                            var fields = definition.getFields();
-                            for (int i = 0; i < fields.size(); i++) {
-                                var field = fields.get(i);
-                                if (field.hasArrayType()) {
-                                    writer.write(
-                                            String.format(
-                                                    "%s\"%2$s\", %2$s", ident, field.getName()));
-                                } else {
-                                    writer.write(
-                                            String.format(
-                                                    "%s\"%2$s\", %2$s", ident, field.getName()));
-                                }
-                                if (i == fields.size() - 1) writer.writeln("");
-                                else writer.writeln(",");
-                            }
-                        });
-    }
-
-    private void generateEquals(PicoWriter writer, MessageDefinition definition) {
+        writeTemplate(
+                writer,
+                "toString",
+                classValues,
+                ident -> {
+                    var fields = definition.getFields();
+                    for (int i = 0; i < fields.size(); i++) {
+                        var field = fields.get(i);
+                        var name = field.getName();
+                        var value = name;
+                        // print only elements of the buffer and not its position and limit
+                        if (bufferType(field).isPresent()) value = "toArray(%s)".formatted(name);
+                        writer.write(String.format("%s\"%s\", %s", ident, name, value));
+                        if (i == fields.size() - 1) writer.writeln("");
+                        else writer.writeln(",");
+                    }
+                });
+        // buffers may be views or direct buffers which do not have accessible array so elements
+        // are copied with the absolute get
+        var bufferTypes = new TreeMap<String, String>();
+        for (var field : definition.getFields())
+            bufferType(field).ifPresent(type -> bufferTypes.put(javaType(field), type));
+        var template = utils.getTemplate("buffer_to_array");
+        bufferTypes.forEach(
+                (elementType, bufferType) ->
+                        writeWithIdent(
+                                writer,
+                                template.render(
+                                        name ->
+                                                switch (name) {
+                                                    case "elementType" -> elementType;
+                                                    case "bufferType" -> bufferType;
+                                                    default -> null;
+                                                })));
+    }
+
+    private void generateEquals(
+            PicoWriter writer, MessageDefinition definition, Map<String, String> classValues) {
         if (definition.getFields().isEmpty()) return;
-        utils.readResourceAsStream("equals")
-                .forEach(
-                        line -> {
-                            if (!line.contains("${...}")) {
-                                writer.writeln(line);
-                                return;
-                            }
-                            var ident =
-                                    line.substring(0, line.length() - line.stripLeading().length());
-                            var fields = definition.getFields();
-                            for (int i = 0; i < fields.size(); i++) {
-                                var field = fields.get(i);
-                                if (field.hasArrayType()) {
-                                    writer.write(
-                                            String.format(
-                                                    "%sArrays.equals(%2$s, other.%2$s)",
-                                                    ident, field.getName()));
-                                } else if (field.hasPrimitiveType()) {
-                                    writer.write(
-                                            String.format(
-                                                    "%s%2$s == other.%2$s",
-                                                    ident, field.getName()));
-                                } else {
-                                    writer.write(
-                                            String.format(
-                                                    "%sObjects.equals(%2$s, other.%2$s)",
-                                                    ident, field.getName()));
-                                }
-                                if (i == fields.size() - 1) writer.writeln("");
-                                else writer.writeln(" &&");
-                            }
-                        });
-    }
-
-    private void generateHashCode(PicoWriter writer, MessageDefinition definition) {
+        // cheap comparisons of the primitive fields go first, arrays are compared last
+        var fields = new ArrayList<Field>();
+        definition.getFields().stream()
+                .filter(field -> !field.hasArrayType() && field.hasPrimitiveType())
+                .forEach(fields::add);
+        definition.getFields().stream()
+                .filter(field -> !field.hasArrayType() && !field.hasPrimitiveType())
+                .forEach(fields::add);
+        definition.getFields().stream().filter(Field::hasArrayType).forEach(fields::add);
+        writeTemplate(
+                writer,
+                "equals",
+                classValues,
+                ident -> {
+                    for (int i = 0; i < fields.size(); i++) {
+                        var field = fields.get(i);
+                        if (field.hasArrayType() && bufferType(field).isEmpty()) {
+                            writer.write(
+                                    String.format(
+                                            "%sArrays.equals(%2$s, other.%2$s)",
+                                            ident, field.getName()));
+                        } else if (!field.hasArrayType() && field.hasPrimitiveType()) {
+                            writer.write(
+                                    String.format("%s%2$s == other.%2$s", ident, field.getName()));
+                        } else {
+                            writer.write(
+                                    String.format(
+                                            "%sObjects.equals(%2$s, other.%2$s)",
+                                            ident, field.getName()));
+                        }
+                        if (i == fields.size() - 1) writer.writeln("");
+                        else writer.writeln(" &&");
+                    }
+                });
+    }
+
+    /**
+     * Hash code is calculated the same way as {@link Objects#hash(Object...)} does it but without
+     * allocating array for its arguments and boxing primitive values
+     */
+    private void generateHashCode(
+            PicoWriter writer, MessageDefinition definition, Map<String, String> classValues) {
         if (definition.getFields().isEmpty()) return;
-        utils.readResourceAsStream("hash_code")
-                .forEach(
-                        line -> {
-                            if (!line.contains("${...}")) {
-                                writer.writeln(line);
-                                return;
-                            }
-                            var ident =
-                                    line.substring(0, line.length() - line.stripLeading().length());
-                            var fields = definition.getFields();
-                            for (int i = 0; i < fields.size(); i++) {
-                                var field = fields.get(i);
-                                if (field.hasArrayType()) {
-                                    writer.write(
-                                            String.format(
-                                                    "%sArrays.hashCode(%s)",
-                                                    ident, field.getName()));
-                                } else {
-                                    writer.write(String.format("%s%s", ident, field.getName()));
-                                }
-                                if (i == fields.size() - 1) writer.writeln("");
-                                else writer.writeln(",");
-                            }
-                        });
-    }
-
-    private void generateMessageMetadata(PicoWriter writer, MessageDefinition definition) {
+        writeTemplate(
+                writer,
+                "hash_code",
+                classValues,
+                ident -> {
+                    for (var field : definition.getFields()) {
+                        String hashCode;
+                        if (bufferType(field).isPresent()) hashCode = "Objects.hashCode";
+                        else if (field.hasArrayType()) hashCode = "Arrays.hashCode";
+                        else if (field.hasPrimitiveType())
+                            hashCode = BOXED_TYPES.get(field.getJavaType()) + ".hashCode";
+                        else hashCode = "Objects.hashCode";
+                        writer.writeln(
+                                String.format(
+                                        "%sh = 31 * h + %s(%s);",
+                                        ident, hashCode, field.getName()));
+                    }
+                });
+    }
+
+    private void generateMessageMetadata(
+            PicoWriter writer, MessageDefinition definition, Map<String, String> classValues) {
         var metadataMap = new LinkedHashMap<String, String>();
-        metadataMap.put("name", "${className}.NAME");
+        metadataMap.put("name", classValues.get("className") + ".NAME");
         if (definition.getType() == RosInterfaceType.SERVICE)
             metadataMap.put("interfaceType", "RosInterfaceType.SERVICE");
         if (definition.getFields().size() > 1) {
@@ -210,58 +453,87 @@ public class JRosMessageGenerator {
                                             .collect(Collectors.joining(", "))));
         }
         if (rosmsg.getRosVersion() == RosVersion.ros1) {
-            metadataMap.put("md5sum", XUtils.quote("${md5sum}"));
+            metadataMap.put("md5sum", XUtils.quote(classValues.get("md5sum")));
         }
-        utils.readResourceAsStream("class_message_metadata")
-                .forEach(
-                        line -> {
-                            if (!line.contains("${...}")) {
-                                writer.writeln(line);
-                                return;
-                            }
-                            var ident =
-                                    line.substring(0, line.length() - line.stripLeading().length());
-                            writer.writeln(
-                                    metadataMap.entrySet().stream()
-                                            .map(
-                                                    e ->
-                                                            String.format(
-                                                                    "%s%s = %s",
-                                                                    ident,
-                                                                    e.getKey(),
-                                                                    e.getValue()))
-                                            .collect(Collectors.joining(",\n")));
-                        });
-    }
-
-    private void generateWithMethods(PicoWriter writer, MessageDefinition definition) {
+        writeTemplate(
+                writer,
+                "class_message_metadata",
+                classValues,
+                ident ->
+                        writer.writeln(
+                                metadataMap.entrySet().stream()
+                                        .map(
+                                                e ->
+                                                        String.format(
+                                                                "%s%s = %s",
+                                                                ident, e.getKey(), e.getValue()))
+                                        .collect(Collectors.joining(",\n"))));
+    }
+
+    private void generateWithMethods(
+            PicoWriter writer, MessageDefinition definition, Map<String, String> classValues) {
         for (var field : definition.getFields()) {
-            var body = utils.readResource("with_method");
-            Map<String, String> substitution = new HashMap<>(this.substitution);
+            var template = utils.getTemplate("with_method");
+            var fieldType = javaType(field);
             if (field.hasArrayType()) {
-                substitution.put("${fieldType}", field.getJavaType() + "...");
-                if (field.getArraySize() > 0) {
-                    substitution.put("${arraySize}", "" + field.getArraySize());
-                    body = utils.readResource("with_method_for_fixed_size_array");
-                }
-            } else {
-                substitution.put("${fieldType}", field.getJavaType());
+                fieldType += "...";
+                if (field.getArraySize() > 0)
+                    template = utils.getTemplate("with_method_for_fixed_size_array");
+                else if (bufferType(field).isPresent())
+                    template = utils.getTemplate("with_method_for_array_buffer");
             }
-            substitution.put("${fieldName}", field.getName());
-            substitution.put(
-                    "${methodName}", "with" + formatter.formatAsMethodName("_" + field.getName()));
-            body = substitutor.substitute(body, substitution);
-            writeWithIdent(writer, body);
+            var methodType = fieldType;
+            var fieldMethodName = formatter.formatAsMethodName("_" + field.getName());
+            var methodName = "with" + fieldMethodName;
+            writeWithIdent(
+                    writer,
+                    template.render(
+                            name ->
+                                    switch (name) {
+                                        case "fieldType" -> methodType;
+                                        case "fieldName" -> field.getName();
+                                        case "methodName" -> methodName;
+                                        case "arraySize" -> "" + field.getArraySize();
+                                        case "elementType" -> javaType(field);
+                                        case "setMethodName" -> "set" + fieldMethodName;
+                                        case "copyMethodName" -> "copy" + fieldMethodName + "From";
+                                        case "bufferType" -> bufferType(field).orElse(null);
+                                        default -> classValues.get(name);
+                                    }));
+        }
+    }
+
+    private void generateReuseMethods(
+            PicoWriter writer, MessageDefinition definition, Map<String, String> classValues) {
+        List<String> reset, copyFrom;
+        try {
+            reset = poolGenerator.resetStatements(definition);
+            copyFrom = poolGenerator.copyFromStatements(definition);
+        } catch (XRE e) {
+            LOGGER.warning(
+                    "Methods reset() and copyFrom() for {0} are not generated: {1}",
+                    definition.getName(), e.getMessage());
+            return;
         }
+        writeTemplate(
+                writer,
+                "reset",
+                classValues,
+                ident -> reset.forEach(statement -> writer.writeln(ident + statement)));
+        writeTemplate(
+                writer,
+                "copy_from",
+                classValues,
+                ident -> copyFrom.forEach(statement -> writer.writeln(ident + statement)));
     }
 
     private void generateEnums(PicoWriter writer, MessageDefinition definition) {
-        var body = utils.readResource("enum_field");
+        var template = utils.getTemplate("enum_field");
         for (var enumDef : definition.getEnums()) {
             writer.writeln_r("public enum UnknownType {");
             var memvarWriter = writer.createDeferredWriter();
             for (var field : enumDef.getFields()) {
-                writeField(memvarWriter, body, field);
+                writeField(memvarWriter, template, field);
             }
             writer.writeln_l("}");
             writer.writeln();
@@ -269,152 +541,47 @@ public class JRosMessageGenerator {
     }
 
     private void generateConstants(PicoWriter writer, MessageDefinition definition) {
-        var body = utils.readResource("constant_int_field");
+        var template = utils.getTemplate("constant_int_field");
         for (var field : definition.getIntConstants()) {
-            writeField(writer, body, field);
+            writeField(writer, template, field);
         }
     }
 
-    private void writeField(PicoWriter writer, String fieldTemplate, Field field) {
-        Map<String, String> substitution = new HashMap<>();
-        substitution.put("${fieldType}", field.getJavaType());
-        substitution.put("${fieldName}", field.getName());
-        substitution.put("${fieldValue}", field.getValue());
-        substitution.put("${arraySize}", "" + field.getArraySize());
-        fieldTemplate = substitutor.substitute(fieldTemplate, substitution);
+    private void writeField(PicoWriter writer, Template fieldTemplate, Field field) {
         if (!field.getComment().isEmpty()) utils.generateJavadocComment(writer, field.getComment());
-        writeWithIdent(writer, fieldTemplate);
-    }
-
-    private MessageDefinition readMessageDefinition(RosFile msgFile) throws IOException {
-        var lines =
-                rosmsg.lines(msgFile)
-                        .map(String::trim)
-                        .collect(Collectors.toCollection(ArrayList<String>::new));
-        utils.removeLeadingBlankLines(lines);
-        var fieldLineNums = new ArrayList<Integer>();
-        for (int i = 0; i < lines.size(); i++) {
-            var line = lines.get(i);
-            if (line.isEmpty()) continue;
-            if (line.trim().startsWith("#")) continue;
-            fieldLineNums.add(i);
-        }
-        var msgName = formatter.formatAsMessageName(rosmsg.getRosVersion(), msgFile.name());
-        if (fieldLineNums.isEmpty()) {
-            return new MessageDefinition(rosmsg.getRosVersion(), msgName);
-        }
-        var pos = lines.indexOf("");
-        var msgCommentLines = new ArrayList<String>();
-        if (pos < 0) pos = 0;
-        if (pos < fieldLineNums.get(0)) {
-            // looks like there are comments on the top of the file which are
-            // separated from the rest of text with empty line
-            // We decide that they does not belong to the field so we use them
-            // as message definition comments
-            lines.subList(0, pos).stream().forEach(msgCommentLines::add);
-        } else {
-            pos = 0;
-        }
-        if (fieldLineNums.size() > 1) {
-            // if there are many fields and only one comment on the top
-            // then
-            var fields =
-                    lines.subList(fieldLineNums.get(0), lines.size()).stream()
-                            .filter(s -> !s.isEmpty())
-                            .collect(Collectors.toList());
-            if (fields.size() == fieldLineNums.size()) {
-                lines.subList(0, fieldLineNums.get(0)).stream().forEach(msgCommentLines::add);
-                pos = fieldLineNums.get(0);
-            }
-        }
-        var curFieldNum = 0;
-        var commentBuf = new StringBuilder();
-        var def =
-                new MessageDefinition(
-                        rosmsg.getRosVersion(),
-                        msgName,
-                        msgCommentLines.stream()
-                                .map(this::cleanCommentLine)
-                                .collect(Collectors.joining("\n")));
-        EnumDefinition curEnum = null;
-        for (int i = pos; i < lines.size(); i++) {
-            String line = lines.get(i);
-            if (line.isEmpty()) continue;
-            if (curFieldNum == fieldLineNums.size()) {
-                addCommentLine(commentBuf, line);
-                continue;
-            }
-            if (i < fieldLineNums.get(curFieldNum)) {
-                addCommentLine(commentBuf, line);
-                continue;
-            }
-            curFieldNum++;
-            var buf = line.split("#");
-            if (buf.length == 2) {
-                addCommentLine(commentBuf, buf[1]);
-            }
-            var scanner = new Scanner(buf[0].trim());
-            scanner.useDelimiter("[\\s+=]+");
-            var type = scanner.next();
-            var name = scanner.next();
-            var value = scanner.hasNext() ? scanner.next() : "";
-            var comment = commentBuf.toString();
-            commentBuf.setLength(0);
-            try {
-                var id = Integer.parseInt(value);
-                if (id == 0) {
-                    if (curEnum != null) def.addEnum(curEnum);
-                    curEnum = new EnumDefinition(rosmsg.getRosVersion());
-                }
-                if (curEnum == null) {
-                    def.addConstant(
-                            new Field(
-                                    rosmsg.getRosVersion(),
-                                    name,
-                                    type,
-                                    Integer.toString(id),
-                                    comment));
-                    continue;
-                } else if (id == curEnum.getFields().size()) {
-                    curEnum.addField(type, name, value, comment);
-                    continue;
-                }
-            } catch (Exception e) {
-                // not an integer, ignoring
-            }
-            def.addField(type, name, value, comment);
-        }
-        if (curEnum != null && !curEnum.getFields().isEmpty()) def.addEnum(curEnum);
-        return def;
-    }
-
-    private void addCommentLine(StringBuilder commentBuf, String line) {
-        commentBuf.append(cleanCommentLine(line) + "\n");
-    }
-
-    private String cleanCommentLine(String comment) {
-        return comment.replaceAll("^#\\s*", "")
-                .replaceAll("&", "&amp;")
-                .replaceAll("<", "&lt;")
-                .replaceAll(">", "&gt;")
-                .trim();
+        writeWithIdent(
+                writer,
+                fieldTemplate.render(
+                        name ->
+                                switch (name) {
+                                    case "fieldType" -> javaType(field);
+                                    case "fieldName" -> field.getName();
+                                    case "fieldValue" -> field.getValue();
+                                    case "arraySize" -> "" + field.getArraySize();
+                                    case "bufferType" -> bufferType(field).orElse(null);
+                                    default -> null;
+                                }));
     }
 
     private void generateClassFields(PicoWriter writer, MessageDefinition definition) {
         for (var field : definition.getFields()) {
-            var body = "";
+            String templateName;
             if (field.hasArrayType()) {
-                body =
-                        utils.readResource(
-                                field.getArraySize() > 0
-                                        ? "class_field_fixed_size_array"
-                                        : "class_field_array");
+                if (bufferType(field).isPresent()) templateName = "class_field_array_buffer";
+                else if (field.getArraySize() == 0) templateName = "class_field_array";
+                // elements of the fixed size arrays are created together with the message
+                else if (field.hasPrimitiveType()) templateName = "class_field_fixed_size_array";
+                else if (isNativeString(field))
+                    templateName = "class_field_fixed_size_string_array";
+                else templateName = "class_field_fixed_size_message_array";
             } else if (field.hasPrimitiveType()) {
-                body = utils.readResource("class_field_primitive");
+                templateName = "class_field_primitive";
+            } else if (isNativeString(field)) {
+                templateName = "class_field_string";
             } else {
-                body = utils.readResource("class_field");
+                templateName = "class_field";
             }
-            writeField(writer, body, field);
+            writeField(writer, utils.getTemplate(templateName), field);
         }
     }
 
@@ -448,15 +615,18 @@ public class JRosMessageGenerator {
     }
 
     private void generateImports(PicoWriter writer, MessageDefinition definition) {
-        writer.write(utils.readResource("imports"));
+        writer.write(utils.getTemplate("imports").render(Map.of()));
         var imports = new ArrayList<String>();
         if (definition.getType() == RosInterfaceType.SERVICE)
             imports.add("import id.jrosmessages.RosInterfaceType;");
         for (var field : definition.getFields()) {
             if (field.hasArrayType()) imports.add("import java.util.Arrays;");
-            if (field.hasPrimitiveType()) continue;
+            bufferType(field)
+                    .ifPresent(
+                            bufferType -> imports.add("import java.nio.%s;".formatted(bufferType)));
+            if (field.hasPrimitiveType() || isNativeString(field)) continue;
             if (field.hasBasicType() || field.hasForeignType() || field.hasStdMsgType()) {
-                imports.add(String.format("import %s;", field.getJavaFullType()));
+                imports.add(String.format("import %s;", formatAsJavaFullType(field)));
             } else {
                 // throw new XRE("Type %s is unknown", field.getType());
             }
@@ -464,4 +634,25 @@ public class JRosMessageGenerator {
         imports.stream().sorted().distinct().forEach(writer::writeln);
         writer.writeln();
     }
+
+    private Optional<String> bufferType(Field field) {
+        return CodecUtils.bufferType(field, generateArrayBuffers);
+    }
+
+    private boolean isNativeString(Field field) {
+        return CodecUtils.isNativeString(field, generateNativeStrings);
+    }
+
+    /** Java type of the field (or of its elements when field is an array) */
+    private String javaType(Field field) {
+        return isNativeString(field) ? "String" : field.getJavaType();
+    }
+
+    private String formatAsJavaFullType(Field field) {
+        if (field.hasForeignType() && !field.hasBasicType() && !field.hasStdMsgType()) {
+            var javaPackage = javaPackages.get(field.getType().replaceAll("/.*", ""));
+            if (javaPackage != null) return javaPackage + "." + field.getJavaType();
+        }
+        return field.getJavaFullType();
+    }
 }
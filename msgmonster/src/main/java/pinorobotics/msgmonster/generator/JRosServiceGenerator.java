@@ -18,17 +18,13 @@
 package pinorobotics.msgmonster.generator;
 
 import id.xfunction.logging.XLogger;
-import id.xfunction.text.Substitutor;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.ainslec.picocog.PicoWriter;
-import pinorobotics.msgmonster.ros.InMemoryRosMsgCommand;
+import pinorobotics.msgmonster.output.DirectorySourceSink;
+import pinorobotics.msgmonster.output.GeneratedSourceSink;
 import pinorobotics.msgmonster.ros.RosFile;
 import pinorobotics.msgmonster.ros.RosInterfaceType;
 import pinorobotics.msgmonster.ros.RosMsgCommand;
@@ -43,65 +39,157 @@ import pinorobotics.msgmonster.ros.RosMsgCommand;
 public class JRosServiceGenerator {
     private static final XLogger LOGGER = XLogger.getLogger(JRosMessageGenerator.class);
     private Formatter formatter = new Formatter();
-    private Map<String, String> substitution = new HashMap<>();
-    private Substitutor substitutor = new Substitutor();
     private GeneratorUtils utils = new GeneratorUtils();
     private RosMsgCommand rosmsg;
+    private Ros1Md5Calculator md5Calculator;
+    private Ros2TypeHashCalculator typeHashCalculator;
     private Path outputFolder;
     private Path packageName;
+    private Map<String, String> javaPackages = Map.of();
+    private GeneratedSourceSink sink = new DirectorySourceSink();
+    private boolean generateCodecs;
+    private boolean generateViews;
+    private boolean generateReuse;
+    private boolean generateArrayBuffers;
+    private boolean generateNativeStrings;
 
     public JRosServiceGenerator(RosMsgCommand rosmsg, Path outputFolder, Path packageName) {
+        this(
+                rosmsg,
+                new Ros1Md5Calculator(rosmsg),
+                new Ros2TypeHashCalculator(rosmsg),
+                outputFolder,
+                packageName);
+    }
+
+    public JRosServiceGenerator(
+            RosMsgCommand rosmsg,
+            Ros1Md5Calculator md5Calculator,
+            Ros2TypeHashCalculator typeHashCalculator,
+            Path outputFolder,
+            Path packageName) {
         this.rosmsg = rosmsg;
+        this.md5Calculator = md5Calculator;
+        this.typeHashCalculator = typeHashCalculator;
         this.outputFolder = outputFolder;
         this.packageName = packageName;
     }
 
-    public void generateJavaClass(RosFile rosFile) {
+    /**
+     * @see JRosMessageGenerator#setJavaPackages(Map)
+     */
+    public void setJavaPackages(Map<String, String> javaPackages) {
+        this.javaPackages = javaPackages;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setSourceSink(GeneratedSourceSink)
+     */
+    public void setSourceSink(GeneratedSourceSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateCodecs(boolean)
+     */
+    public void setGenerateCodecs(boolean generateCodecs) {
+        this.generateCodecs = generateCodecs;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateViews(boolean)
+     */
+    public void setGenerateViews(boolean generateViews) {
+        this.generateViews = generateViews;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateReuse(boolean)
+     */
+    public void setGenerateReuse(boolean generateReuse) {
+        this.generateReuse = generateReuse;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateArrayBuffers(boolean)
+     */
+    public void setGenerateArrayBuffers(boolean generateArrayBuffers) {
+        this.generateArrayBuffers = generateArrayBuffers;
+    }
+
+    /**
+     * @see JRosMessageGenerator#setGenerateNativeStrings(boolean)
+     */
+    public void setGenerateNativeStrings(boolean generateNativeStrings) {
+        this.generateNativeStrings = generateNativeStrings;
+    }
+
+    /**
+     * @return files which were generated or empty list if nothing was generated
+     */
+    public List<Path> generateJavaClass(RosFile rosFile) {
         try {
-            generateJavaInternal(rosFile);
+            return generateJavaInternal(rosFile);
         } catch (Exception e) {
             LOGGER.severe("Error generating service class for " + rosFile, e);
             e.printStackTrace();
+            return List.of();
         }
     }
 
-    private void generateJavaInternal(RosFile rosFile) throws IOException {
-        substitution.clear();
+    private List<Path> generateJavaInternal(RosFile rosFile) {
         String className = formatter.formatAsJavaClassName(rosFile);
         Path outFile = outputFolder.resolve(className + ".java");
-        if (outFile.toFile().exists()) {
+        if (sink.exists(outFile)) {
             LOGGER.warning("Message file already exist - ignoring");
-            return;
+            return List.of();
         }
+        utils.writeJavaFile(
+                sink,
+                outFile,
+                utils.renderJavaClass(
+                        rosFile, className, () -> renderServiceDefinition(rosFile, className)));
+        var files = new ArrayList<Path>();
+        files.add(outFile);
+        files.addAll(generateRequestResponse(rosFile));
+        return files;
+    }
+
+    private String renderServiceDefinition(RosFile rosFile, String className) {
         PicoWriter topWriter = new PicoWriter();
         utils.generateHeader(
                 topWriter, formatter.formatAsMessageName(rosmsg.getRosVersion(), rosFile.name()));
         topWriter.writeln(String.format("package %s;", packageName));
-        topWriter.write(utils.readResource("service_imports"));
+        topWriter.write(utils.getTemplate("service_imports").render(Map.of()));
         topWriter.writeln();
         generateJavadocComment(topWriter, rosFile);
-        topWriter.write(utils.readResource("service_definition"));
-        var classOutput = topWriter.toString();
-        substitution.put("${serviceName}", className.replaceAll("ServiceDefinition", ""));
-        classOutput = substitutor.substitute(classOutput, substitution);
-        Files.writeString(outFile, classOutput, StandardOpenOption.CREATE_NEW);
-        generateRequestResponse(rosFile);
+        topWriter.write(
+                utils.getTemplate("service_definition")
+                        .render(
+                                Map.of(
+                                        "serviceName",
+                                        className.replaceAll("ServiceDefinition", ""))));
+        return topWriter.toString();
     }
 
-    private void generateRequestResponse(RosFile rosFile) {
-        var lines =
-                rosmsg.lines(rosFile)
-                        .map(String::trim)
-                        .collect(Collectors.toCollection(ArrayList<String>::new));
-        var pos = lines.indexOf("---");
-        if (pos < 0) {
-            LOGGER.severe(
-                    "Service definition is invalid and will be ignored, separator '---' is not"
-                            + " found: {0}",
-                    rosFile);
-            return;
-        }
+    private List<Path> generateRequestResponse(RosFile rosFile) {
         try {
+            var reader = new MessageDefinitionReader(rosmsg);
+            var sections = reader.parse(rosFile).sections();
+            if (sections.size() < 2) {
+                LOGGER.severe(
+                        "Service definition is invalid and will be ignored, separator '---' is not"
+                                + " found: {0}",
+                        rosFile);
+                return List.of();
+            }
+            if (sections.size() > 2) {
+                LOGGER.severe(
+                        "Service definition is invalid and will be ignored, it has more than one"
+                                + " separator '---': {0}",
+                        rosFile);
+                return List.of();
+            }
             var request =
                     new RosFile(
                             rosFile.name() + JRosConstants.SERVICE_REQUEST,
@@ -112,17 +200,25 @@ public class JRosServiceGenerator {
                             RosInterfaceType.MESSAGE);
             var messageGenerator =
                     new JRosMessageGenerator(
-                            new InMemoryRosMsgCommand(
-                                    Map.of(
-                                            request, lines.subList(0, pos),
-                                            response, lines.subList(pos + 1, lines.size())),
-                                    rosmsg.getRosVersion()),
-                            outputFolder,
-                            packageName);
-            messageGenerator.generateJavaClass(request);
-            messageGenerator.generateJavaClass(response);
+                            rosmsg, md5Calculator, typeHashCalculator, outputFolder, packageName);
+            messageGenerator.setJavaPackages(javaPackages);
+            messageGenerator.setSourceSink(sink);
+            messageGenerator.setGenerateCodecs(generateCodecs);
+            messageGenerator.setGenerateViews(generateViews);
+            messageGenerator.setGenerateReuse(generateReuse);
+            messageGenerator.setGenerateArrayBuffers(generateArrayBuffers);
+            messageGenerator.setGenerateNativeStrings(generateNativeStrings);
+            var files = new ArrayList<Path>();
+            files.addAll(
+                    messageGenerator.generateJavaClass(
+                            request, reader.read(request, sections.get(0))));
+            files.addAll(
+                    messageGenerator.generateJavaClass(
+                            response, reader.read(response, sections.get(1))));
+            return files;
         } catch (Exception e) {
             LOGGER.severe("Error generating request/response messages", e);
+            return List.of();
         }
     }
 
@@ -19,6 +19,7 @@ package pinorobotics.msgmonster.generator;
 
 import java.util.ArrayList;
 import java.util.List;
+import pinorobotics.msgmonster.parser.RosType;
 import pinorobotics.msgmonster.ros.RosInterfaceType;
 import pinorobotics.msgmonster.ros.RosVersion;
 
@@ -30,6 +31,7 @@ public class MessageDefinition {
     private List<Field> fields = new ArrayList<>();
     private List<EnumDefinition> enums = new ArrayList<>();
     private List<Field> intConstants = new ArrayList<>();
+    private List<Field> constants = new ArrayList<>();
     private String comment;
     private String msgName;
     private RosVersion rosVersion;
@@ -44,16 +46,29 @@ public class MessageDefinition {
         this(rosVersion, msgName, "");
     }
 
-    public void addField(String type, String name, String value, String comment) {
-        fields.add(new Field(rosVersion, name, type, value, comment));
+    /**
+     * @param constant true for constants which are not integers, such constants are kept together
+     *     with the fields
+     */
+    public void addField(
+            RosType type, String name, String value, boolean constant, String comment) {
+        var field = new Field(rosVersion, name, type, value, constant, comment);
+        fields.add(field);
+        if (constant) constants.add(field);
     }
 
     public void addEnum(EnumDefinition enumDef) {
         enums.add(enumDef);
     }
 
+    public void addEnumField(
+            EnumDefinition enumDef, RosType type, String name, String value, String comment) {
+        constants.add(enumDef.addField(type, name, value, comment));
+    }
+
     public void addConstant(Field constant) {
         intConstants.add(constant);
+        constants.add(constant);
     }
 
     public String getComment() {
@@ -82,6 +97,11 @@ public class MessageDefinition {
         return intConstants;
     }
 
+    /** All constants (including enum fields) in the order they are declared */
+    public List<Field> getConstants() {
+        return constants;
+    }
+
     public String getName() {
         return msgName;
     }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import pinorobotics.msgmonster.jfr.ParseDefinitionEvent;
+import pinorobotics.msgmonster.parser.RosDefinition;
+import pinorobotics.msgmonster.parser.RosDefinitionParser;
+import pinorobotics.msgmonster.parser.RosElement;
+import pinorobotics.msgmonster.parser.RosElement.BlankLine;
+import pinorobotics.msgmonster.parser.RosElement.Comment;
+import pinorobotics.msgmonster.parser.RosElement.Declaration;
+import pinorobotics.msgmonster.parser.RosSection;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosMsgCommand;
+import pinorobotics.msgmonster.utils.GenerationStats;
+import pinorobotics.msgmonster.utils.GenerationStats.Phase;
+
+/**
+ * Reads ROS interface definition and parses it into {@link MessageDefinition}
+ *
+ * @see <a href="https://wiki.ros.org/msg">ROS msg file format</a>
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MessageDefinitionReader {
+    private Formatter formatter = new Formatter();
+    private RosDefinitionParser parser = new RosDefinitionParser();
+    private RosMsgCommand rosmsg;
+
+    public MessageDefinitionReader(RosMsgCommand rosmsg) {
+        this.rosmsg = rosmsg;
+    }
+
+    /** Read ROS message */
+    public MessageDefinition read(RosFile msgFile) {
+        return GenerationStats.measure(
+                Phase.PARSE, () -> read(msgFile, parse(msgFile).sections().get(0)));
+    }
+
+    /**
+     * Read ROS interface definition of any type. Services and actions are split into sections which
+     * can be read as messages with {@link #read(RosFile, RosSection)}.
+     */
+    public RosDefinition parse(RosFile rosFile) {
+        return GenerationStats.measure(
+                Phase.PARSE,
+                () -> {
+                    var lines = rosmsg.lines(rosFile);
+                    var event = new ParseDefinitionEvent();
+                    event.begin();
+                    var bytes = new long[1];
+                    var definition =
+                            parser.parse(lines.peek(line -> bytes[0] += line.length() + 1));
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.interfaceName = rosFile.name().toString();
+                        event.bytes = bytes[0];
+                        event.fields =
+                                definition.sections().stream()
+                                        .mapToInt(RosSection::getDeclarationsCount)
+                                        .sum();
+                        event.commit();
+                    }
+                    return definition;
+                });
+    }
+
+    /**
+     * @param msgFile message which is described by the section
+     */
+    public MessageDefinition read(RosFile msgFile, RosSection section) {
+        var elements = section.elements();
+        var first = 0;
+        while (first < elements.size() && elements.get(first) instanceof BlankLine) first++;
+        elements = elements.subList(first, elements.size());
+        var firstField = -1;
+        var fieldsCount = 0;
+        var firstBlankLine = -1;
+        var commentsAfterFirstField = false;
+        for (int i = 0; i < elements.size(); i++) {
+            var element = elements.get(i);
+            if (element instanceof Declaration) {
+                if (firstField < 0) firstField = i;
+                fieldsCount++;
+            } else if (element instanceof BlankLine) {
+                if (firstBlankLine < 0) firstBlankLine = i;
+            } else if (firstField >= 0) {
+                commentsAfterFirstField = true;
+            }
+        }
+        var msgName = formatter.formatAsMessageName(rosmsg.getRosVersion(), msgFile.name());
+        if (fieldsCount == 0) {
+            return new MessageDefinition(rosmsg.getRosVersion(), msgName);
+        }
+        var pos = Math.max(firstBlankLine, 0);
+        var msgCommentElements = new ArrayList<RosElement>();
+        if (pos < firstField) {
+            // looks like there are comments on the top of the file which are
+            // separated from the rest of text with empty line
+            // We decide that they does not belong to the field so we use them
+            // as message definition comments
+            msgCommentElements.addAll(elements.subList(0, pos));
+        } else {
+            pos = 0;
+        }
+        if (fieldsCount > 1 && !commentsAfterFirstField) {
+            // if there are many fields and only one comment on the top
+            // then
+            msgCommentElements.addAll(elements.subList(0, firstField));
+            pos = firstField;
+        }
+        var def =
+                new MessageDefinition(
+                        rosmsg.getRosVersion(), msgName, formatMessageComment(msgCommentElements));
+        readDeclarations(def, elements.subList(pos, elements.size()));
+        return def;
+    }
+
+    private String formatMessageComment(List<RosElement> elements) {
+        var buf = new StringBuilder();
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) buf.append('\n');
+            if (elements.get(i) instanceof Comment comment)
+                buf.append(cleanComment(comment.text()));
+        }
+        return buf.toString();
+    }
+
+    private void readDeclarations(MessageDefinition def, List<RosElement> elements) {
+        var commentBuf = new StringBuilder();
+        EnumDefinition curEnum = null;
+        for (var element : elements) {
+            if (element instanceof Comment comment) {
+                addCommentLine(commentBuf, comment.text());
+                continue;
+            }
+            if (!(element instanceof Declaration declaration)) continue;
+            if (!declaration.comment().isEmpty()) addCommentLine(commentBuf, declaration.comment());
+            var type = declaration.type();
+            var name = declaration.name();
+            var value = declaration.value();
+            var comment = commentBuf.toString();
+            commentBuf.setLength(0);
+            // integer default values of the fields (ROS2) are not constants
+            if (declaration.constant() && isInteger(value)) {
+                var id = Integer.parseInt(value);
+                if (id == 0) {
+                    if (curEnum != null) def.addEnum(curEnum);
+                    curEnum = new EnumDefinition(rosmsg.getRosVersion());
+                }
+                if (curEnum == null) {
+                    def.addConstant(
+                            new Field(
+                                    rosmsg.getRosVersion(),
+                                    name,
+                                    type,
+                                    Integer.toString(id),
+                                    true,
+                                    comment));
+                    continue;
+                } else if (id == curEnum.getFields().size()) {
+                    def.addEnumField(curEnum, type, name, value, comment);
+                    continue;
+                }
+            }
+            def.addField(type, name, value, declaration.constant(), comment);
+        }
+        if (curEnum != null && !curEnum.getFields().isEmpty()) def.addEnum(curEnum);
+    }
+
+    /** Checks if the value can be parsed with {@link Integer#parseInt(String)} */
+    private static boolean isInteger(String value) {
+        var length = value.length();
+        if (length == 0) return false;
+        var start = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+        if (start == length) return false;
+        var result = 0L;
+        for (int i = start; i < length; i++) {
+            var ch = value.charAt(i);
+            if (ch < '0' || ch > '9') return false;
+            result = result * 10 + (ch - '0');
+            if (result > (long) Integer.MAX_VALUE + 1) return false;
+        }
+        return start == 1 && value.charAt(0) == '-' || result <= Integer.MAX_VALUE;
+    }
+
+    private void addCommentLine(StringBuilder commentBuf, String comment) {
+        commentBuf.append(cleanComment(comment)).append('\n');
+    }
+
+    /** Escape HTML characters so that comment can be used inside Javadoc */
+    private String cleanComment(String comment) {
+        var text = comment.trim();
+        StringBuilder buf = null;
+        for (int i = 0; i < text.length(); i++) {
+            var ch = text.charAt(i);
+            var replacement =
+                    switch (ch) {
+                        case '&' -> "&amp;";
+                        case '<' -> "&lt;";
+                        case '>' -> "&gt;";
+                        default -> null;
+                    };
+            if (replacement == null) {
+                if (buf != null) buf.append(ch);
+                continue;
+            }
+            if (buf == null) buf = new StringBuilder(text.length() + 16).append(text, 0, i);
+            buf.append(replacement);
+        }
+        return buf == null ? text : buf.toString();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Generates pool of the message instances together with the code of the message methods which it
+ * relies on:
+ *
+ * <ul>
+ *   <li>reset() - restores default values of all fields in place
+ *   <li>copyFrom(other) - deep copy of the other message into the existing nested messages and
+ *       arrays
+ * </ul>
+ *
+ * <p>Neither of the methods allocates unless the length of the arrays changes. Fixed size arrays
+ * are reset in place. Plain Java arrays cannot have capacity bigger than their length so reset()
+ * replaces non empty variable size arrays with the empty ones. In array buffers mode (see {@link
+ * JRosMessageGenerator#setGenerateArrayBuffers(boolean)}) arrays of the primitive types keep their
+ * capacity on reset() and are reallocated by copyFrom(other) only when it is not enough.
+ *
+ * <p>Nested messages are reset and copied with their own methods, so those should be generated too
+ * (ex. in workspace mode).
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MessagePoolGenerator implements CodecGenerator {
+    public static final String POOL_SUFFIX = "Pool";
+
+    /**
+     * Default values of the primitive types which are not assignable from int literal when passed
+     * to {@link java.util.Arrays#fill}
+     */
+    private static final Map<String, String> FILL_VALUES =
+            Map.of("boolean", "false", "byte", "(byte) 0", "short", "(short) 0");
+
+    private RosVersion rosVersion;
+    private CodecUtils codecUtils;
+
+    /**
+     * @param arrayBuffers whether message classes are generated in array buffers mode
+     * @param nativeStrings whether message classes are generated in native strings mode
+     */
+    public MessagePoolGenerator(
+            RosVersion rosVersion, boolean arrayBuffers, boolean nativeStrings) {
+        this.rosVersion = rosVersion;
+        // pool refers only to the message class itself
+        codecUtils =
+                new CodecUtils(Field::getJavaFullType, POOL_SUFFIX, arrayBuffers, nativeStrings);
+    }
+
+    @Override
+    public String getCodecSuffix() {
+        return POOL_SUFFIX;
+    }
+
+    @Override
+    public String renderJavaClass(
+            MessageDefinition definition, Path packageName, String messageClassName) {
+        // message class has no reset() and copyFrom() when any of its fields is not supported
+        resetStatements(definition);
+        return codecUtils.renderJavaClass(
+                definition,
+                packageName,
+                messageClassName,
+                "pool_imports",
+                "message_pool",
+                Map.of(),
+                Map.of());
+    }
+
+    /** Body of the reset() method of the message class */
+    List<String> resetStatements(MessageDefinition definition) {
+        var statements = new ArrayList<String>();
+        for (var field : definition.getFields()) {
+            var value = "this." + field.getName();
+            if (!field.hasArrayType()) {
+                statements.addAll(reset(field, value));
+            } else if (codecUtils.bufferType(field).isPresent()) {
+                statements.add("%s.clear().limit(0);".formatted(value));
+            } else if (field.getArraySize() == 0) {
+                // default value of the variable size arrays is the empty array
+                statements.add(
+                        "if (%s.length != 0) %s = new %s[0];"
+                                .formatted(value, value, simpleJavaType(field)));
+            } else if (field.hasPrimitiveType()) {
+                statements.add(
+                        "Arrays.fill(%s, %s);"
+                                .formatted(
+                                        value, FILL_VALUES.getOrDefault(field.getJavaType(), "0")));
+            } else {
+                statements.add("for (int i = 0; i < %s.length; i++) {".formatted(value));
+                reset(field, value + "[i]")
+                        .forEach(statement -> statements.add("    " + statement));
+                statements.add("}");
+            }
+        }
+        return statements;
+    }
+
+    /** Body of the copyFrom(other) method of the message class */
+    List<String> copyFromStatements(MessageDefinition definition) {
+        var statements = new ArrayList<String>();
+        for (var field : definition.getFields()) {
+            var value = "this." + field.getName();
+            var otherValue = "other." + field.getName();
+            if (!field.hasArrayType()) {
+                statements.addAll(copy(field, value, otherValue));
+                continue;
+            }
+            var type = simpleJavaType(field);
+            var bufferType = codecUtils.bufferType(field);
+            if (bufferType.isPresent()) {
+                var length = otherValue + ".limit()";
+                statements.add(
+                        "if (%s.capacity() < %s) %s = %s.allocate(%s);"
+                                .formatted(value, length, value, bufferType.get(), length));
+                statements.add("%s.clear().limit(%s);".formatted(value, length));
+                statements.add("%s.put(0, %s, 0, %s);".formatted(value, otherValue, length));
+                continue;
+            }
+            if (!codecUtils.isMutable(field)) {
+                statements.add(
+                        "if (%s.length != %s.length) %s = new %s[%s.length];"
+                                .formatted(value, otherValue, value, type, otherValue));
+                statements.add(
+                        "System.arraycopy(%s, 0, %s, 0, %s.length);"
+                                .formatted(otherValue, value, value));
+                continue;
+            }
+            // existing elements are kept and only missing ones are allocated
+            statements.add("if (%s.length != %s.length) {".formatted(value, otherValue));
+            statements.add(
+                    "    var resized = Arrays.copyOf(%s, %s.length);".formatted(value, otherValue));
+            statements.add(
+                    "    for (int i = %s.length; i < resized.length; i++) resized[i] = new %s();"
+                            .formatted(value, type));
+            statements.add("    %s = resized;".formatted(value));
+            statements.add("}");
+            statements.add("for (int i = 0; i < %s.length; i++) {".formatted(value));
+            copy(field, value + "[i]", otherValue + "[i]")
+                    .forEach(statement -> statements.add("    " + statement));
+            statements.add("}");
+        }
+        return statements;
+    }
+
+    /** Reset single value of the field type (or of its element type when field is an array) */
+    private List<String> reset(Field field, String value) {
+        var defaults = leafDefaults(field);
+        if (defaults.isEmpty()) return List.of("%s.reset();".formatted(value));
+        return defaults.entrySet().stream()
+                .map(e -> "%s%s = %s;".formatted(value, e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /** Copy single value of the field type (or of its element type when field is an array) */
+    private List<String> copy(Field field, String value, String otherValue) {
+        var defaults = leafDefaults(field);
+        if (defaults.isEmpty()) return List.of("%s.copyFrom(%s);".formatted(value, otherValue));
+        return defaults.keySet().stream()
+                .map(path -> "%s%s = %s%s;".formatted(value, path, otherValue, path))
+                .toList();
+    }
+
+    /**
+     * Fields of primitive and immutable types which hold the state of the value of the given field
+     * type, mapped to their default values. Paths of such fields are relative to the value (ex.
+     * ".stamp.sec" for the Header).
+     *
+     * @return empty map for messages which have their own reset() and copyFrom() methods
+     */
+    private Map<String, String> leafDefaults(Field field) {
+        var defaults = new LinkedHashMap<String, String>();
+        switch (codecUtils.kind(field)) {
+            case PRIMITIVE ->
+                    defaults.put("", field.getJavaType().equals("boolean") ? "false" : "0");
+            case TIME -> {
+                defaults.put(".sec", "0");
+                defaults.put(".nanosec", "0");
+            }
+            case HEADER -> {
+                if (rosVersion == RosVersion.ros1) defaults.put(".seq", "0");
+                defaults.put(".stamp.sec", "0");
+                defaults.put(".stamp.nanosec", "0");
+                defaults.put(".frame_id.data", "\"\"");
+            }
+            case STRING -> defaults.put(codecUtils.textOf(field, ""), "\"\"");
+            case MESSAGE -> {}
+        }
+        return defaults;
+    }
+
+    /** Java type of the field (or of its elements) as it is imported by the message class */
+    private String simpleJavaType(Field field) {
+        return codecUtils.isNativeString(field) ? "String" : field.getJavaType();
+    }
+}
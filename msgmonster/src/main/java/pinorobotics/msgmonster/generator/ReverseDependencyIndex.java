@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import pinorobotics.msgmonster.ros.RosFile;
+
+/**
+ * Index which allows to find all ROS files which embed the given ROS files into their fields
+ * (directly or through other messages). Classes generated for them depend on the definitions of the
+ * embedded messages (ex. ROS1 MD5 sums, ROS2 type hashes) and need to be regenerated when they
+ * change.
+ *
+ * <p>Index is not thread safe.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class ReverseDependencyIndex {
+    private DependencyResolver resolver;
+    private Map<RosFile, Set<RosFile>> dependencies = new HashMap<>();
+    private Map<RosFile, Set<RosFile>> dependents = new HashMap<>();
+
+    public ReverseDependencyIndex(DependencyResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /** Add ROS file to the index or, if it is already there, read its dependencies again */
+    public void update(RosFile rosFile) {
+        remove(rosFile);
+        var rosFileDependencies = resolver.findDependencies(rosFile);
+        dependencies.put(rosFile, rosFileDependencies);
+        for (var dependency : rosFileDependencies)
+            dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(rosFile);
+    }
+
+    /**
+     * Remove ROS file from the index. ROS files which depend on it still stay in the index as its
+     * dependents.
+     */
+    public void remove(RosFile rosFile) {
+        var rosFileDependencies = dependencies.remove(rosFile);
+        if (rosFileDependencies == null) return;
+        for (var dependency : rosFileDependencies) {
+            var dependencyDependents = dependents.get(dependency);
+            dependencyDependents.remove(rosFile);
+            if (dependencyDependents.isEmpty()) dependents.remove(dependency);
+        }
+    }
+
+    /**
+     * @return ROS files which embed any of the given ROS files directly or indirectly, excluding
+     *     given ROS files themselves
+     */
+    public Set<RosFile> findDependents(Collection<RosFile> rosFiles) {
+        var result = new LinkedHashSet<RosFile>();
+        var queue = new ArrayDeque<>(rosFiles);
+        while (!queue.isEmpty()) {
+            for (var dependent : dependents.getOrDefault(queue.poll(), Set.of())) {
+                if (result.add(dependent)) queue.add(dependent);
+            }
+        }
+        result.removeAll(rosFiles);
+        return result;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Generates ROS1 (TCPROS) codec for the message: the class with straight-line code which serializes
+ * and deserializes each of the message fields without reflection or boxing.
+ *
+ * <p>Fields of the nested messages are handled by their own codecs, so they should be generated too
+ * (ex. in workspace mode). Fields of the messages provided by jrosmessages (Header, Time, Duration,
+ * strings) are handled by the codec itself.
+ *
+ * @see <a href="https://wiki.ros.org/msg#Fields">ROS1 message serialization</a>
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class Ros1CodecGenerator implements CodecGenerator {
+    public static final String CODEC_SUFFIX = "Ros1Codec";
+
+    /** Size of the array length prefix and of the string length prefix */
+    private static final int LENGTH_SIZE = 4;
+
+    private static final int TIME_SIZE = 8;
+
+    private CodecUtils codecUtils;
+
+    /** Code of the codec methods */
+    private static class Sections {
+        int fixedSize;
+        List<String> size = new ArrayList<>();
+        List<String> write = new ArrayList<>();
+        List<String> read = new ArrayList<>();
+    }
+
+    /**
+     * @param javaTypeResolver returns full name of the Java class of the field which type is
+     *     defined in other ROS package
+     * @param arrayBuffers whether message classes are generated in array buffers mode (see {@link
+     *     JRosMessageGenerator#setGenerateArrayBuffers(boolean)})
+     * @param nativeStrings whether message classes are generated in native strings mode (see {@link
+     *     JRosMessageGenerator#setGenerateNativeStrings(boolean)})
+     */
+    public Ros1CodecGenerator(
+            Function<Field, String> javaTypeResolver, boolean arrayBuffers, boolean nativeStrings) {
+        codecUtils = new CodecUtils(javaTypeResolver, CODEC_SUFFIX, arrayBuffers, nativeStrings);
+    }
+
+    @Override
+    public String getCodecSuffix() {
+        return CODEC_SUFFIX;
+    }
+
+    @Override
+    public String renderJavaClass(
+            MessageDefinition definition, Path packageName, String messageClassName) {
+        var sections = new Sections();
+        for (var field : definition.getFields()) generateField(sections, field);
+        return codecUtils.renderJavaClass(
+                definition,
+                packageName,
+                messageClassName,
+                "codec_imports",
+                "ros1_codec",
+                Map.of("fixedSize", "" + sections.fixedSize),
+                Map.of(
+                        "size", sections.size,
+                        "write", sections.write,
+                        "read", sections.read));
+    }
+
+    private void generateField(Sections sections, Field field) {
+        var value = "message." + field.getName();
+        if (!field.hasArrayType()) {
+            var size = fixedSize(field);
+            if (size >= 0) sections.fixedSize += size;
+            else sections.size.add("size += %s;".formatted(sizeOf(field, value)));
+            sections.write.addAll(writeValue(field, value));
+            sections.read.addAll(readValue(field, value));
+            return;
+        }
+        var arraySize = field.getArraySize();
+        var elementSize = fixedSize(field);
+        if (arraySize > 0) {
+            if (elementSize >= 0) sections.fixedSize += arraySize * elementSize;
+            sections.write.add(
+                    "Preconditions.equals(%d, %s.length, \"Invalid size of %s\");"
+                            .formatted(arraySize, value, field.getName()));
+        } else {
+            var length = codecUtils.lengthOf(field, value);
+            sections.fixedSize += LENGTH_SIZE;
+            if (elementSize == 1) sections.size.add("size += %s;".formatted(length));
+            else if (elementSize > 0)
+                sections.size.add("size += %s * %d;".formatted(length, elementSize));
+            sections.write.add("buf.putInt(%s);".formatted(length));
+        }
+        if (elementSize < 0)
+            sections.size.add(
+                    "for (var item : %s) size += %s;".formatted(value, sizeOf(field, "item")));
+        var javaType = codecUtils.javaType(field);
+        var primitiveType = CodecUtils.PRIMITIVE_TYPES.get(javaType);
+        sections.read.add("{");
+        sections.read.add(
+                arraySize > 0
+                        ? "    int length = %d;".formatted(arraySize)
+                        : "    int length = buf.getInt();");
+        codecUtils.prepareArray(field, value).forEach(s -> sections.read.add("    " + s));
+        if (primitiveType != null && !javaType.equals("boolean")) {
+            sections.write.addAll(codecUtils.bulkWrite(field, value));
+            codecUtils.bulkRead(field, value).forEach(s -> sections.read.add("    " + s));
+        } else {
+            sections.write.add("for (var item : %s) {".formatted(value));
+            writeValue(field, "item").forEach(s -> sections.write.add("    " + s));
+            sections.write.add("}");
+            sections.read.add("    for (int i = 0; i < length; i++) {");
+            var item = value + "[i]";
+            if (codecUtils.isMutable(field))
+                sections.read.add(
+                        "        if (%s == null) %s = new %s();".formatted(item, item, javaType));
+            readValue(field, item).forEach(s -> sections.read.add("        " + s));
+            sections.read.add("    }");
+        }
+        sections.read.add("}");
+    }
+
+    /** Size in bytes of the single value of the field type or -1 when it depends on the value */
+    private int fixedSize(Field field) {
+        if (field.hasPrimitiveType())
+            return CodecUtils.PRIMITIVE_TYPES.get(field.getJavaType()).size();
+        if (field.hasBasicType()) return TIME_SIZE;
+        return -1;
+    }
+
+    /** Expression which calculates size of the single value of the field type */
+    private String sizeOf(Field field, String value) {
+        return switch (codecUtils.kind(field)) {
+            case HEADER ->
+                    "%d + sizeOf(%s.frame_id.data)"
+                            .formatted(LENGTH_SIZE + LENGTH_SIZE + TIME_SIZE, value);
+            case STRING ->
+                    "%d + sizeOf(%s)".formatted(LENGTH_SIZE, codecUtils.textOf(field, value));
+            case MESSAGE -> "%s.size(%s)".formatted(codecUtils.codecClassName(field), value);
+            default -> "" + fixedSize(field);
+        };
+    }
+
+    private List<String> writeValue(Field field, String value) {
+        return switch (codecUtils.kind(field)) {
+            case PRIMITIVE -> {
+                if (field.getJavaType().equals("boolean"))
+                    yield List.of("buf.put((byte) (%s ? 1 : 0));".formatted(value));
+                yield List.of(
+                        "buf.put%s(%s);"
+                                .formatted(
+                                        CodecUtils.PRIMITIVE_TYPES
+                                                .get(field.getJavaType())
+                                                .accessor(),
+                                        value));
+            }
+            case TIME ->
+                    List.of(
+                            "buf.putInt(%s.sec);".formatted(value),
+                            "buf.putInt(%s.nanosec);".formatted(value));
+            case HEADER ->
+                    List.of(
+                            "buf.putInt(%s.seq);".formatted(value),
+                            "buf.putInt(%s.stamp.sec);".formatted(value),
+                            "buf.putInt(%s.stamp.nanosec);".formatted(value),
+                            "writeString(buf, %s.frame_id.data);".formatted(value));
+            case STRING ->
+                    List.of("writeString(buf, %s);".formatted(codecUtils.textOf(field, value)));
+            case MESSAGE ->
+                    List.of(
+                            "%s.write(%s, buf);"
+                                    .formatted(codecUtils.codecClassName(field), value));
+        };
+    }
+
+    private List<String> readValue(Field field, String value) {
+        return switch (codecUtils.kind(field)) {
+            case PRIMITIVE -> {
+                if (field.getJavaType().equals("boolean"))
+                    yield List.of("%s = buf.get() != 0;".formatted(value));
+                yield List.of(
+                        "%s = buf.get%s();"
+                                .formatted(
+                                        value,
+                                        CodecUtils.PRIMITIVE_TYPES
+                                                .get(field.getJavaType())
+                                                .accessor()));
+            }
+            case TIME ->
+                    List.of(
+                            "%s.sec = buf.getInt();".formatted(value),
+                            "%s.nanosec = buf.getInt();".formatted(value));
+            case HEADER ->
+                    List.of(
+                            "%s.seq = buf.getInt();".formatted(value),
+                            "%s.stamp.sec = buf.getInt();".formatted(value),
+                            "%s.stamp.nanosec = buf.getInt();".formatted(value),
+                            "%s.frame_id.data = readString(buf);".formatted(value));
+            case STRING ->
+                    List.of("%s = readString(buf);".formatted(codecUtils.textOf(field, value)));
+            case MESSAGE ->
+                    List.of("%s.read(buf, %s);".formatted(codecUtils.codecClassName(field), value));
+        };
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import id.xfunction.Checksum;
+import id.xfunction.function.Unchecked;
+import id.xfunction.logging.XLogger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosMsgCommand;
+
+/**
+ * Calculates MD5 sum of ROS1 messages in the same way as genmsg does it.
+ *
+ * <p>MD5 sum is calculated over the text of the message where all constants go first and then
+ * fields follow. Types of nested messages are replaced with MD5 sums of these messages.
+ *
+ * <p>MD5 sums of all messages are memoized so that definitions of nested messages are read and
+ * processed only once. Calculator is thread safe and can be shared between generators.
+ *
+ * @see <a
+ *     href="https://wiki.ros.org/ROS/Technical%20Overview#Message_serialization_and_msg_MD5_sums">Message
+ *     serialization and msg MD5 sums</a>
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class Ros1Md5Calculator {
+    private static final XLogger LOGGER = XLogger.getLogger(Ros1Md5Calculator.class);
+    private Map<String, String> md5sums = new ConcurrentHashMap<>();
+    private MessageDefinitionReader reader;
+
+    /**
+     * @param rosmsg command which is used to read definitions of the nested messages
+     */
+    public Ros1Md5Calculator(RosMsgCommand rosmsg) {
+        reader = new MessageDefinitionReader(rosmsg);
+    }
+
+    public String calcMd5Sum(MessageDefinition definition) {
+        var md5sum = Unchecked.get(() -> Checksum.md5(calcMd5Text(definition)));
+        md5sums.put(definition.getName(), md5sum);
+        return md5sum;
+    }
+
+    /**
+     * @param messageName full name of ROS message (ex. std_msgs/Header)
+     */
+    public String calcMd5Sum(String messageName) {
+        var md5sum = md5sums.get(messageName);
+        if (md5sum != null) return md5sum;
+        LOGGER.fine("Calculating MD5 sum for nested message {0}", messageName);
+        return calcMd5Sum(reader.read(new RosFile(messageName, RosInterfaceType.MESSAGE)));
+    }
+
+    /**
+     * Text for MD5 calculation. Constants are written as "type name=value", fields with built-in
+     * types as "type name" and fields with the message types as "md5sum name". Value of the string
+     * constant is the whole text after "=", including "#".
+     */
+    public String calcMd5Text(MessageDefinition definition) {
+        var buf = new StringBuilder();
+        for (var constant : definition.getConstants()) {
+            buf.append(
+                    String.format(
+                            "%s %s=%s\n",
+                            constant.getType(), constant.getName(), constant.getValue()));
+        }
+        var packageName = definition.getName().replaceAll("/.*", "");
+        for (var field : definition.getFields()) {
+            if (field.isConstant()) continue;
+            var type =
+                    isBuiltInType(field)
+                            ? field.getRosType()
+                            : calcMd5Sum(resolveMessageName(packageName, field));
+            buf.append(String.format("%s %s\n", type, field.getName()));
+        }
+        return buf.toString().strip();
+    }
+
+    private boolean isBuiltInType(Field field) {
+        return field.hasPrimitiveType() || field.hasBasicType() || field.getType().equals("string");
+    }
+
+    private String resolveMessageName(String packageName, Field field) {
+        var type = field.getType();
+        if (type.equals("Header")) return "std_msgs/Header";
+        if (field.hasForeignType()) return type;
+        return packageName + "/" + type;
+    }
+}
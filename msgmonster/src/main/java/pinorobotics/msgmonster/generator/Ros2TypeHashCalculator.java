@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import id.xfunction.logging.XLogger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import pinorobotics.msgmonster.ros.RosFile;
+import pinorobotics.msgmonster.ros.RosInterfaceType;
+import pinorobotics.msgmonster.ros.RosMsgCommand;
+import pinorobotics.msgmonster.utils.MsgMonsterUtils;
+
+/**
+ * Calculates ROS2 type hashes (RIHS01) in the same way as rosidl_generator_type_description does
+ * it.
+ *
+ * <p>Type hash is SHA-256 over the JSON representation of the type description of the message
+ * together with the type descriptions of all messages it references (directly or indirectly).
+ * Constants and default values are not part of it.
+ *
+ * <p>Type descriptions of all messages are memoized so that definitions of nested messages are read
+ * and processed only once. Calculator is thread safe and can be shared between generators.
+ *
+ * @see <a href="https://ros.org/reps/rep-2011.html#type-description-distribution">REP-2011</a>
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class Ros2TypeHashCalculator {
+    private static final XLogger LOGGER = XLogger.getLogger(Ros2TypeHashCalculator.class);
+    private static final String HASH_PREFIX = "RIHS01_";
+
+    /** Ids from type_description_interfaces/msg/FieldType */
+    private static final Map<String, Integer> TYPE_IDS =
+            Map.ofEntries(
+                    Map.entry("int8", 2),
+                    Map.entry("uint8", 3),
+                    Map.entry("char", 3),
+                    Map.entry("int16", 4),
+                    Map.entry("uint16", 5),
+                    Map.entry("int32", 6),
+                    Map.entry("uint32", 7),
+                    Map.entry("int64", 8),
+                    Map.entry("uint64", 9),
+                    Map.entry("float32", 10),
+                    Map.entry("float64", 11),
+                    Map.entry("bool", 15),
+                    Map.entry("byte", 16),
+                    Map.entry("string", 17),
+                    Map.entry("wstring", 18));
+
+    /** Suffixes of the service and action message names as they are generated by msgmonster */
+    private static final Map<String, String> SUFFIXES =
+            Map.of(
+                    JRosConstants.SERVICE_REQUEST,
+                    "_Request",
+                    JRosConstants.SERVICE_RESPONSE,
+                    "_Response",
+                    "Goal",
+                    "_Goal",
+                    "Result",
+                    "_Result",
+                    "Feedback",
+                    "_Feedback");
+
+    private static final String EMPTY_MESSAGE_FIELD = "structure_needs_at_least_one_member";
+    private static final int NESTED_TYPE = 1;
+    private static final int BOUNDED_STRING = 21;
+    private static final int BOUNDED_WSTRING = 22;
+    private static final int ARRAY_OFFSET = 48;
+    private static final int BOUNDED_SEQUENCE_OFFSET = 96;
+    private static final int UNBOUNDED_SEQUENCE_OFFSET = 144;
+
+    /** Types which are not part of the message package */
+    private static final Map<String, String> WELL_KNOWN_TYPES =
+            Map.of(
+                    "Header", "std_msgs/msg/Header",
+                    "time", "builtin_interfaces/msg/Time",
+                    "Time", "builtin_interfaces/msg/Time",
+                    "duration", "builtin_interfaces/msg/Duration",
+                    "Duration", "builtin_interfaces/msg/Duration");
+
+    /**
+     * Type description of the message without the referenced types
+     *
+     * @param json JSON of the type description
+     * @param referencedTypes names of all types which this type references (directly or indirectly)
+     */
+    private record TypeDescription(String json, Set<String> referencedTypes) {}
+
+    private Map<String, TypeDescription> descriptions = new ConcurrentHashMap<>();
+    private MessageDefinitionReader reader;
+
+    /**
+     * @param rosmsg command which is used to read definitions of the nested messages
+     */
+    public Ros2TypeHashCalculator(RosMsgCommand rosmsg) {
+        reader = new MessageDefinitionReader(rosmsg);
+    }
+
+    /**
+     * @param rosFile ROS file of the message definition, used to obtain full ROS2 type name of the
+     *     message (ex. std_msgs/msg/String)
+     */
+    public String calcTypeHash(RosFile rosFile, MessageDefinition definition) {
+        var typeName = formatAsTypeName(rosFile);
+        var description = describe(typeName, definition);
+        var json = calcHashableJson(description);
+        LOGGER.fine("Type description of {0}: {1}", typeName, json);
+        return HASH_PREFIX + MsgMonsterUtils.sha256(json);
+    }
+
+    private String calcHashableJson(TypeDescription description) {
+        return String.format(
+                "{\"type_description\": %s, \"referenced_type_descriptions\": [%s]}",
+                description.json(),
+                description.referencedTypes().stream()
+                        .map(this::describe)
+                        .map(TypeDescription::json)
+                        .collect(Collectors.joining(", ")));
+    }
+
+    private TypeDescription describe(String typeName) {
+        var description = descriptions.get(typeName);
+        if (description != null) return description;
+        LOGGER.fine("Reading type description for nested message {0}", typeName);
+        return describe(typeName, reader.read(new RosFile(typeName, RosInterfaceType.MESSAGE)));
+    }
+
+    private TypeDescription describe(String typeName, MessageDefinition definition) {
+        var packageName = typeName.replaceAll("/.*", "");
+        var referencedTypes = new TreeSet<String>();
+        var fields = new ArrayList<String>();
+        for (var field : definition.getFields()) {
+            // fields with default values are hashed as the other fields, only constants are skipped
+            if (field.isConstant()) continue;
+            var type = field.getType();
+            var typeId = 0;
+            var stringCapacity = 0;
+            var nestedTypeName = "";
+            if (TYPE_IDS.containsKey(type)) {
+                typeId = TYPE_IDS.get(type);
+            } else if (type.matches("w?string<=\\d+")) {
+                typeId = type.startsWith("w") ? BOUNDED_WSTRING : BOUNDED_STRING;
+                stringCapacity = Integer.parseInt(type.replaceAll(".*<=", ""));
+            } else {
+                typeId = NESTED_TYPE;
+                nestedTypeName = resolveTypeName(packageName, type);
+                referencedTypes.add(nestedTypeName);
+                referencedTypes.addAll(describe(nestedTypeName).referencedTypes());
+            }
+            var capacity = 0;
+            if (field.getArrayBound() > 0) {
+                capacity = field.getArrayBound();
+                typeId += BOUNDED_SEQUENCE_OFFSET;
+            } else if (field.hasArrayType()) {
+                capacity = field.getArraySize();
+                typeId += capacity > 0 ? ARRAY_OFFSET : UNBOUNDED_SEQUENCE_OFFSET;
+            }
+            fields.add(
+                    formatField(field.getName(), typeId, capacity, stringCapacity, nestedTypeName));
+        }
+        // ROS2 does not allow empty structures so empty messages have a dummy field
+        if (fields.isEmpty())
+            fields.add(formatField(EMPTY_MESSAGE_FIELD, TYPE_IDS.get("uint8"), 0, 0, ""));
+        var description =
+                new TypeDescription(
+                        String.format(
+                                "{\"type_name\": \"%s\", \"fields\": [%s]}",
+                                typeName, String.join(", ", fields)),
+                        referencedTypes);
+        descriptions.put(typeName, description);
+        return description;
+    }
+
+    private String formatField(
+            String name, int typeId, int capacity, int stringCapacity, String nestedTypeName) {
+        return String.format(
+                "{\"name\": \"%s\", \"type\": {\"type_id\": %d, \"capacity\": %d,"
+                        + " \"string_capacity\": %d, \"nested_type_name\": \"%s\"}}",
+                name, typeId, capacity, stringCapacity, nestedTypeName);
+    }
+
+    private String resolveTypeName(String packageName, String type) {
+        var wellKnownType = WELL_KNOWN_TYPES.get(type);
+        if (wellKnownType != null) return wellKnownType;
+        var path = Path.of(type);
+        return switch (path.getNameCount()) {
+            case 1 -> packageName + "/msg/" + type;
+            case 2 -> path.getName(0) + "/msg/" + path.getName(1);
+            default -> type;
+        };
+    }
+
+    /**
+     * ROS2 type names of service and action messages have suffixes separated with "_" (ex.
+     * example_interfaces/srv/AddTwoInts_Request, example_interfaces/action/Fibonacci_Goal)
+     */
+    private String formatAsTypeName(RosFile rosFile) {
+        var name = rosFile.name();
+        var typeName = name.toString();
+        if (name.getNameCount() != 3 || name.getName(1).toString().equals("msg")) return typeName;
+        for (var suffix : SUFFIXES.entrySet()) {
+            if (typeName.endsWith(suffix.getKey()))
+                return typeName.substring(0, typeName.length() - suffix.getKey().length())
+                        + suffix.getValue();
+        }
+        return typeName;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Template which is compiled once into the sequence of literal text segments and placeholders
+ * ("${name}"), so that rendering it only appends segments to the output.
+ *
+ * <p>Placeholders for which no value is provided are rendered as is.
+ *
+ * <p>Templates are thread safe and can be shared between generators.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class Template {
+    private static final String PLACEHOLDER_START = "${";
+    private static final String PLACEHOLDER_END = "}";
+
+    /**
+     * Literals and placeholder names follow each other: literal[0], placeholder[0], literal[1],
+     * ..., placeholder[N-1], literal[N]
+     */
+    private String[] literals;
+
+    private String[] placeholders;
+    private List<Template> lines;
+
+    private Template(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    public static Template compile(String text) {
+        var literals = new ArrayList<String>();
+        var placeholders = new ArrayList<String>();
+        var pos = 0;
+        while (true) {
+            var start = text.indexOf(PLACEHOLDER_START, pos);
+            var end = start < 0 ? -1 : text.indexOf(PLACEHOLDER_END, start);
+            if (end < 0) break;
+            literals.add(text.substring(pos, start));
+            placeholders.add(text.substring(start + PLACEHOLDER_START.length(), end));
+            pos = end + PLACEHOLDER_END.length();
+        }
+        literals.add(text.substring(pos));
+        return new Template(literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    /**
+     * @param values returns value of the placeholder with the given name (without "${", "}") or
+     *     null if there is no such value
+     */
+    public void render(StringBuilder out, Function<String, String> values) {
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            var value = values.apply(placeholders[i]);
+            if (value != null) out.append(value);
+            else out.append(PLACEHOLDER_START).append(placeholders[i]).append(PLACEHOLDER_END);
+        }
+        out.append(literals[placeholders.length]);
+    }
+
+    public String render(Function<String, String> values) {
+        var out = new StringBuilder();
+        render(out, values);
+        return out.toString();
+    }
+
+    public String render(Map<String, String> values) {
+        return render(values::get);
+    }
+
+    public boolean hasPlaceholder(String name) {
+        for (var placeholder : placeholders) if (placeholder.equals(name)) return true;
+        return false;
+    }
+
+    /** Same template compiled line by line */
+    public synchronized List<Template> lines() {
+        if (lines != null) return lines;
+        var text = render(name -> null);
+        // keep trailing empty lines
+        lines = Arrays.stream(text.split("\n", -1)).map(Template::compile).toList();
+        return lines;
+    }
+
+    /** Leading whitespaces of the template */
+    public String getIdent() {
+        var text = literals[0];
+        return text.substring(0, text.length() - text.stripLeading().length());
+    }
+}
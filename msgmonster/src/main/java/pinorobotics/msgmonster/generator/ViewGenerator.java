@@ -0,0 +1,432 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.generator;
+
+import id.xfunction.lang.XRE;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import pinorobotics.msgmonster.generator.CodecUtils.Kind;
+import pinorobotics.msgmonster.generator.CodecUtils.PrimitiveType;
+import pinorobotics.msgmonster.ros.RosVersion;
+
+/**
+ * Generates zero-copy view for the message: flyweight which wraps the buffer with the serialized
+ * message (ROS1 wire format or XCDR1 little-endian for ROS2) and decodes its fields only when they
+ * are accessed.
+ *
+ * <p>Fields are decoded directly from the buffer at their offsets. Offsets of the fields which
+ * follow fixed size fields only are calculated at generation time, offsets of all other fields are
+ * calculated on first access. Arrays of primitive types are returned as slices of the buffer.
+ * Fields of the Time, Duration and Header types are accessed through the separate accessor for each
+ * of their fields (ex. "header_stamp_sec()") so that none of the accessors of primitive fields
+ * allocates.
+ *
+ * <p>Fields of the nested messages are returned as their own views, so those should be generated
+ * too (ex. in workspace mode).
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class ViewGenerator implements CodecGenerator {
+    public static final String VIEW_SUFFIX = "View";
+
+    /** Size of the array length prefix and of the string length prefix */
+    private static final int LENGTH_SIZE = 4;
+
+    /** Time and Duration consist of two 32-bit integers */
+    private static final int TIME_SIZE = 8;
+
+    /** Java types of the slices of the primitive arrays */
+    private static final Map<String, String> SLICE_TYPES =
+            Map.of(
+                    "boolean", "ByteBuffer",
+                    "byte", "ByteBuffer",
+                    "short", "ShortBuffer",
+                    "int", "IntBuffer",
+                    "long", "LongBuffer",
+                    "float", "FloatBuffer",
+                    "double", "DoubleBuffer");
+
+    private RosVersion rosVersion;
+    private CodecUtils codecUtils;
+
+    /** Code of the view */
+    private static class Sections {
+        List<String> viewFields = new ArrayList<>();
+        List<String> accessors = new ArrayList<>();
+        List<String> skip = new ArrayList<>();
+    }
+
+    /**
+     * @param javaTypeResolver returns full name of the Java class of the field which type is
+     *     defined in other ROS package
+     */
+    public ViewGenerator(RosVersion rosVersion, Function<Field, String> javaTypeResolver) {
+        this.rosVersion = rosVersion;
+        codecUtils = new CodecUtils(javaTypeResolver, VIEW_SUFFIX, false, false);
+    }
+
+    @Override
+    public String getCodecSuffix() {
+        return VIEW_SUFFIX;
+    }
+
+    @Override
+    public String renderJavaClass(
+            MessageDefinition definition, Path packageName, String messageClassName) {
+        var sections = new Sections();
+        var fields = definition.getFields();
+        for (int i = 0; i < fields.size(); i++) generateField(sections, fields.get(i), i);
+        var isRos1 = rosVersion == RosVersion.ros1;
+        return codecUtils.renderJavaClass(
+                definition,
+                packageName,
+                messageClassName,
+                "view_imports",
+                "message_view",
+                Map.of(
+                        "format",
+                        isRos1 ? "ROS1 wire format" : "XCDR1 little-endian encoding (ROS2)",
+                        "fieldsCount",
+                        "" + fields.size(),
+                        "prefixOffsets",
+                        prefixOffsets(fields).stream()
+                                .map(Object::toString)
+                                .collect(Collectors.joining(", ")),
+                        // messages start aligned to the maximum alignment of the CDR types
+                        "isAligned",
+                        isRos1 ? "true" : "(start - origin) % 8 == 0",
+                        "lengthAlignment",
+                        "" + alignment(LENGTH_SIZE),
+                        // ROS2 string length includes the null terminator
+                        "terminatorSize",
+                        isRos1 ? "0" : "1"),
+                Map.of(
+                        "viewFields", sections.viewFields,
+                        "accessors", sections.accessors,
+                        "skip", sections.skip));
+    }
+
+    /**
+     * Offsets of the fields relative to the start of the message, which are known at generation
+     * time. Offset of the last field which is returned is the offset of the first field with
+     * variable size or of the end of the message.
+     */
+    private List<Integer> prefixOffsets(List<Field> fields) {
+        var offsets = new ArrayList<Integer>();
+        var offset = 0;
+        offsets.add(offset);
+        for (var field : fields) {
+            var kind = codecUtils.kind(field);
+            int alignment, size;
+            if (kind == Kind.TIME) {
+                alignment = alignment(LENGTH_SIZE);
+                size = TIME_SIZE;
+            } else if (kind == Kind.PRIMITIVE) {
+                size = primitiveType(field).size();
+                alignment = alignment(size);
+            } else break;
+            if (field.hasArrayType()) {
+                if (field.getArraySize() == 0) break;
+                size *= field.getArraySize();
+            }
+            offset = align(offset, alignment) + size;
+            offsets.add(offset);
+        }
+        return offsets;
+    }
+
+    private void generateField(Sections sections, Field field, int index) {
+        var name = field.getName();
+        var offset = "fieldOffset(%d)".formatted(index);
+        if (field.hasArrayType()) {
+            generateArray(sections, field, index);
+            sections.skip.add(
+                    "case %d: return %s_offset(%s_length());".formatted(index, name, name));
+            return;
+        }
+        switch (codecUtils.kind(field)) {
+            case PRIMITIVE -> {
+                var type = primitiveType(field);
+                var position = "origin + " + alignExpr(offset, type.size());
+                addAccessor(
+                        sections,
+                        "public %s %s() {".formatted(field.getJavaType(), name),
+                        "    return %s;".formatted(readPrimitive(field, type, position)));
+                sections.skip.add(
+                        "case %d: return %s;"
+                                .formatted(
+                                        index,
+                                        alignExpr("offset", type.size()) + " + " + type.size()));
+            }
+            case TIME -> {
+                addTimeAccessors(sections, name, "", alignExpr(offset, LENGTH_SIZE));
+                sections.skip.add(
+                        "case %d: return %s + %d;"
+                                .formatted(index, alignExpr("offset", LENGTH_SIZE), TIME_SIZE));
+            }
+            case HEADER -> {
+                // ROS1 Header starts with the sequence number
+                var stampOffset = rosVersion == RosVersion.ros1 ? LENGTH_SIZE : 0;
+                var frameIdOffset = stampOffset + TIME_SIZE;
+                if (rosVersion == RosVersion.ros1)
+                    addAccessor(
+                            sections,
+                            "public int %s_seq() {".formatted(name),
+                            "    return buf.getInt(origin + %s);".formatted(offset));
+                addTimeAccessors(
+                        sections,
+                        name + "_stamp",
+                        "",
+                        plus(alignExpr(offset, LENGTH_SIZE), stampOffset));
+                addAccessor(
+                        sections,
+                        "public String %s_frame_id() {".formatted(name),
+                        "    return readString(%s);"
+                                .formatted(plus(alignExpr(offset, LENGTH_SIZE), frameIdOffset)));
+                sections.skip.add(
+                        "case %d: return skipString(%s);"
+                                .formatted(
+                                        index,
+                                        plus(alignExpr("offset", LENGTH_SIZE), frameIdOffset)));
+            }
+            case STRING -> {
+                addAccessor(
+                        sections,
+                        "public String %s() {".formatted(name),
+                        "    return readString(%s);".formatted(offset));
+                sections.skip.add("case %d: return skipString(offset);".formatted(index));
+            }
+            case MESSAGE -> {
+                var viewClassName = codecUtils.codecClassName(field);
+                addViewFields(sections, viewClassName, name);
+                addAccessor(
+                        sections,
+                        "public %s %s() {".formatted(viewClassName, name),
+                        "    if (%sView == null) %sView = new %s();"
+                                .formatted(name, name, viewClassName),
+                        "    return %sView.wrap(buf, origin, origin + %s);"
+                                .formatted(name, offset));
+                sections.skip.add(
+                        "case %d: return offset + %s;".formatted(index, nestedSize(name)));
+            }
+        }
+    }
+
+    private void generateArray(Sections sections, Field field, int index) {
+        var name = field.getName();
+        var offset = "fieldOffset(%d)".formatted(index);
+        var arraySize = field.getArraySize();
+        var kind = codecUtils.kind(field);
+        if (kind == Kind.HEADER)
+            throw new XRE("Arrays of type %s are not supported by the view", field.getType());
+        // offset of the first element, before its alignment
+        String first;
+        if (arraySize > 0) {
+            first = offset;
+            addAccessor(
+                    sections,
+                    "public int %s_length() {".formatted(name),
+                    "    return %d;".formatted(arraySize));
+        } else {
+            first = plus(alignExpr(offset, LENGTH_SIZE), LENGTH_SIZE);
+            addAccessor(
+                    sections,
+                    "public int %s_length() {".formatted(name),
+                    "    return buf.getInt(origin + %s);"
+                            .formatted(alignExpr(offset, LENGTH_SIZE)));
+        }
+        var checkedIndex = "Objects.checkIndex(index, %s_length())".formatted(name);
+        switch (kind) {
+            case PRIMITIVE, TIME -> {
+                int size, elementAlignment;
+                if (kind == Kind.TIME) {
+                    size = TIME_SIZE;
+                    elementAlignment = alignment(LENGTH_SIZE);
+                } else {
+                    size = primitiveType(field).size();
+                    elementAlignment = alignment(size);
+                }
+                var elementOffset =
+                        alignExpr("offset", elementAlignment) + " + " + times("index", size);
+                // elements of the sequences are aligned only when there are any
+                if (arraySize == 0 && elementAlignment > LENGTH_SIZE)
+                    addElementOffset(
+                            sections,
+                            name,
+                            first,
+                            "if (%s_length() == 0) return offset;".formatted(name),
+                            "return %s;".formatted(elementOffset));
+                else if (arraySize == 0 && elementAlignment > 1)
+                    // after the length elements are always aligned
+                    addElementOffset(
+                            sections,
+                            name,
+                            first,
+                            "return offset + %s;".formatted(times("index", size)));
+                else addElementOffset(sections, name, first, "return %s;".formatted(elementOffset));
+            }
+            case STRING ->
+                    addElementOffset(
+                            sections,
+                            name,
+                            first,
+                            "for (int i = 0; i < index; i++) offset = skipString(offset);",
+                            "return offset;");
+            case MESSAGE -> {
+                var viewClassName = codecUtils.codecClassName(field);
+                addViewFields(sections, viewClassName, name);
+                addElementOffset(
+                        sections,
+                        name,
+                        first,
+                        "for (int i = 0; i < index; i++) offset += %s;".formatted(nestedSize(name)),
+                        "return offset;");
+            }
+            default -> {}
+        }
+        switch (kind) {
+            case PRIMITIVE -> {
+                var javaType = field.getJavaType();
+                var sliceType = SLICE_TYPES.get(javaType);
+                var order = "        .order(ByteOrder.LITTLE_ENDIAN)";
+                if (!sliceType.equals("ByteBuffer")) order += ".as%s()".formatted(sliceType);
+                addAccessor(
+                        sections,
+                        "/** Slice of the buffer with the elements of the array */",
+                        "public %s %s() {".formatted(sliceType, name),
+                        "    return buf.slice(origin + %s_offset(0), %s)"
+                                .formatted(
+                                        name,
+                                        times(name + "_length()", primitiveType(field).size())),
+                        "    " + order + ";");
+            }
+            case TIME ->
+                    addTimeAccessors(
+                            sections,
+                            name,
+                            "int index",
+                            "%s_offset(%s)".formatted(name, checkedIndex));
+            case STRING ->
+                    addAccessor(
+                            sections,
+                            "public String %s(int index) {".formatted(name),
+                            "    return readString(%s_offset(%s));".formatted(name, checkedIndex));
+            case MESSAGE -> {
+                var viewClassName = codecUtils.codecClassName(field);
+                addAccessor(
+                        sections,
+                        "/** Element is found by going through the elements which precede it */",
+                        "public %s %s(int index) {".formatted(viewClassName, name),
+                        "    if (%sView == null) %sView = new %s();"
+                                .formatted(name, name, viewClassName),
+                        "    return %sView.wrap(buf, origin, origin + %s_offset(%s));"
+                                .formatted(name, name, checkedIndex));
+            }
+            default -> {}
+        }
+    }
+
+    /** Add method which returns offset of the array element (before its alignment) */
+    private void addElementOffset(
+            Sections sections, String name, String first, String... statements) {
+        var lines = new ArrayList<String>();
+        lines.add("private int %s_offset(int index) {".formatted(name));
+        lines.add("    int offset = %s;".formatted(first));
+        for (var statement : statements) lines.add("    " + statement);
+        addMethod(sections, lines);
+    }
+
+    private void addTimeAccessors(Sections sections, String name, String params, String position) {
+        addAccessor(
+                sections,
+                "public int %s_sec(%s) {".formatted(name, params),
+                "    return buf.getInt(origin + %s);".formatted(position));
+        addAccessor(
+                sections,
+                "public int %s_nanosec(%s) {".formatted(name, params),
+                "    return buf.getInt(origin + %s);".formatted(plus(position, 4)));
+    }
+
+    /**
+     * Nested views: one is returned to the user, another one is used internally to find the end of
+     * the nested message
+     */
+    private void addViewFields(Sections sections, String viewClassName, String name) {
+        sections.viewFields.add("private %s %sView;".formatted(viewClassName, name));
+        sections.viewFields.add("private %s %sScanner;".formatted(viewClassName, name));
+        addAccessor(
+                sections,
+                "private %s %sScanner() {".formatted(viewClassName, name),
+                "    if (%sScanner == null) %sScanner = new %s();"
+                        .formatted(name, name, viewClassName),
+                "    return %sScanner;".formatted(name));
+    }
+
+    /** Expression which finds the size of the nested message which starts at "offset" */
+    private String nestedSize(String name) {
+        return "%sScanner().wrap(buf, origin, origin + offset).byteSize()".formatted(name);
+    }
+
+    private void addAccessor(Sections sections, String... lines) {
+        addMethod(sections, List.of(lines));
+    }
+
+    private void addMethod(Sections sections, List<String> lines) {
+        sections.accessors.add("");
+        sections.accessors.addAll(lines);
+        sections.accessors.add("}");
+    }
+
+    private String readPrimitive(Field field, PrimitiveType type, String position) {
+        if (field.getJavaType().equals("boolean")) return "buf.get(%s) != 0".formatted(position);
+        return "buf.get%s(%s)".formatted(type.accessor(), position);
+    }
+
+    private PrimitiveType primitiveType(Field field) {
+        return CodecUtils.PRIMITIVE_TYPES.get(field.getJavaType());
+    }
+
+    /** ROS1 does not align the fields */
+    private int alignment(int size) {
+        return rosVersion == RosVersion.ros1 ? 1 : size;
+    }
+
+    private String alignExpr(String offset, int size) {
+        var alignment = alignment(size);
+        if (alignment == 1) return offset;
+        return "align(%s, %d)".formatted(offset, alignment);
+    }
+
+    private int align(int offset, int alignment) {
+        return (offset + alignment - 1) & -alignment;
+    }
+
+    private String times(String expr, int value) {
+        if (value == 1) return expr;
+        return expr + " * " + value;
+    }
+
+    private String plus(String expr, int value) {
+        if (value == 0) return expr;
+        return expr + " + " + value;
+    }
+}
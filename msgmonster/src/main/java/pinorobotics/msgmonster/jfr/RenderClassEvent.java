@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Rendering of the Java class for the ROS interface, including parsing of its definition and
+ * calculation of its md5sum (ROS1) or type hash (ROS2)
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+@Name("msgmonster.RenderClass")
+@Label("Render Class")
+@Category("msgmonster")
+@Description("Rendering of the Java class for the ROS interface")
+public class RenderClassEvent extends Event {
+    @Label("Interface Name")
+    public String interfaceName;
+
+    @Label("Class Name")
+    public String className;
+
+    @Label("Class Size")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+}
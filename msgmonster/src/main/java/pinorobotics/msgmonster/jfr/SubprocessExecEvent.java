@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Execution of the external command (ex. "rosmsg show") including the time spent waiting for its
+ * output
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+@Name("msgmonster.SubprocessExec")
+@Label("Subprocess Exec")
+@Category("msgmonster")
+@Description("Execution of the external command")
+public class SubprocessExecEvent extends Event {
+    @Label("Command")
+    public String command;
+
+    @Label("Output Lines")
+    public int lines;
+
+    @Label("Output Size")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+}
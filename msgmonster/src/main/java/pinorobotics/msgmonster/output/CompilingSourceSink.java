@@ -0,0 +1,307 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.output;
+
+import id.xfunction.lang.XRE;
+import id.xfunction.logging.XLogger;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import pinorobotics.msgmonster.utils.GenerationStats;
+import pinorobotics.msgmonster.utils.GenerationStats.Phase;
+
+/**
+ * Keeps sources in memory and, once the sink is closed, compiles them with {@link JavaCompiler} and
+ * writes resulting classes into the jar. Sources itself are never written to the disk.
+ *
+ * <p>Each Java package is compiled separately and concurrently with the others. Sources of all
+ * other Java packages are available to the compiler (as if they were on the source path) so
+ * packages can depend on each other.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class CompilingSourceSink implements GeneratedSourceSink {
+    private static final XLogger LOGGER = XLogger.getLogger(CompilingSourceSink.class);
+    private static final Pattern PACKAGE =
+            Pattern.compile("^package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private InMemorySourceSink sources;
+    private Path jar;
+    private String classpath;
+    private boolean closed;
+
+    /** Source of the class which is kept in memory */
+    private static class SourceObject extends SimpleJavaFileObject {
+        private String packageName;
+        private String binaryName;
+        private String content;
+
+        SourceObject(String packageName, String simpleName, String content) {
+            super(
+                    URI.create(
+                            "string:///"
+                                    + packageName.replace('.', '/')
+                                    + "/"
+                                    + simpleName
+                                    + Kind.SOURCE.extension),
+                    Kind.SOURCE);
+            this.packageName = packageName;
+            this.binaryName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /** Class file which is collected in memory once compiler writes it */
+    private static class ClassObject extends SimpleJavaFileObject {
+        private String entryName;
+        private Map<String, byte[]> classes;
+
+        ClassObject(String className, Map<String, byte[]> classes) {
+            super(
+                    URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension),
+                    Kind.CLASS);
+            this.entryName = className.replace('.', '/') + Kind.CLASS.extension;
+            this.classes = classes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    classes.put(entryName, toByteArray());
+                }
+            };
+        }
+    }
+
+    /**
+     * Serves in-memory sources as the source path and collects compiled classes instead of writing
+     * them to the disk
+     */
+    private static class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private Map<String, List<SourceObject>> packages;
+        private Map<String, byte[]> classes;
+
+        InMemoryFileManager(
+                JavaFileManager fileManager,
+                Map<String, List<SourceObject>> packages,
+                Map<String, byte[]> classes) {
+            super(fileManager);
+            this.packages = packages;
+            this.classes = classes;
+        }
+
+        @Override
+        public boolean hasLocation(Location location) {
+            return location == StandardLocation.SOURCE_PATH || super.hasLocation(location);
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(
+                Location location, String packageName, Set<Kind> kinds, boolean recurse)
+                throws IOException {
+            if (location != StandardLocation.SOURCE_PATH)
+                return super.list(location, packageName, kinds, recurse);
+            if (!kinds.contains(Kind.SOURCE)) return List.of();
+            return List.copyOf(packages.getOrDefault(packageName, List.of()));
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            if (file instanceof SourceObject source) return source.binaryName;
+            return super.inferBinaryName(location, file);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(
+                Location location, String className, Kind kind, FileObject sibling)
+                throws IOException {
+            if (location != StandardLocation.CLASS_OUTPUT || kind != Kind.CLASS)
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            return new ClassObject(className, classes);
+        }
+    }
+
+    /**
+     * @param root output folder which is used by the generators
+     * @param jar jar to create, existing jar is replaced
+     * @param classpath classpath with all the dependencies of the generated classes (ex.
+     *     jrosmessages)
+     */
+    public CompilingSourceSink(Path root, Path jar, String classpath) {
+        this.sources = new InMemorySourceSink(root);
+        this.jar = jar;
+        this.classpath = classpath;
+    }
+
+    @Override
+    public boolean exists(Path file) {
+        return sources.exists(file);
+    }
+
+    @Override
+    public void write(Path file, String content) {
+        sources.write(file, content);
+    }
+
+    /**
+     * Compile all sources and write them into the jar
+     *
+     * @throws XRE if compilation fails, in which case jar is not created
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        var classes = GenerationStats.measure(Phase.COMPILE, () -> compileAll());
+        writeJar(classes);
+        LOGGER.info("Jar {0} with {1} classes is created", jar, classes.size());
+    }
+
+    private Map<String, byte[]> compileAll() {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new XRE("Java compiler is not available, it requires JDK instead of JRE");
+        var packages = new TreeMap<String, List<SourceObject>>();
+        for (var e : sources.getSources().entrySet()) {
+            var source = createSourceObject(e.getKey(), e.getValue());
+            packages.computeIfAbsent(source.packageName, p -> new ArrayList<>()).add(source);
+        }
+        var classes = new ConcurrentHashMap<String, byte[]>();
+        if (packages.isEmpty()) return classes;
+        var threads = Math.min(packages.size(), Runtime.getRuntime().availableProcessors());
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var tasks = new ArrayList<Future<?>>();
+            for (var packageName : packages.keySet()) {
+                tasks.add(executor.submit(() -> compile(compiler, packageName, packages, classes)));
+            }
+            for (var task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof XRE xre) throw xre;
+                    throw new XRE("Error compiling generated classes", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new XRE("Compilation was interrupted", e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return classes;
+    }
+
+    private SourceObject createSourceObject(String name, String content) {
+        var matcher = PACKAGE.matcher(content);
+        var packageName = matcher.find() ? matcher.group(1) : "";
+        var simpleName = name.substring(name.lastIndexOf('/') + 1);
+        simpleName = simpleName.substring(0, simpleName.length() - Kind.SOURCE.extension.length());
+        return new SourceObject(packageName, simpleName, content);
+    }
+
+    private void compile(
+            JavaCompiler compiler,
+            String packageName,
+            Map<String, List<SourceObject>> packages,
+            Map<String, byte[]> classes) {
+        var units = packages.get(packageName);
+        LOGGER.info("Compiling {0} classes of Java package {1}", units.size(), packageName);
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        // standard file manager is not thread safe so each package gets its own
+        try (var fileManager =
+                new InMemoryFileManager(
+                        compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8),
+                        packages,
+                        classes)) {
+            // sources from other packages are compiled by their own tasks
+            var options = List.of("-classpath", classpath, "-implicit:none", "-proc:none");
+            var success =
+                    compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+            if (!success) {
+                throw new XRE(
+                        "Compilation of Java package %s failed:\n%s",
+                        packageName,
+                        diagnostics.getDiagnostics().stream()
+                                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                                .map(Diagnostic::toString)
+                                .collect(Collectors.joining("\n")));
+            }
+        } catch (IOException e) {
+            throw new XRE("Error compiling Java package " + packageName, e);
+        }
+    }
+
+    private void writeJar(Map<String, byte[]> classes) {
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        try {
+            var parent = jar.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            try (var out =
+                    new JarOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(jar)), manifest)) {
+                // sorted so that jar does not depend on the order of compilation
+                for (var e : new TreeMap<>(classes).entrySet()) {
+                    out.putNextEntry(new JarEntry(e.getKey()));
+                    out.write(e.getValue());
+                    out.closeEntry();
+                }
+            }
+        } catch (IOException e) {
+            throw new XRE("Error writing jar " + jar, e);
+        }
+    }
+}
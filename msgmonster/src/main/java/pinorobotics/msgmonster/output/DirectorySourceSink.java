@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.output;
+
+import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XRE;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes each source into its own file. Output folders are expected to exist.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class DirectorySourceSink implements GeneratedSourceSink {
+    private boolean replaceExisting;
+    private Set<Path> written = ConcurrentHashMap.newKeySet();
+
+    public DirectorySourceSink() {
+        this(false);
+    }
+
+    /**
+     * @param replaceExisting when true sources left by the previous runs are replaced. Each source
+     *     is first written into the temporary file which is then atomically moved in place of the
+     *     existing one, so readers of the output folder (ex. IDE) never see the source missing or
+     *     partially written.
+     */
+    public DirectorySourceSink(boolean replaceExisting) {
+        this.replaceExisting = replaceExisting;
+    }
+
+    @Override
+    public boolean exists(Path file) {
+        if (replaceExisting) return written.contains(file);
+        return file.toFile().exists();
+    }
+
+    @Override
+    public void write(Path file, String content) {
+        if (!replaceExisting) {
+            Unchecked.run(() -> Files.writeString(file, content, StandardOpenOption.CREATE_NEW));
+            return;
+        }
+        if (!written.add(file)) throw new XRE("Source %s already exists", file);
+        Unchecked.run(
+                () -> {
+                    var tmpFile =
+                            Files.createTempFile(
+                                    file.getParent(), "." + file.getFileName(), ".tmp");
+                    Files.writeString(tmpFile, content);
+                    Files.move(
+                            tmpFile,
+                            file,
+                            StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                });
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.output;
+
+import java.nio.file.Path;
+
+/**
+ * Destination of the generated Java sources.
+ *
+ * <p>Generators address sources by the path where they would be placed on the file system ({@code
+ * <output folder>/<class name>.java}) and it is up to the sink to decide where to store them.
+ *
+ * <p>Sinks are shared between the generator threads and should be thread safe.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public interface GeneratedSourceSink extends AutoCloseable {
+
+    /** Check if the source was already written */
+    boolean exists(Path file);
+
+    /**
+     * Write new source
+     *
+     * @throws RuntimeException if source already exists
+     */
+    void write(Path file, String content);
+
+    /**
+     * True when sources written by the previous runs are kept by the sink, so that only the sources
+     * of the changed ROS files need to be regenerated (see {@link
+     * pinorobotics.msgmonster.app.GenerationManifest})
+     */
+    default boolean isIncremental() {
+        return false;
+    }
+
+    /** Complete all pending writes */
+    @Override
+    default void close() {}
+}
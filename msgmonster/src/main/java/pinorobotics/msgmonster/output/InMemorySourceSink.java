@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.output;
+
+import id.xfunction.lang.XRE;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps sources in memory, for tools which embed msgmonster and pass the sources further (ex. to
+ * the compiler) without writing them to the disk.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class InMemorySourceSink implements GeneratedSourceSink {
+    private Path root;
+    private Map<String, String> sources = new ConcurrentHashMap<>();
+
+    /**
+     * @param root output folder which is used by the generators, all sources are named relative to
+     *     it
+     */
+    public InMemorySourceSink(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public boolean exists(Path file) {
+        return sources.containsKey(SourceNames.relativize(root, file));
+    }
+
+    @Override
+    public void write(Path file, String content) {
+        var name = SourceNames.relativize(root, file);
+        if (sources.putIfAbsent(name, content) != null)
+            throw new XRE("Source already exists: %s", name);
+    }
+
+    /**
+     * @return map from the source name (ex. "test_msgs/StringMessage.java") to its content, sorted
+     *     by the name
+     */
+    public Map<String, String> getSources() {
+        return Collections.unmodifiableMap(new TreeMap<>(sources));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.output;
+
+import id.xfunction.Preconditions;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+class SourceNames {
+
+    /**
+     * Name of the source relative to the root folder, with '/' used as a separator on all platforms
+     * (ex. "test_msgs/StringMessage.java")
+     */
+    static String relativize(Path root, Path file) {
+        var normalized = file.normalize();
+        Preconditions.isTrue(
+                normalized.startsWith(root.normalize()),
+                "File %s is outside of the output folder %s",
+                file,
+                root);
+        return StreamSupport.stream(root.normalize().relativize(normalized).spliterator(), false)
+                .map(Path::toString)
+                .collect(Collectors.joining("/"));
+    }
+}
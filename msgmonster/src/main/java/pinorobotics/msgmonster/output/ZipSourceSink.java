@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.output;
+
+import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XRE;
+import id.xfunction.logging.XLogger;
+import java.io.BufferedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams all sources into single zip archive (or jar archive, when its name ends with ".jar").
+ *
+ * <p>Creating thousands of small files is expensive on some file systems (ex. network file
+ * systems). This sink instead writes everything sequentially through one buffered stream. Archive
+ * is complete only after the sink is closed.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class ZipSourceSink implements GeneratedSourceSink {
+    private static final XLogger LOGGER = XLogger.getLogger(ZipSourceSink.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+    private Path root;
+    private Path archive;
+    private Set<String> names = ConcurrentHashMap.newKeySet();
+    private ZipOutputStream out;
+
+    /**
+     * @param root output folder which is used by the generators, all sources are placed into the
+     *     archive relative to it
+     * @param archive archive to create, existing archive is replaced
+     */
+    public ZipSourceSink(Path root, Path archive) {
+        this.root = root;
+        this.archive = archive;
+        var parent = archive.toAbsolutePath().getParent();
+        out =
+                Unchecked.get(
+                        () -> {
+                            Files.createDirectories(parent);
+                            var stream =
+                                    new BufferedOutputStream(
+                                            Files.newOutputStream(archive), BUFFER_SIZE);
+                            if (!isJar(archive)) return new ZipOutputStream(stream);
+                            var manifest = new Manifest();
+                            manifest.getMainAttributes()
+                                    .put(Attributes.Name.MANIFEST_VERSION, "1.0");
+                            return new JarOutputStream(stream, manifest);
+                        });
+    }
+
+    public static boolean isArchive(Path file) {
+        var name = file.getFileName().toString();
+        return name.endsWith(".zip") || isJar(file);
+    }
+
+    private static boolean isJar(Path file) {
+        return file.getFileName().toString().endsWith(".jar");
+    }
+
+    @Override
+    public boolean exists(Path file) {
+        return names.contains(SourceNames.relativize(root, file));
+    }
+
+    @Override
+    public void write(Path file, String content) {
+        var name = SourceNames.relativize(root, file);
+        if (!names.add(name)) throw new XRE("Source already exists: %s", name);
+        // encode outside of the lock so that only writing to the archive is sequential
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            Unchecked.run(
+                    () -> {
+                        out.putNextEntry(new ZipEntry(name));
+                        out.write(bytes);
+                        out.closeEntry();
+                    });
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (out == null) return;
+        Unchecked.run(out::close);
+        out = null;
+        LOGGER.info("Archive {0} with {1} sources is created", archive, names.size());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.parser;
+
+import id.xfunction.lang.XRE;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import pinorobotics.msgmonster.parser.RosElement.BlankLine;
+import pinorobotics.msgmonster.parser.RosElement.Comment;
+import pinorobotics.msgmonster.parser.RosElement.Declaration;
+
+/**
+ * Parses ROS interface definitions (messages, services, actions) into {@link RosDefinition}.
+ *
+ * <p>Each line is scanned only once and no regular expressions are used.
+ *
+ * @see <a href="https://wiki.ros.org/msg">ROS msg file format</a>
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class RosDefinitionParser {
+    private static final String SEPARATOR = "---";
+
+    public RosDefinition parse(Stream<String> lines) {
+        var sections = new ArrayList<RosSection>();
+        var elements = new ArrayList<RosElement>();
+        var iterator = lines.iterator();
+        while (iterator.hasNext()) {
+            var line = iterator.next().trim();
+            if (line.isEmpty()) {
+                elements.add(BlankLine.INSTANCE);
+            } else if (line.charAt(0) == '#') {
+                elements.add(new Comment(line.substring(1)));
+            } else if (line.equals(SEPARATOR)) {
+                sections.add(new RosSection(elements));
+                elements = new ArrayList<>();
+            } else {
+                elements.add(parseDeclaration(line));
+            }
+        }
+        sections.add(new RosSection(elements));
+        return new RosDefinition(sections);
+    }
+
+    public RosDefinition parse(List<String> lines) {
+        return parse(lines.stream());
+    }
+
+    /**
+     * Declaration has form "type name", "type name=value" (constant) or "type name value" (field
+     * with default value), optionally followed by the comment.
+     *
+     * <p>Value of the string constant is the rest of the line, same as in genmsg, so it may contain
+     * spaces and "#". Quoted default values and array default values (ex. "[1, 2]") are read up to
+     * their closing quote or bracket.
+     */
+    private Declaration parseDeclaration(String line) {
+        var length = line.length();
+        // type is read separately since it may contain '=' (ex. "string<=10")
+        var pos = 0;
+        while (pos < length && !isEndOfType(line.charAt(pos))) pos++;
+        var type = RosType.parse(line.substring(0, pos));
+        pos = skipWhitespaces(line, pos);
+        var nameStart = pos;
+        while (pos < length && !isEndOfName(line.charAt(pos))) pos++;
+        if (nameStart == pos) throw new XRE("Declaration has no name: %s", line);
+        var name = line.substring(nameStart, pos);
+        pos = skipWhitespaces(line, pos);
+        var constant = pos < length && line.charAt(pos) == '=';
+        if (constant) {
+            pos = skipWhitespaces(line, pos + 1);
+            if (type.isString() && !type.isArray())
+                return new Declaration(type, name, line.substring(pos).strip(), true, "");
+        }
+        var valueStart = pos;
+        if (pos < length) {
+            pos =
+                    switch (line.charAt(pos)) {
+                        case '"', '\'' -> skipQuoted(line, pos);
+                        case '[' -> skipArray(line, pos);
+                        default -> skipToComment(line, pos);
+                    };
+        }
+        var value = line.substring(valueStart, pos).strip();
+        pos = skipToComment(line, pos);
+        var comment = pos < length ? line.substring(pos + 1) : "";
+        return new Declaration(type, name, value, constant && !value.isEmpty(), comment);
+    }
+
+    private static boolean isEndOfType(char ch) {
+        return ch == '#' || Character.isWhitespace(ch);
+    }
+
+    private static boolean isEndOfName(char ch) {
+        return ch == '=' || isEndOfType(ch);
+    }
+
+    private static int skipWhitespaces(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) pos++;
+        return pos;
+    }
+
+    private static int skipToComment(String line, int pos) {
+        while (pos < line.length() && line.charAt(pos) != '#') pos++;
+        return pos;
+    }
+
+    /**
+     * @param pos position of the opening quote
+     * @return position after the closing quote
+     */
+    private static int skipQuoted(String line, int pos) {
+        var quote = line.charAt(pos++);
+        while (pos < line.length()) {
+            var ch = line.charAt(pos++);
+            if (ch == '\\') pos++;
+            else if (ch == quote) return pos;
+        }
+        throw new XRE("Missing closing quote: %s", line);
+    }
+
+    /**
+     * @param pos position of the opening bracket
+     * @return position after the closing bracket
+     */
+    private static int skipArray(String line, int pos) {
+        pos++;
+        while (pos < line.length()) {
+            var ch = line.charAt(pos);
+            if (ch == ']') return pos + 1;
+            if (ch == '"' || ch == '\'') pos = skipQuoted(line, pos);
+            else pos++;
+        }
+        throw new XRE("Missing closing bracket: %s", line);
+    }
+}
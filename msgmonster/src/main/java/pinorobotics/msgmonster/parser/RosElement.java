@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.parser;
+
+/**
+ * Element of the ROS interface definition. Each element corresponds to a single line of the
+ * definition.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public sealed interface RosElement {
+
+    /**
+     * Empty line. They are kept since they separate comments of the message from comments of its
+     * fields.
+     */
+    record BlankLine() implements RosElement {
+        public static final BlankLine INSTANCE = new BlankLine();
+    }
+
+    /**
+     * @param text text of the comment line without leading "#"
+     */
+    record Comment(String text) implements RosElement {}
+
+    /**
+     * Field or constant
+     *
+     * @param value value of the constant, default value of the field (ROS2) or empty string
+     * @param constant true when value is assigned with "=" (ex. "int32 X=1")
+     * @param comment comment on the same line (without "#") or empty string
+     */
+    record Declaration(RosType type, String name, String value, boolean constant, String comment)
+            implements RosElement {}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.parser;
+
+import java.util.List;
+
+/**
+ * Part of the ROS interface definition which describes single message. Messages consist of one
+ * section, services of two (request, response) and actions of three (goal, result, feedback).
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public record RosSection(List<RosElement> elements) {
+
+    public int getDeclarationsCount() {
+        var count = 0;
+        for (var element : elements) if (element instanceof RosElement.Declaration) count++;
+        return count;
+    }
+}
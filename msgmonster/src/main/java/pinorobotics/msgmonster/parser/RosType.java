@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.parser;
+
+import id.xfunction.lang.XRE;
+
+/**
+ * Type of the field or constant declared inside ROS interface definition
+ *
+ * @param name type without array specification (ex. "float64", "string<=10", "geometry_msgs/Pose")
+ * @param arraySize size of the fixed size array or maximum size of the bounded array, 0 otherwise
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public record RosType(String name, ArrayKind arrayKind, int arraySize) {
+
+    public enum ArrayKind {
+        /** Not an array */
+        NONE,
+        /** Array of fixed size (ex. "float64[36]") */
+        FIXED,
+        /** Array with the maximum size (ex. "int32[<=5]") */
+        BOUNDED,
+        /** Array of any size (ex. "string[]") */
+        UNBOUNDED
+    }
+
+    /**
+     * @param type ROS type including array specification (ex. "float64[36]", "string[]")
+     */
+    public static RosType parse(String type) {
+        var length = type.length();
+        if (length == 0 || type.charAt(length - 1) != ']')
+            return new RosType(type, ArrayKind.NONE, 0);
+        var open = type.lastIndexOf('[');
+        if (open < 0) return new RosType(type, ArrayKind.NONE, 0);
+        var name = type.substring(0, open);
+        if (open == length - 2) return new RosType(name, ArrayKind.UNBOUNDED, 0);
+        if (type.startsWith("<=", open + 1))
+            return new RosType(name, ArrayKind.BOUNDED, parseSize(type, open + 3, length - 1));
+        return new RosType(name, ArrayKind.FIXED, parseSize(type, open + 1, length - 1));
+    }
+
+    private static int parseSize(String type, int start, int end) {
+        try {
+            return Integer.parseInt(type, start, end, 10);
+        } catch (NumberFormatException e) {
+            throw new XRE("Invalid array size: %s", type);
+        }
+    }
+
+    /** String of any kind (ex. "string", "wstring", "string<=10") */
+    public boolean isString() {
+        var start = name.startsWith("w") ? 1 : 0;
+        if (!name.startsWith("string", start)) return false;
+        var end = start + "string".length();
+        return name.length() == end || name.startsWith("<=", end);
+    }
+
+    public boolean isArray() {
+        return arrayKind != ArrayKind.NONE;
+    }
+
+    /** Type in ROS notation including array specification */
+    @Override
+    public String toString() {
+        return switch (arrayKind) {
+            case NONE -> name;
+            case FIXED -> name + "[" + arraySize + "]";
+            case BOUNDED -> name + "[<=" + arraySize + "]";
+            case UNBOUNDED -> name + "[]";
+        };
+    }
+}
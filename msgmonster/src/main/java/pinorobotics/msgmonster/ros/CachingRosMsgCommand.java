@@ -0,0 +1,252 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.ros;
+
+import id.xfunction.Preconditions;
+import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XRE;
+import id.xfunction.logging.XLogger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import pinorobotics.msgmonster.utils.MsgMonsterUtils;
+
+/**
+ * Decorator which keeps results of another {@link RosMsgCommand} in the cache folder so that
+ * repeated runs do not need to call ROS commands when nothing changed.
+ *
+ * <p>Each cache entry is stored in a separate file. The key of the entry consists of ROS version,
+ * ROS distribution, name of the request and the version of the ROS package it belongs to. Version
+ * of the ROS package is taken from its "package.xml" (version and last modified time), so any
+ * reinstall of the package invalidates all its entries. When ROS package cannot be located requests
+ * for it are not cached.
+ *
+ * <p>When total size of the cache exceeds the limit, least recently used entries are evicted.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class CachingRosMsgCommand implements RosMsgCommand {
+    private static final XLogger LOGGER = XLogger.getLogger(CachingRosMsgCommand.class);
+    private static final String PACKAGE_MANIFEST = "package.xml";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final Pattern VERSION_PATTERN =
+            Pattern.compile("<version>\\s*([^<]*?)\\s*</version>");
+    public static final long DEFAULT_MAX_SIZE = 50 * 1024 * 1024;
+
+    private RosMsgCommand rosmsg;
+    private Path cacheFolder;
+    private long maxSize;
+    private String rosDistro;
+    private Function<String, Optional<Path>> packageLocator;
+    private AtomicLong size = new AtomicLong();
+    private AtomicLong hits = new AtomicLong();
+    private AtomicLong misses = new AtomicLong();
+    private Map<String, Optional<String>> packageVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Create cache which locates ROS packages (see {@link
+     * FileSystemRosMsgCommand#createPackageLocator(RosMsgCommand)}) and ROS distribution using ROS
+     * environment variables
+     */
+    public CachingRosMsgCommand(RosMsgCommand rosmsg, Path cacheFolder, long maxSize) {
+        this(
+                rosmsg,
+                cacheFolder,
+                maxSize,
+                Optional.ofNullable(System.getenv("ROS_DISTRO")).orElse("unknown"),
+                FileSystemRosMsgCommand.createPackageLocator(rosmsg));
+    }
+
+    /**
+     * @param maxSize maximum size of the cache in bytes
+     * @param packageLocator returns folder of the ROS package with the given name
+     */
+    public CachingRosMsgCommand(
+            RosMsgCommand rosmsg,
+            Path cacheFolder,
+            long maxSize,
+            String rosDistro,
+            Function<String, Optional<Path>> packageLocator) {
+        Preconditions.isTrue(maxSize > 0, "Cache size should be positive: %s", maxSize);
+        this.rosmsg = rosmsg;
+        this.cacheFolder = cacheFolder;
+        this.maxSize = maxSize;
+        this.rosDistro = rosDistro;
+        this.packageLocator = packageLocator;
+        Unchecked.run(() -> Files.createDirectories(cacheFolder));
+        size.set(listEntries().stream().mapToLong(this::fileSize).sum());
+        LOGGER.fine("Cache folder {0} size {1}", cacheFolder, size.get());
+    }
+
+    @Override
+    public Stream<RosFile> listFiles(Path rosPath) {
+        return cached(
+                        rosPath.getName(0).toString(),
+                        "list " + rosPath,
+                        () ->
+                                rosmsg.listFiles(rosPath)
+                                        .map(rosFile -> rosFile.type() + " " + rosFile.name())
+                                        .toList())
+                .stream()
+                .map(line -> line.split(" "))
+                .map(tokens -> new RosFile(tokens[1], RosInterfaceType.valueOf(tokens[0])));
+    }
+
+    @Override
+    public Stream<String> lines(RosFile rosFile) {
+        return cached(
+                rosFile.name().getName(0).toString(),
+                "show " + rosFile.type() + " " + rosFile.name(),
+                () -> rosmsg.lines(rosFile).toList())
+                .stream();
+    }
+
+    @Override
+    public RosVersion getRosVersion() {
+        return rosmsg.getRosVersion();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Cache hits {0}, misses {1}", hits.get(), misses.get());
+        rosmsg.close();
+    }
+
+    private List<String> cached(String packageName, String request, Supplier<List<String>> loader) {
+        var packageVersion = packageVersions.computeIfAbsent(packageName, this::findPackageVersion);
+        if (packageVersion.isEmpty()) {
+            LOGGER.fine("Package {0} not found, request {1} is not cached", packageName, request);
+            return loader.get();
+        }
+        var key =
+                String.join(
+                        " ",
+                        getRosVersion().toString(),
+                        rosDistro,
+                        packageName,
+                        packageVersion.get(),
+                        request);
+        var entry = cacheFolder.resolve(MsgMonsterUtils.sha256(key));
+        try {
+            var lines = Files.readAllLines(entry);
+            // last modified time is used to find least recently used entries
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return lines;
+        } catch (IOException e) {
+            // entry does not exist or it was evicted
+        }
+        misses.incrementAndGet();
+        var lines = loader.get();
+        store(entry, lines);
+        return lines;
+    }
+
+    private void store(Path entry, List<String> lines) {
+        // write entry atomically so that concurrent readers never see it partially written
+        Unchecked.run(
+                () -> {
+                    var tmpFile =
+                            Files.createTempFile(
+                                    cacheFolder, entry.getFileName().toString(), TMP_SUFFIX);
+                    Files.write(tmpFile, lines);
+                    var oldSize = fileSize(entry);
+                    Files.move(
+                            tmpFile,
+                            entry,
+                            StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    size.addAndGet(fileSize(entry) - oldSize);
+                });
+        if (size.get() > maxSize) evict();
+    }
+
+    /** Remove least recently used entries until cache fits into its size */
+    private synchronized void evict() {
+        var entries =
+                listEntries().stream()
+                        .sorted(Comparator.comparing(this::lastModifiedTime))
+                        .iterator();
+        while (size.get() > maxSize && entries.hasNext()) {
+            var entry = entries.next();
+            var entrySize = fileSize(entry);
+            if (Unchecked.get(() -> Files.deleteIfExists(entry))) {
+                LOGGER.fine("Evicted {0}", entry);
+                size.addAndGet(-entrySize);
+            }
+        }
+    }
+
+    private List<Path> listEntries() {
+        try (var files = Files.list(cacheFolder)) {
+            return files.filter(file -> !file.getFileName().toString().endsWith(TMP_SUFFIX))
+                    .toList();
+        } catch (IOException e) {
+            throw new XRE("Could not list cache folder " + cacheFolder, e);
+        }
+    }
+
+    private long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private FileTime lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Version of the ROS package together with last modified time of its "package.xml" so that
+     * reinstalled packages are detected even if their version did not change
+     */
+    private Optional<String> findPackageVersion(String packageName) {
+        var manifest = packageLocator.apply(packageName).map(dir -> dir.resolve(PACKAGE_MANIFEST));
+        if (manifest.isEmpty() || !Files.isRegularFile(manifest.get())) return Optional.empty();
+        var content = Unchecked.get(() -> Files.readString(manifest.get()));
+        var matcher = VERSION_PATTERN.matcher(content);
+        var version = matcher.find() ? matcher.group(1) : "";
+        return Optional.of(version + "-" + lastModifiedTime(manifest.get()).toMillis());
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.ros;
+
+import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XRE;
+import id.xfunction.logging.XLogger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Reads ROS interface definition files (msg/srv/action) directly from the file system instead of
+ * calling ROS CLI commands.
+ *
+ * <p>ROS packages are searched inside the given ROS paths. Each path can be either a prefix with
+ * "share" folder inside (as in {@code AMENT_PREFIX_PATH} or catkin install space) or a folder which
+ * contains ROS packages (as in {@code ROS_PACKAGE_PATH}).
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class FileSystemRosMsgCommand implements RosMsgCommand {
+    private static final XLogger LOGGER = XLogger.getLogger(FileSystemRosMsgCommand.class);
+    private static final String PACKAGE_MANIFEST = "package.xml";
+    private RosVersion rosVersion;
+    private List<Path> rosPaths;
+    private Map<String, Path> crawledPackages;
+
+    public FileSystemRosMsgCommand(RosVersion rosVersion, List<Path> rosPaths) {
+        this.rosVersion = rosVersion;
+        this.rosPaths = rosPaths;
+    }
+
+    /**
+     * Create command which searches ROS packages in the paths defined by ROS environment: {@code
+     * ROS_PACKAGE_PATH} for ROS1 and {@code AMENT_PREFIX_PATH} for ROS2
+     */
+    public static FileSystemRosMsgCommand fromEnvironment(RosVersion rosVersion) {
+        var envVar =
+                switch (rosVersion) {
+                    case ros1 -> "ROS_PACKAGE_PATH";
+                    case ros2 -> "AMENT_PREFIX_PATH";
+                };
+        var value = System.getenv(envVar);
+        if (value == null || value.isBlank())
+            throw new XRE(
+                    "Environment variable %s is not set, source ROS environment or use -rosPath",
+                    envVar);
+        return new FileSystemRosMsgCommand(rosVersion, parseRosPaths(value));
+    }
+
+    /**
+     * Create function which locates folders of the ROS packages used by the given command. When
+     * command does not read ROS files from the file system itself ROS packages are searched in the
+     * paths defined by ROS environment. If they cannot be located, function returns nothing for all
+     * of them.
+     */
+    public static Function<String, Optional<Path>> createPackageLocator(RosMsgCommand rosmsg) {
+        if (rosmsg instanceof FileSystemRosMsgCommand fsRosmsg) return fsRosmsg::findPackage;
+        try {
+            return fromEnvironment(rosmsg.getRosVersion())::findPackage;
+        } catch (XRE e) {
+            LOGGER.warning("ROS packages cannot be located: {0}", e.getMessage());
+            return packageName -> Optional.empty();
+        }
+    }
+
+    /** Parse paths separated with system path separator (ex. "/opt/ros/humble:/ws/install") */
+    public static List<Path> parseRosPaths(String paths) {
+        return Arrays.stream(paths.split(File.pathSeparator))
+                .filter(s -> !s.isBlank())
+                .map(Paths::get)
+                .toList();
+    }
+
+    private boolean isPackage(Path input) {
+        return input.getNameCount() == 1;
+    }
+
+    @Override
+    public Stream<RosFile> listFiles(Path rosPath) {
+        if (!isPackage(rosPath)) return RosFile.create(rosVersion, rosPath).stream();
+        var packageName = rosPath.toString();
+        var packageDir =
+                findPackage(packageName)
+                        .orElseThrow(() -> new XRE("Unknown package '%s'", packageName));
+        LOGGER.fine("Package {0} found in {1}", packageName, packageDir);
+        var rosFiles = new ArrayList<RosFile>();
+        for (var type : RosInterfaceType.values()) {
+            // ROS1 action files are available through the messages generated for them
+            if (rosVersion == RosVersion.ros1 && type == RosInterfaceType.ACTION) continue;
+            var dir = packageDir.resolve(folderName(type));
+            if (!Files.isDirectory(dir)) continue;
+            var extension = "." + folderName(type);
+            try (var files = Files.list(dir)) {
+                files.map(Path::getFileName)
+                        .map(Path::toString)
+                        .filter(fileName -> fileName.endsWith(extension))
+                        .sorted()
+                        .map(
+                                fileName ->
+                                        fileName.substring(
+                                                0, fileName.length() - extension.length()))
+                        .map(name -> createRosFile(packageName, type, name))
+                        .flatMap(Optional::stream)
+                        .forEach(rosFiles::add);
+            } catch (IOException e) {
+                throw new XRE("Could not list folder " + dir, e);
+            }
+        }
+        return rosFiles.stream();
+    }
+
+    private Optional<RosFile> createRosFile(
+            String packageName, RosInterfaceType type, String name) {
+        return switch (rosVersion) {
+            case ros1 ->
+                    type == RosInterfaceType.MESSAGE
+                            ? RosFile.create(rosVersion, Paths.get(packageName, name))
+                            : Optional.of(new RosFile(Paths.get(packageName, name), type));
+            case ros2 -> RosFile.create(rosVersion, Paths.get(packageName, folderName(type), name));
+        };
+    }
+
+    @Override
+    public Stream<String> lines(RosFile rosFile) {
+        var file = findFile(rosFile);
+        LOGGER.fine("Reading {0}", file);
+        return Unchecked.get(() -> Files.readAllLines(file)).stream();
+    }
+
+    @Override
+    public RosVersion getRosVersion() {
+        return rosVersion;
+    }
+
+    /** Resolve location of the file with ROS interface definition */
+    public Path findFile(RosFile rosFile) {
+        var name = rosFile.name();
+        var packageName = name.getName(0).toString();
+        var packageDir =
+                findPackage(packageName)
+                        .orElseThrow(() -> new XRE("Unknown package '%s'", packageName));
+        var type =
+                rosVersion == RosVersion.ros1 && rosFile.type() == RosInterfaceType.ACTION
+                        ? RosInterfaceType.MESSAGE
+                        : rosFile.type();
+        var file =
+                packageDir
+                        .resolve(folderName(type))
+                        .resolve(name.getFileName() + "." + folderName(type));
+        if (!Files.isRegularFile(file))
+            throw new XRE("ROS file %s not found in package %s", rosFile, packageDir);
+        return file;
+    }
+
+    /** Search for the ROS package folder inside all ROS paths */
+    public Optional<Path> findPackage(String packageName) {
+        for (var rosPath : rosPaths) {
+            var dir = rosPath.resolve("share").resolve(packageName);
+            if (Files.isDirectory(dir)) return Optional.of(dir);
+        }
+        return Optional.ofNullable(crawlPackages().get(packageName));
+    }
+
+    /**
+     * Similar to rospack, search packages recursively inside each ROS path which has no "share"
+     * folder. Once ROS package is found its subfolders are not searched.
+     */
+    private synchronized Map<String, Path> crawlPackages() {
+        if (crawledPackages != null) return crawledPackages;
+        var packages = new HashMap<String, Path>();
+        for (var rosPath : rosPaths) {
+            if (!Files.isDirectory(rosPath) || Files.isDirectory(rosPath.resolve("share")))
+                continue;
+            Unchecked.run(
+                    () ->
+                            Files.walkFileTree(
+                                    rosPath,
+                                    new SimpleFileVisitor<>() {
+                                        @Override
+                                        public FileVisitResult preVisitDirectory(
+                                                Path dir, BasicFileAttributes attrs)
+                                                throws IOException {
+                                            if (!Files.isRegularFile(dir.resolve(PACKAGE_MANIFEST)))
+                                                return FileVisitResult.CONTINUE;
+                                            packages.putIfAbsent(dir.getFileName().toString(), dir);
+                                            return FileVisitResult.SKIP_SUBTREE;
+                                        }
+                                    }));
+        }
+        LOGGER.fine("Found {0} packages in {1}", packages.size(), rosPaths);
+        crawledPackages = packages;
+        return crawledPackages;
+    }
+
+    private static String folderName(RosInterfaceType type) {
+        return switch (type) {
+            case MESSAGE -> "msg";
+            case SERVICE -> "srv";
+            case ACTION -> "action";
+        };
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.ros;
+
+import id.xfunction.ResourceUtils;
+import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XRE;
+import id.xfunction.logging.XLogger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Instead of calling ROS CLI command for each request it starts a single helper process which keeps
+ * ROS Python modules loaded and answers all requests.
+ *
+ * <p>Helper reads requests from its stdin, one request per line, and writes responses to its
+ * stdout:
+ *
+ * <ul>
+ *   <li>"show &lt;MESSAGE|SERVICE|ACTION&gt; &lt;ROS file name&gt;" - definition of the ROS file
+ *   <li>"package &lt;ROS package name&gt;" - list of "&lt;msg|srv|action&gt; &lt;ROS file name&gt;"
+ *       for all ROS files inside the package
+ * </ul>
+ *
+ * Each response starts with the status line "OK &lt;N&gt;", followed by N lines of the response, or
+ * "ERROR &lt;message&gt;".
+ *
+ * <p>Helper is started on the first request and stopped when command is closed. Requests are
+ * processed one at a time.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class HelperProcessRosMsgCommand implements RosMsgCommand {
+    private static final XLogger LOGGER = XLogger.getLogger(HelperProcessRosMsgCommand.class);
+    private static final String HELPER_SCRIPT = "msgmonster_helper.py";
+    private RosVersion rosVersion;
+    private List<String> helperCommand;
+    private Process process;
+    private BufferedWriter requests;
+    private BufferedReader responses;
+
+    /** Use default helper which relies on ROS Python modules */
+    public HelperProcessRosMsgCommand(RosVersion rosVersion) {
+        this(
+                rosVersion,
+                List.of("python3", extractHelperScript().toString(), rosVersion.toString()));
+    }
+
+    /**
+     * @param helperCommand command to start the helper process
+     */
+    public HelperProcessRosMsgCommand(RosVersion rosVersion, List<String> helperCommand) {
+        this.rosVersion = rosVersion;
+        this.helperCommand = helperCommand;
+    }
+
+    private static Path extractHelperScript() {
+        return Unchecked.get(
+                () -> {
+                    var script = Files.createTempFile("msgmonster_helper", ".py");
+                    script.toFile().deleteOnExit();
+                    Files.writeString(script, new ResourceUtils().readResource(HELPER_SCRIPT));
+                    return script;
+                });
+    }
+
+    private boolean isPackage(Path input) {
+        return input.getNameCount() == 1;
+    }
+
+    @Override
+    public Stream<RosFile> listFiles(Path rosPath) {
+        if (!isPackage(rosPath)) return RosFile.create(rosVersion, rosPath).stream();
+        return request("package " + rosPath).stream()
+                .map(line -> line.split(" "))
+                .map(tokens -> createRosFile(tokens[0], Paths.get(tokens[1])))
+                .flatMap(Optional::stream);
+    }
+
+    private Optional<RosFile> createRosFile(String folderName, Path name) {
+        if (rosVersion == RosVersion.ros1 && folderName.equals("srv"))
+            return Optional.of(new RosFile(name, RosInterfaceType.SERVICE));
+        return RosFile.create(rosVersion, name);
+    }
+
+    @Override
+    public Stream<String> lines(RosFile rosFile) {
+        return request("show " + rosFile.type() + " " + rosFile.name()).stream();
+    }
+
+    @Override
+    public RosVersion getRosVersion() {
+        return rosVersion;
+    }
+
+    private synchronized List<String> request(String request) {
+        try {
+            if (process == null) start();
+            LOGGER.fine("Request: {0}", request);
+            requests.write(request);
+            requests.newLine();
+            requests.flush();
+            var status = responses.readLine();
+            if (status == null)
+                throw new XRE("Helper process terminated while processing '%s'", request);
+            if (status.startsWith("ERROR "))
+                throw new XRE("Request '%s' failed: %s", request, status.substring(6));
+            if (!status.startsWith("OK "))
+                throw new XRE("Unexpected response status for '%s': %s", request, status);
+            var count = Integer.parseInt(status.substring(3));
+            var lines = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                var line = responses.readLine();
+                if (line == null)
+                    throw new XRE("Helper process terminated while processing '%s'", request);
+                lines.add(line);
+            }
+            return lines;
+        } catch (IOException e) {
+            throw new XRE("Error communicating with helper process", e);
+        }
+    }
+
+    private void start() throws IOException {
+        LOGGER.fine("Starting helper process: {0}", helperCommand);
+        process =
+                new ProcessBuilder(helperCommand)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+        requests =
+                new BufferedWriter(
+                        new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        responses =
+                new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /** Stop helper process */
+    @Override
+    public synchronized void close() {
+        if (process == null) return;
+        LOGGER.fine("Stopping helper process");
+        try {
+            // helper stops once its stdin is closed
+            requests.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (IOException | InterruptedException e) {
+            process.destroyForcibly();
+        }
+        process = null;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.ros;
+
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import pinorobotics.msgmonster.utils.GenerationStats;
+import pinorobotics.msgmonster.utils.GenerationStats.Phase;
+
+/**
+ * Decorator which measures time spent in another {@link RosMsgCommand} as {@link Phase#LIST} and
+ * {@link Phase#LINES} phases of {@link GenerationStats}.
+ *
+ * <p>Results are collected before they are returned, otherwise waiting for the lazy streams would
+ * be attributed to whoever consumes them.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MeasuredRosMsgCommand implements RosMsgCommand {
+    private RosMsgCommand rosmsg;
+
+    public MeasuredRosMsgCommand(RosMsgCommand rosmsg) {
+        this.rosmsg = rosmsg;
+    }
+
+    @Override
+    public Stream<RosFile> listFiles(Path rosPath) {
+        return GenerationStats.measure(Phase.LIST, () -> rosmsg.listFiles(rosPath).toList())
+                .stream();
+    }
+
+    @Override
+    public Stream<String> lines(RosFile rosFile) {
+        return GenerationStats.measure(Phase.LINES, () -> rosmsg.lines(rosFile).toList()).stream();
+    }
+
+    @Override
+    public RosVersion getRosVersion() {
+        return rosmsg.getRosVersion();
+    }
+
+    @Override
+    public void close() {
+        rosmsg.close();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.ros;
+
+import id.xfunction.logging.XLogger;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps results of the ROS commands in memory so that they can be reused by many generation runs
+ * inside the same JVM (ex. by msgmonster daemon).
+ *
+ * <p>Results are grouped by ROS package together with the state of the ROS package folder at the
+ * time they were read (names, sizes and modification times of all ROS interface definition files
+ * inside it). They are checked against the current state only in {@link #revalidate()} so between
+ * its calls command returns consistent results even when files are modified.
+ *
+ * <p>Results for ROS packages which cannot be located are not memoized.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class MemoizingRosMsgCommand implements RosMsgCommand {
+    private static final XLogger LOGGER = XLogger.getLogger(MemoizingRosMsgCommand.class);
+    private static final List<String> EXTENSIONS = List.of(".msg", ".srv", ".action");
+
+    /** Interface definition files are stored inside "msg", "srv", "action" package subfolders */
+    private static final int PACKAGE_DEPTH = 2;
+
+    private RosMsgCommand rosmsg;
+    private Function<String, Optional<Path>> packageLocator;
+    private Map<String, Optional<PackageResults>> packages = new ConcurrentHashMap<>();
+    private AtomicLong hits = new AtomicLong();
+    private AtomicLong misses = new AtomicLong();
+
+    private record PackageResults(
+            Path packageDir,
+            String state,
+            Map<Path, List<RosFile>> lists,
+            Map<RosFile, List<String>> definitions) {
+
+        PackageResults(Path packageDir, String state) {
+            this(packageDir, state, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @param packageLocator returns folder of the ROS package with the given name
+     */
+    public MemoizingRosMsgCommand(
+            RosMsgCommand rosmsg, Function<String, Optional<Path>> packageLocator) {
+        this.rosmsg = rosmsg;
+        this.packageLocator = packageLocator;
+    }
+
+    @Override
+    public Stream<RosFile> listFiles(Path rosPath) {
+        var results = findPackageResults(rosPath.getName(0).toString());
+        if (results.isEmpty()) return rosmsg.listFiles(rosPath);
+        return memoized(results.get().lists(), rosPath, () -> rosmsg.listFiles(rosPath).toList())
+                .stream();
+    }
+
+    @Override
+    public Stream<String> lines(RosFile rosFile) {
+        var results = findPackageResults(rosFile.name().getName(0).toString());
+        if (results.isEmpty()) return rosmsg.lines(rosFile);
+        return memoized(results.get().definitions(), rosFile, () -> rosmsg.lines(rosFile).toList())
+                .stream();
+    }
+
+    @Override
+    public RosVersion getRosVersion() {
+        return rosmsg.getRosVersion();
+    }
+
+    /**
+     * Drop results of all ROS packages which files changed since the results were read
+     *
+     * @return true if results of any ROS package could change (ROS packages which cannot be located
+     *     are always considered as changed since they are not memoized)
+     */
+    public synchronized boolean revalidate() {
+        var changed = false;
+        var iterator = packages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            var results = entry.getValue();
+            if (results.isPresent()
+                    && results.get().state().equals(calcState(results.get().packageDir())))
+                continue;
+            // packages which could not be located are searched again since they may be
+            // installed meanwhile
+            iterator.remove();
+            LOGGER.fine("Package {0} changed", entry.getKey());
+            changed = true;
+        }
+        return changed;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Memoized results hits {0}, misses {1}", hits.get(), misses.get());
+        rosmsg.close();
+    }
+
+    private Optional<PackageResults> findPackageResults(String packageName) {
+        return packages.computeIfAbsent(
+                packageName,
+                name ->
+                        packageLocator
+                                .apply(name)
+                                .map(dir -> new PackageResults(dir, calcState(dir))));
+    }
+
+    private <K, V> List<V> memoized(Map<K, List<V>> results, K key, Supplier<List<V>> loader) {
+        var result = results.get(key);
+        if (result != null) {
+            hits.incrementAndGet();
+            return result;
+        }
+        misses.incrementAndGet();
+        result = loader.get();
+        results.put(key, result);
+        return result;
+    }
+
+    private static String calcState(Path packageDir) {
+        try (var files = Files.walk(packageDir, PACKAGE_DEPTH)) {
+            return files.filter(MemoizingRosMsgCommand::isInterfaceFile)
+                    .sorted()
+                    .map(MemoizingRosMsgCommand::fileState)
+                    .collect(Collectors.joining("\n"));
+        } catch (IOException | UncheckedIOException e) {
+            // package was removed, next state will differ from it
+            return "";
+        }
+    }
+
+    private static boolean isInterfaceFile(Path file) {
+        var fileName = file.getFileName().toString();
+        return EXTENSIONS.stream().anyMatch(fileName::endsWith);
+    }
+
+    private static String fileState(Path file) {
+        try {
+            var attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return file + " " + attrs.size() + " " + attrs.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
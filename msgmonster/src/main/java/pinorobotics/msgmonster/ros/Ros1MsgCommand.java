@@ -17,12 +17,8 @@
  */
 package pinorobotics.msgmonster.ros;
 
-import id.xfunction.lang.XExec;
-import id.xfunction.lang.XRE;
-import id.xfunction.logging.XLogger;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
 import java.util.Optional;
 import java.util.stream.Stream;
 import pinorobotics.msgmonster.utils.MsgMonsterUtils;
@@ -31,7 +27,6 @@ import pinorobotics.msgmonster.utils.MsgMonsterUtils;
  * @author aeon_flux aeon_flux@eclipso.ch
  */
 public class Ros1MsgCommand implements RosMsgCommand {
-    private static final XLogger LOGGER = XLogger.getLogger(Ros1MsgCommand.class);
 
     private boolean isPackage(Path input) {
         return input.getNameCount() == 1;
@@ -50,18 +45,6 @@ public class Ros1MsgCommand implements RosMsgCommand {
         }
     }
 
-    @Override
-    public Optional<String> calcMd5Sum(Path msgFile) {
-        var cmd = "rosmsg md5 " + msgFile;
-        var exec = new XExec(cmd);
-        LOGGER.fine("Executing command: {0}", Arrays.toString(exec.getCommand()));
-        var proc = exec.start();
-        if (proc.await() != 0) throw new XRE("md5sum calc error: " + proc.stderr());
-        String md5sum = proc.stdout();
-        if (md5sum.isEmpty()) throw new XRE("Command `%s` returned empty MD5", cmd);
-        return Optional.of(md5sum);
-    }
-
     @Override
     public Stream<String> lines(RosFile msgFile) {
         return MsgMonsterUtils.runCommand("rosmsg show -r " + msgFile.name());
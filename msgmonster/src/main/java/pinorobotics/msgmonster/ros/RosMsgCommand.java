@@ -18,13 +18,12 @@
 package pinorobotics.msgmonster.ros;
 
 import java.nio.file.Path;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
  * @author aeon_flux aeon_flux@eclipso.ch
  */
-public interface RosMsgCommand {
+public interface RosMsgCommand extends AutoCloseable {
 
     /**
      * @param rosPath can be ROS package name (ex. tf2_msgs) or path to particular type inside it
@@ -34,11 +33,11 @@ public interface RosMsgCommand {
      */
     Stream<RosFile> listFiles(Path rosPath);
 
-    default Optional<String> calcMd5Sum(Path msgFile) {
-        return Optional.empty();
-    }
-
     Stream<String> lines(RosFile rosFile);
 
     RosVersion getRosVersion();
+
+    /** Release all resources (ex. processes) which are used by the command */
+    @Override
+    default void close() {}
 }
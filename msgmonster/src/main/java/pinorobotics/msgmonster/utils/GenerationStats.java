@@ -0,0 +1,322 @@
+/*
+ * Copyright 2024 msgmonster project
+ * 
+ * Website: https://github.com/pinorobotics/msgmonster
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.msgmonster.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Time spent in each phase of the generation, per ROS file.
+ *
+ * <p>Code which belongs to some phase is wrapped into {@link #measure(Phase, Supplier)}. Phases are
+ * attributed to the ROS file which is currently tracked by the thread (see {@link #track(String,
+ * Supplier)}), or to the totals only when no ROS file is tracked. When no stats are tracked by the
+ * thread at all, measuring does nothing.
+ *
+ * <p>Phases can be nested (for example parsing reads the lines of the ROS file) and each phase
+ * accounts only for its own time, excluding the time of nested phases.
+ *
+ * @author aeon_flux aeon_flux@eclipso.ch
+ */
+public class GenerationStats {
+    private static final ThreadLocal<Frame> CURRENT = new ThreadLocal<>();
+    private static final int[] PERCENTILES = {50, 90, 99};
+
+    public enum Phase {
+        /** Listing ROS files of the ROS packages */
+        LIST,
+        /** Reading definitions of the ROS files (includes waiting for ROS commands) */
+        LINES,
+        /** Parsing definitions of the ROS files */
+        PARSE,
+        /** Rendering Java classes */
+        RENDER,
+        /** Writing Java classes to the disk */
+        WRITE,
+        /** Compiling Java classes (when they are compiled by msgmonster itself) */
+        COMPILE;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static class Frame {
+        private GenerationStats stats;
+        private String rosFile;
+        private Frame parent;
+        private long childNanos;
+
+        Frame(GenerationStats stats, String rosFile, Frame parent) {
+            this.stats = stats;
+            this.rosFile = rosFile;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * @param totalNanos time spent on the ROS file including the time which does not belong to any
+     *     phase
+     */
+    private record FileStats(String name, long totalNanos, long[] phaseNanos) {}
+
+    private long startNanos = System.nanoTime();
+    private long endNanos;
+    private long[] totals = new long[Phase.values().length];
+    private Map<String, FileStats> files = new ConcurrentHashMap<>();
+
+    /**
+     * Run the action and attribute all phases measured inside of it to the given ROS file
+     *
+     * @param rosFile name of the ROS file or null when phases should be counted only in the totals
+     */
+    public <T> T track(String rosFile, Supplier<T> action) {
+        var parent = CURRENT.get();
+        var frame = new Frame(this, rosFile, null);
+        CURRENT.set(frame);
+        var startTime = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            var elapsed = System.nanoTime() - startTime;
+            CURRENT.set(parent);
+            if (rosFile != null) {
+                files.merge(
+                        rosFile,
+                        new FileStats(rosFile, elapsed, new long[Phase.values().length]),
+                        (a, b) ->
+                                new FileStats(rosFile, a.totalNanos + b.totalNanos, a.phaseNanos));
+            }
+        }
+    }
+
+    public void track(String rosFile, Runnable action) {
+        track(
+                rosFile,
+                () -> {
+                    action.run();
+                    return null;
+                });
+    }
+
+    /** Measure time of the phase and record it into the stats tracked by the current thread */
+    public static <T> T measure(Phase phase, Supplier<T> action) {
+        var parent = CURRENT.get();
+        if (parent == null) return action.get();
+        var frame = new Frame(parent.stats, parent.rosFile, parent);
+        CURRENT.set(frame);
+        var startTime = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            var elapsed = System.nanoTime() - startTime;
+            CURRENT.set(parent);
+            parent.childNanos += elapsed;
+            frame.stats.record(frame.rosFile, phase, elapsed - frame.childNanos);
+        }
+    }
+
+    public static void measure(Phase phase, Runnable action) {
+        measure(
+                phase,
+                () -> {
+                    action.run();
+                    return null;
+                });
+    }
+
+    private void record(String rosFile, Phase phase, long nanos) {
+        synchronized (totals) {
+            totals[phase.ordinal()] += nanos;
+        }
+        if (rosFile == null) return;
+        var fileStats =
+                files.computeIfAbsent(
+                        rosFile, name -> new FileStats(name, 0, new long[Phase.values().length]));
+        synchronized (fileStats.phaseNanos) {
+            fileStats.phaseNanos[phase.ordinal()] += nanos;
+        }
+    }
+
+    /** Stop the wall clock of the generation */
+    public void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    /** Total time of the phase across all threads */
+    public long getTotalNanos(Phase phase) {
+        synchronized (totals) {
+            return totals[phase.ordinal()];
+        }
+    }
+
+    /** Number of ROS files which were tracked */
+    public int getFilesCount() {
+        return files.size();
+    }
+
+    private long wallNanos() {
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    private List<FileStats> sortedBySlowest() {
+        return files.values().stream()
+                .sorted(
+                        Comparator.comparingLong(FileStats::totalNanos)
+                                .reversed()
+                                .thenComparing(FileStats::name))
+                .toList();
+    }
+
+    /** Nearest rank percentiles of the time spent on each ROS file */
+    private long[] percentiles() {
+        var sorted = files.values().stream().mapToLong(FileStats::totalNanos).sorted().toArray();
+        var result = new long[PERCENTILES.length];
+        if (sorted.length == 0) return result;
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            var rank = (int) Math.ceil(PERCENTILES[i] / 100.0 * sorted.length);
+            result[i] = sorted[Math.max(rank, 1) - 1];
+        }
+        return result;
+    }
+
+    private double throughput() {
+        var seconds = wallNanos() / 1e9;
+        return seconds == 0 ? 0 : files.size() / seconds;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.US, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Human readable report
+     *
+     * @param slowestCount number of the slowest ROS files to include into the report
+     */
+    public String formatText(int slowestCount) {
+        var out = new StringBuilder();
+        out.append(
+                String.format(
+                        Locale.US,
+                        "Generated %d ROS files in %s ms (%.1f files/sec)\n",
+                        files.size(),
+                        millis(wallNanos()),
+                        throughput()));
+        var phasesTotal = Arrays.stream(Phase.values()).mapToLong(this::getTotalNanos).sum();
+        out.append(String.format("%-8s %12s %7s\n", "Phase", "Time (ms)", "Share"));
+        for (var phase : Phase.values()) {
+            var nanos = getTotalNanos(phase);
+            out.append(
+                    String.format(
+                            Locale.US,
+                            "%-8s %12s %6.1f%%\n",
+                            phase,
+                            millis(nanos),
+                            phasesTotal == 0 ? 0 : 100.0 * nanos / phasesTotal));
+        }
+        var percentiles = percentiles();
+        var percentilesText = new ArrayList<String>();
+        for (int i = 0; i < PERCENTILES.length; i++)
+            percentilesText.add("p" + PERCENTILES[i] + " " + millis(percentiles[i]));
+        out.append("Time per ROS file (ms): " + String.join(", ", percentilesText) + "\n");
+        var slowest = sortedBySlowest().stream().limit(slowestCount).toList();
+        if (!slowest.isEmpty()) out.append("Slowest ROS files (ms):\n");
+        for (var fileStats : slowest) {
+            out.append(
+                    String.format(
+                            "  %s %s (%s)\n",
+                            fileStats.name(),
+                            millis(fileStats.totalNanos()),
+                            Arrays.stream(Phase.values())
+                                    .map(
+                                            phase ->
+                                                    phase
+                                                            + " "
+                                                            + millis(
+                                                                    fileStats
+                                                                            .phaseNanos()[
+                                                                            phase.ordinal()]))
+                                    .collect(Collectors.joining(", "))));
+        }
+        return out.toString();
+    }
+
+    private static String formatJsonPhases(long[] phaseNanos) {
+        return Arrays.stream(Phase.values())
+                .map(phase -> "\"" + phase + "\": " + millis(phaseNanos[phase.ordinal()]))
+                .collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Machine readable report
+     *
+     * @param slowestCount number of the slowest ROS files to include into the report
+     */
+    public String formatJson(int slowestCount) {
+        var totalsCopy = Arrays.stream(Phase.values()).mapToLong(this::getTotalNanos).toArray();
+        var percentiles = percentiles();
+        var percentilesJson = new ArrayList<String>();
+        for (int i = 0; i < PERCENTILES.length; i++)
+            percentilesJson.add("\"p" + PERCENTILES[i] + "\": " + millis(percentiles[i]));
+        var slowestJson =
+                sortedBySlowest().stream()
+                        .limit(slowestCount)
+                        .map(
+                                fileStats ->
+                                        String.format(
+                                                "    {\"name\": %s, \"totalMs\": %s, \"phasesMs\":"
+                                                        + " %s}",
+                                                quote(fileStats.name()),
+                                                millis(fileStats.totalNanos()),
+                                                formatJsonPhases(fileStats.phaseNanos())))
+                        .collect(Collectors.joining(",\n"));
+        return String.format(
+                Locale.US,
+                """
+                {
+                  "filesCount": %d,
+                  "wallTimeMs": %s,
+                  "filesPerSecond": %.3f,
+                  "phasesMs": %s,
+                  "fileTimeMs": {%s},
+                  "slowest": [
+                %s
+                  ]
+                }
+                """,
+                files.size(),
+                millis(wallNanos()),
+                throughput(),
+                formatJsonPhases(totalsCopy),
+                String.join(", ", percentilesJson),
+                slowestJson);
+    }
+}
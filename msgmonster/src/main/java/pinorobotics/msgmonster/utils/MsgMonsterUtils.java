@@ -17,17 +17,46 @@
  */
 package pinorobotics.msgmonster.utils;
 
+import id.xfunction.function.Unchecked;
 import id.xfunction.lang.XExec;
 import id.xfunction.logging.XLogger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.stream.Stream;
+import pinorobotics.msgmonster.jfr.SubprocessExecEvent;
 
 public class MsgMonsterUtils {
     private static final XLogger LOGGER = XLogger.getLogger(MsgMonsterUtils.class);
 
+    /**
+     * Output of the command is read fully before it is returned so that {@link SubprocessExecEvent}
+     * accounts for the whole execution of the command
+     */
     public static final Stream<String> runCommand(String cmd) {
         var exec = new XExec(cmd);
         LOGGER.fine("Executing command: {0}", Arrays.toString(exec.getCommand()));
-        return exec.start().outputAsync(false).stderrThrow().stdout().lines();
+        var event = new SubprocessExecEvent();
+        event.begin();
+        var lines = exec.start().outputAsync(false).stderrThrow().stdout().lines().toList();
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = cmd;
+            event.lines = lines.size();
+            event.bytes = lines.stream().mapToLong(line -> line.length() + 1).sum();
+            event.commit();
+        }
+        return lines.stream();
+    }
+
+    /** SHA-256 of UTF-8 bytes of the given text in hex format */
+    public static final String sha256(String text) {
+        var digest =
+                Unchecked.get(
+                        () ->
+                                MessageDigest.getInstance("SHA-256")
+                                        .digest(text.getBytes(StandardCharsets.UTF_8)));
+        return HexFormat.of().formatHex(digest);
     }
 }
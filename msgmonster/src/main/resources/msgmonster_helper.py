@@ -0,0 +1,98 @@
+#!/usr/bin/env python3
+#
+# Copyright 2024 msgmonster project
+#
+# Website: https://github.com/pinorobotics/msgmonster
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+# Long-lived helper process which answers msgmonster requests using ROS Python
+# modules, so they are loaded only once instead of starting new ROS command for
+# each ROS interface.
+#
+# Usage: msgmonster_helper.py <ros1|ros2>
+#
+# Each request is a single line in stdin:
+#
+#   show <MESSAGE|SERVICE|ACTION> <ROS file name>
+#   package <ROS package name>
+#
+# Each response starts with the status line which is either "OK <N>", followed
+# by N lines of the response, or "ERROR <message>".
+#
+# Response to "show" is the definition of the ROS file.
+# Response to "package" is the list of "<msg|srv|action> <ROS file name>".
+
+import os
+import sys
+
+
+class Ros1:
+    def __init__(self):
+        import rosmsg
+        import rospkg
+        self.rosmsg = rosmsg
+        self.rospack = rospkg.RosPack()
+
+    def show(self, type, name):
+        if type == "SERVICE":
+            text = self.rosmsg.get_srv_text(name, raw=True, rospack=self.rospack)
+        else:
+            text = self.rosmsg.get_msg_text(name, raw=True, rospack=self.rospack)
+        return text.splitlines()
+
+    def package(self, name):
+        return ["msg " + m for m in self.rosmsg.list_msgs(name, rospack=self.rospack)] + [
+            "srv " + s for s in self.rosmsg.list_srvs(name, rospack=self.rospack)
+        ]
+
+
+class Ros2:
+    def __init__(self):
+        import rosidl_runtime_py
+        self.rosidl = rosidl_runtime_py
+
+    def show(self, type, name):
+        with open(self.rosidl.get_interface_path(name)) as file:
+            return file.read().splitlines()
+
+    def package(self, name):
+        result = []
+        for interface in sorted(self.rosidl.get_interfaces([name])[name]):
+            kind, interface_name = os.path.splitext(interface)[0].split("/")
+            result.append("%s %s/%s/%s" % (kind, name, kind, interface_name))
+        return result
+
+
+def main():
+    if len(sys.argv) != 2:
+        print("Usage: msgmonster_helper.py <ros1|ros2>", file=sys.stderr)
+        sys.exit(1)
+    ros = Ros1() if sys.argv[1] == "ros1" else Ros2()
+    commands = {"show": ros.show, "package": ros.package}
+    for request in sys.stdin:
+        args = request.split()
+        try:
+            if not args or args[0] not in commands:
+                raise ValueError("Unknown request: " + request.strip())
+            lines = commands[args[0]](*args[1:])
+            print("OK %d" % len(lines))
+            for line in lines:
+                print(line)
+        except Exception as e:
+            print("ERROR " + str(e).replace("\n", " "))
+        sys.stdout.flush()
+
+
+if __name__ == "__main__":
+    main()